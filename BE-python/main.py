@@ -7,7 +7,7 @@ import qrcode
 import uuid
 from datetime import datetime, timezone
 import uvicorn
-from typing import Dict, Any
+from typing import Dict, Any, List
 from fastapi import FastAPI
 from pydantic import BaseModel
 from prometheus_fastapi_instrumentator import Instrumentator
@@ -50,6 +50,12 @@ class QRCodeResponse(BaseModel):
     qr_code_base64: str
     hash: str
 
+class BatchTransactionData(BaseModel):
+    items: List[TransactionData]
+
+class BatchQRCodeResponse(BaseModel):
+    results: List[QRCodeResponse]
+
 class ValidationResponse(BaseModel):
     valid: bool
     timestamp: str
@@ -60,50 +66,71 @@ async def health_check() -> Dict[str, str]:
     logger.info("Health check endpoint called")
     return {"status": "up"}
 
-@app.post("/generate-qr", response_model=QRCodeResponse)
-async def generate_qr(data: TransactionData) -> Dict[str, Any]:
+def build_qr(data: TransactionData) -> Dict[str, Any]:
     """
-    Generate QR Code from transaction data.
+    Build a unique hash and its QR code PNG (base64) for one transaction.
     """
-    try:
-        # Generate unique hash combining user_id, amount, timestamp and UUID
-        timestamp = datetime.now(timezone.utc).isoformat()
-        unique_string = f"{data.user_id}_{data.amount}_{timestamp}_{uuid.uuid4()}"
-        hash_value = str(uuid.uuid5(uuid.NAMESPACE_DNS, unique_string))
+    # Generate unique hash combining user_id, amount, timestamp and UUID
+    timestamp = datetime.now(timezone.utc).isoformat()
+    unique_string = f"{data.user_id}_{data.amount}_{timestamp}_{uuid.uuid4()}"
+    hash_value = str(uuid.uuid5(uuid.NAMESPACE_DNS, unique_string))
 
-        # Create QR code instance
-        qr = qrcode.QRCode(
-            version=1,
-            error_correction=qrcode.constants.ERROR_CORRECT_L,
-            box_size=10,
-            border=4,
-        )
+    # Create QR code instance
+    qr = qrcode.QRCode(
+        version=1,
+        error_correction=qrcode.constants.ERROR_CORRECT_L,
+        box_size=10,
+        border=4,
+    )
 
-        # Add data to QR code
-        qr.add_data(hash_value)
-        qr.make(fit=True)
+    # Add data to QR code
+    qr.add_data(hash_value)
+    qr.make(fit=True)
 
-        # Create QR code image
-        img = qr.make_image(fill_color="black", back_color="white")
+    # Create QR code image
+    img = qr.make_image(fill_color="black", back_color="white")
 
-        img_buffer = BytesIO()
-        img.save(img_buffer, format="PNG")
-        img_buffer.seek(0)
+    img_buffer = BytesIO()
+    img.save(img_buffer, format="PNG")
+    img_buffer.seek(0)
 
-        img_bytes = img_buffer.getvalue()
-        qr_base64 = b64encode(img_bytes).decode("utf-8")
+    img_bytes = img_buffer.getvalue()
+    qr_base64 = b64encode(img_bytes).decode("utf-8")
 
-        logger.info(f"QR code generated for user_id: {data.user_id}")
+    return {
+        "qr_code_base64": qr_base64,
+        "hash": hash_value
+    }
 
-        return {
-            "qr_code_base64": qr_base64,
-            "hash": hash_value
-        }
+@app.post("/generate-qr", response_model=QRCodeResponse)
+async def generate_qr(data: TransactionData) -> Dict[str, Any]:
+    """
+    Generate QR Code from transaction data.
+    """
+    try:
+        result = build_qr(data)
+        logger.info(f"QR code generated for user_id: {data.user_id}")
+        return result
 
     except Exception as e:
         logger.error(f"Error generating QR code: {str(e)}")
         raise Exception(f"Error generating QR code: {str(e)}")
 
+@app.post("/generate-qr/batch", response_model=BatchQRCodeResponse)
+async def generate_qr_batch(data: BatchTransactionData) -> Dict[str, Any]:
+    """
+    Generate QR Codes for several transactions in one call.
+    Results are returned in the same order as the requested items.
+    """
+    try:
+        results = [build_qr(item) for item in data.items]
+        logger.info(f"QR code batch generated: {len(results)} items")
+        return {"results": results}
+
+    except Exception as e:
+        logger.error(f"Error generating QR code batch: {str(e)}")
+        raise Exception(f"Error generating QR code batch: {str(e)}")
+
 @app.post("/validate-qr", response_model=ValidationResponse)
 async def validate_qr(data: ValidationRequest) -> Dict[str, Any]:
     logger.info(f"Validating QR hash: {data.qr_hash}")
@@ -0,0 +1,89 @@
+package org.example.bespringboot.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compares two JMH JSON result files (-rf json), e.g. the previous release against the current build
+ *
+ * Prints one line per benchmark and parameter set with both scores and the relative change. A change is
+ * flagged as slower/faster when it exceeds the threshold (default 5%) and is larger than the two runs'
+ * combined score error; for throughput modes higher is better, for time modes lower is better.
+ * Exits with status 1 when anything got slower. Run with:
+ * mvn -Pbenchmark test-compile exec:exec -Dexec.args="-cp %classpath org.example.bespringboot.benchmark.BenchmarkComparison baseline.json target/jmh-result.json [threshold%]"
+ */
+public final class BenchmarkComparison {
+
+    private BenchmarkComparison() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("usage: BenchmarkComparison <baseline.json> <current.json> [threshold%]");
+            System.exit(2);
+        }
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) / 100 : 0.05;
+        Map<String, JsonNode> baseline = read(new File(args[0]));
+        Map<String, JsonNode> current = read(new File(args[1]));
+
+        int slower = 0;
+        System.out.printf("%-70s %14s %14s %9s  %s%n", "Benchmark", "Baseline", "Current", "Change", "");
+        for (Map.Entry<String, JsonNode> entry : current.entrySet()) {
+            JsonNode now = entry.getValue();
+            JsonNode before = baseline.get(entry.getKey());
+            String unit = now.path("primaryMetric").path("scoreUnit").asText();
+            double score = now.path("primaryMetric").path("score").asDouble();
+            if (before == null) {
+                System.out.printf("%-70s %14s %14.3f %9s  %s%n", entry.getKey(), "-", score, "", "new (" + unit + ")");
+                continue;
+            }
+
+            double baseScore = before.path("primaryMetric").path("score").asDouble();
+            double error = errorOf(now) + errorOf(before);
+            double change = baseScore == 0 ? 0 : (score - baseScore) / baseScore;
+            boolean higherIsBetter = "thrpt".equals(now.path("mode").asText());
+            String verdict = "";
+            if (Math.abs(change) > threshold && Math.abs(score - baseScore) > error) {
+                boolean better = higherIsBetter == (change > 0);
+                verdict = better ? "faster" : "SLOWER";
+                slower += better ? 0 : 1;
+            }
+            System.out.printf("%-70s %14.3f %14.3f %+8.1f%%  %s%n",
+                    entry.getKey(), baseScore, score, change * 100, verdict + " (" + unit + ")");
+        }
+        for (String removed : baseline.keySet()) {
+            if (!current.containsKey(removed)) {
+                System.out.printf("%-70s %14s%n", removed, "removed");
+            }
+        }
+
+        if (slower > 0) {
+            System.out.println(slower + " benchmark(s) slower than the baseline");
+            System.exit(1);
+        }
+    }
+
+    private static double errorOf(JsonNode result) {
+        double error = result.path("primaryMetric").path("scoreError").asDouble();
+        return Double.isNaN(error) ? 0 : error;
+    }
+
+    // Keyed by benchmark name plus its sorted parameters, e.g. "PasswordHashingBenchmark.pooled {strength=10}"
+    private static Map<String, JsonNode> read(File file) throws IOException {
+        Map<String, JsonNode> results = new LinkedHashMap<>();
+        for (JsonNode result : new ObjectMapper().readTree(file)) {
+            Map<String, String> params = new TreeMap<>();
+            result.path("params").fields().forEachRemaining(p -> params.put(p.getKey(), p.getValue().asText()));
+            String name = result.path("benchmark").asText().replace(BenchmarkComparison.class.getPackageName() + ".", "");
+            String key = name + (params.isEmpty() ? "" : " " + params);
+            results.put(key, result);
+        }
+        return results;
+    }
+}
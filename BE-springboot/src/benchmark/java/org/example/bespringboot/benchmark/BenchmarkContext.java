@@ -0,0 +1,56 @@
+package org.example.bespringboot.benchmark;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.bespringboot.BeSpringbootApplication;
+import org.example.bespringboot.service.QrImageService;
+import org.example.bespringboot.service.qr.QrCodeEncoder.ErrorCorrection;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Starts the full application for benchmarks that need the real database
+ * Uses a random HTTP port and quiet application logging; extra command-line args still win.
+ * Benchmarks that build services by hand call {@link #quietLogging()} instead.
+ */
+final class BenchmarkContext {
+
+    private BenchmarkContext() {
+    }
+
+    static ConfigurableApplicationContext start(String[] args) {
+        List<String> effectiveArgs = new ArrayList<>();
+        effectiveArgs.add("--server.port=0");
+        effectiveArgs.add("--logging.level.org.example.bespringboot=WARN");
+        effectiveArgs.addAll(List.of(args));
+        return SpringApplication.run(BeSpringbootApplication.class, effectiveArgs.toArray(String[]::new));
+    }
+
+    /**
+     * Raise the root logger to WARN for benchmarks that run without the Spring context
+     * Without logback-spring.xml, Logback's default configuration logs everything at DEBUG to the console.
+     */
+    static void quietLogging() {
+        ((Logger) LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME)).setLevel(Level.WARN);
+    }
+
+    /**
+     * QR image service with the default qr.java.* settings and a store in a new temporary directory
+     */
+    static QrImageService qrImageService() {
+        try {
+            return new QrImageService(new SimpleMeterRegistry(), ErrorCorrection.L, 10, 4, 16,
+                    Files.createTempDirectory("qr-store-benchmark"), 64 << 20, 1 << 16, 0.5, 600);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package org.example.bespringboot.benchmark;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.bespringboot.dto.QrResponse;
+import org.example.bespringboot.dto.TransactionRequest;
+import org.example.bespringboot.entity.Transaction;
+import org.example.bespringboot.service.OutboxService;
+import org.example.bespringboot.service.PointsLedgerService;
+import org.example.bespringboot.service.PurchaseMetrics;
+import org.example.bespringboot.service.TransactionService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Create Transaction Benchmark
+ * The in-process cost of {@link TransactionService#createTransaction}: building the transaction,
+ * crediting the ledger and writing the outbox event, with map-backed repositories, a no-op transaction
+ * manager and a QR stub that returns a fixed code. Database and QR service latency are deliberately
+ * left out (see the load test for those), so a change here shows up as a change in service code.
+ * Run with:
+ * mvn -Pbenchmark test-compile exec:exec@jmh -Djmh.include=CreateTransactionBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CreateTransactionBenchmark {
+
+    private InMemoryRepositories repositories;
+    private TransactionService transactionService;
+    private ExecutorService executor;
+    private TransactionRequest request;
+
+    @Setup
+    public void setUp() {
+        BenchmarkContext.quietLogging();
+        repositories = new InMemoryRepositories().withUser(1L, 0L);
+        QrResponse qr = new QrResponse("iVBORw0KGgoAAAANSUhEUgAAAAEAAAABCAYAAAAfFcSJAAAADUlEQVR42mNkYPhfDwAChwGA60e6kgAAAABJRU5ErkJggg==",
+                "9f86d081884c7d659a2feaa0c55ad015a3bf4f1b2b0b822cd15d6c15b0f00a08");
+        TransactionTemplate transactionTemplate = new TransactionTemplate(InMemoryRepositories.noOpTransactionManager());
+        PointsLedgerService ledger = new PointsLedgerService(repositories.users(), repositories.pointsEntries());
+        OutboxService outbox = new OutboxService(repositories.outboxEvents(),
+                Jackson2ObjectMapperBuilder.json().build(), Optional.empty());
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+
+        transactionService = new TransactionService((userId, amount) -> qr, repositories.transactions(),
+                repositories.users(), repositories.bars(), ledger, outbox, transactionTemplate, executor,
+                new PurchaseMetrics(new SimpleMeterRegistry()),
+                BenchmarkContext.qrImageService());
+        request = new TransactionRequest();
+        request.setUserId(1L);
+        request.setBarId(1L);
+        request.setAmount(25L);
+    }
+
+    // Keeps the in-memory tables from growing across iterations
+    @TearDown(Level.Iteration)
+    public void clearRows() {
+        repositories.clearRows();
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.close();
+    }
+
+    @Benchmark
+    public Transaction createTransaction() {
+        return transactionService.createTransaction(request);
+    }
+}
@@ -0,0 +1,136 @@
+package org.example.bespringboot.benchmark;
+
+import org.example.bespringboot.entity.Bar;
+import org.example.bespringboot.entity.OutboxEvent;
+import org.example.bespringboot.entity.PointsEntry;
+import org.example.bespringboot.entity.Transaction;
+import org.example.bespringboot.entity.User;
+import org.example.bespringboot.repository.BarRepository;
+import org.example.bespringboot.repository.OutboxEventRepository;
+import org.example.bespringboot.repository.PointsEntryRepository;
+import org.example.bespringboot.repository.TransactionRepository;
+import org.example.bespringboot.repository.UserRepository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Map-backed repositories and a no-op transaction manager for benchmarking services without a database
+ * Only the repository methods the purchase path calls are implemented; anything else throws
+ * UnsupportedOperationException so a benchmark cannot silently measure a stub that does nothing.
+ */
+final class InMemoryRepositories {
+
+    private final AtomicLong ids = new AtomicLong();
+    private final Map<Long, Long> balances = new ConcurrentHashMap<>();
+    private final Map<Long, Object> rows = new ConcurrentHashMap<>();
+
+    InMemoryRepositories withUser(long userId, long balance) {
+        balances.put(userId, balance);
+        return this;
+    }
+
+    int rowCount() {
+        return rows.size();
+    }
+
+    void clearRows() {
+        rows.clear();
+    }
+
+    TransactionRepository transactions() {
+        return proxy(TransactionRepository.class, (proxy, method, args) -> switch (method.getName()) {
+            case "save" -> save((Transaction) args[0], ((Transaction) args[0])::setId);
+            default -> unsupported(method.getName());
+        });
+    }
+
+    UserRepository users() {
+        return proxy(UserRepository.class, (proxy, method, args) -> switch (method.getName()) {
+            case "getReferenceById" -> reference(User::new, u -> u.setId((Long) args[0]));
+            case "addPointsReturningBalance" -> Optional.ofNullable(
+                    balances.computeIfPresent((Long) args[0], (id, balance) -> balance + (long) args[1]));
+            case "findPointsBalanceById" -> Optional.ofNullable(balances.get((Long) args[0]));
+            default -> unsupported(method.getName());
+        });
+    }
+
+    BarRepository bars() {
+        return proxy(BarRepository.class, (proxy, method, args) -> switch (method.getName()) {
+            case "getReferenceById" -> reference(Bar::new, b -> b.setId((Long) args[0]));
+            default -> unsupported(method.getName());
+        });
+    }
+
+    PointsEntryRepository pointsEntries() {
+        return proxy(PointsEntryRepository.class, (proxy, method, args) -> switch (method.getName()) {
+            case "save" -> save((PointsEntry) args[0], ((PointsEntry) args[0])::setId);
+            default -> unsupported(method.getName());
+        });
+    }
+
+    OutboxEventRepository outboxEvents() {
+        return proxy(OutboxEventRepository.class, (proxy, method, args) -> switch (method.getName()) {
+            case "save" -> save((OutboxEvent) args[0], ((OutboxEvent) args[0])::setId);
+            default -> unsupported(method.getName());
+        });
+    }
+
+    static PlatformTransactionManager noOpTransactionManager() {
+        return new PlatformTransactionManager() {
+            @Override
+            public TransactionStatus getTransaction(TransactionDefinition definition) {
+                return new SimpleTransactionStatus();
+            }
+
+            @Override
+            public void commit(TransactionStatus status) {
+            }
+
+            @Override
+            public void rollback(TransactionStatus status) {
+            }
+        };
+    }
+
+    private <T> T save(T entity, Consumer<Long> setId) {
+        long id = ids.incrementAndGet();
+        setId.accept(id);
+        rows.put(id, entity);
+        return entity;
+    }
+
+    private static <T> T reference(Supplier<T> factory, Consumer<T> init) {
+        T entity = factory.get();
+        init.accept(entity);
+        return entity;
+    }
+
+    private static Object unsupported(String method) {
+        throw new UnsupportedOperationException(method + " is not implemented by the in-memory repository");
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            if (method.getDeclaringClass() == Object.class) {
+                return switch (method.getName()) {
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    default -> type.getSimpleName() + "(in-memory)";
+                };
+            }
+            return handler.invoke(proxy, method, args);
+        });
+    }
+}
@@ -0,0 +1,92 @@
+package org.example.bespringboot.benchmark;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.bespringboot.config.JwtAuthenticationFilter;
+import org.example.bespringboot.entity.User;
+import org.example.bespringboot.service.AuthenticatedUserService;
+import org.example.bespringboot.service.JwtService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import jakarta.servlet.ServletException;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JWT Authentication Filter Benchmark
+ * One pass of {@link JwtAuthenticationFilter} as the servlet container runs it: an authenticated API
+ * request with a cached token, a request without a token, and a public route that skips the filter.
+ * Real JwtService and AuthenticatedUserService, no database (tokens carry id and role claims).
+ * Run with:
+ * mvn -Pbenchmark test-compile exec:exec@jmh -Djmh.include=JwtAuthenticationFilterBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtAuthenticationFilterBenchmark {
+
+    private JwtAuthenticationFilter filter;
+    private String authorization;
+
+    @Setup
+    public void setUp() {
+        BenchmarkContext.quietLogging();
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        JwtService jwtService = new JwtService(meterRegistry, 86_400_000, 10_000, 300);
+        // Only legacy tokens without id/role claims reach the repository
+        AuthenticatedUserService authenticatedUserService =
+                new AuthenticatedUserService(new InMemoryRepositories().users(), meterRegistry, 10_000, 300);
+        filter = new JwtAuthenticationFilter(jwtService, authenticatedUserService);
+
+        User user = new User();
+        user.setId(7L);
+        user.setUsername("student_dev");
+        user.setEmail("dev@student.tuiasi.ro");
+        user.setRole("ROLE_CLIENT");
+        authorization = "Bearer " + jwtService.generateToken(user);
+    }
+
+    @Benchmark
+    public Authentication authenticatedRequest() throws ServletException, IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/transactions");
+        request.addHeader("Authorization", authorization);
+        return run(request);
+    }
+
+    @Benchmark
+    public Authentication anonymousRequest() throws ServletException, IOException {
+        return run(new MockHttpServletRequest("GET", "/api/v1/users/7"));
+    }
+
+    @Benchmark
+    public Authentication publicRoute() throws ServletException, IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/bars");
+        request.addHeader("Authorization", authorization);
+        return run(request);
+    }
+
+    private Authentication run(MockHttpServletRequest request) throws ServletException, IOException {
+        try {
+            filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+            return SecurityContextHolder.getContext().getAuthentication();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package org.example.bespringboot.benchmark;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.bespringboot.entity.User;
+import org.example.bespringboot.service.JwtService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JWT Service Benchmark
+ * Token issue (login) and token checks (every authenticated request). The checks run twice: against the
+ * claims cache as in steady state (cached*), and with a zero-size cache so every call parses and verifies
+ * the signature (uncached*). Run with:
+ * mvn -Pbenchmark test-compile exec:exec@jmh -Djmh.include=JwtServiceBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtServiceBenchmark {
+
+    private JwtService cached;
+    private JwtService uncached;
+    private User user;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        cached = new JwtService(new SimpleMeterRegistry(), 86_400_000, 10_000, 300);
+        uncached = new JwtService(new SimpleMeterRegistry(), 86_400_000, 0, 300);
+        user = new User();
+        user.setId(7L);
+        user.setUsername("student_dev");
+        user.setEmail("dev@student.tuiasi.ro");
+        user.setRole("ROLE_CLIENT");
+        token = cached.generateToken(user);
+        cached.extractClaims(token);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return cached.generateToken(user);
+    }
+
+    @Benchmark
+    public String cachedExtractUsername() {
+        return cached.extractUsername(token);
+    }
+
+    @Benchmark
+    public boolean cachedIsTokenValid() {
+        return cached.isTokenValid(token, user);
+    }
+
+    @Benchmark
+    public String uncachedExtractUsername() {
+        return uncached.extractUsername(token);
+    }
+
+    @Benchmark
+    public boolean uncachedIsTokenValid() {
+        return uncached.isTokenValid(token, user);
+    }
+}
@@ -0,0 +1,455 @@
+package org.example.bespringboot.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.example.bespringboot.entity.User;
+import org.example.bespringboot.repository.UserRepository;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.io.File;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.WebSocket;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Load Test - Open-model end-to-end load against the full application and a stand-in QR service
+ *
+ * Starts the application on a random port with python.microservice.url pointing at a
+ * {@link QrServiceStub}, seeds load.users client accounts and starts load.rate visitor sessions per
+ * second for load.warmup + load.duration seconds. Arrivals follow a fixed schedule whatever the
+ * response times (open model): each session runs on its own virtual thread, and its first request is
+ * timed from the scheduled start, so a stalled server shows up as latency instead of as fewer requests.
+ *
+ * A session logs in, lists the bars and one bar's rewards; load.purchase-ratio of the sessions then
+ * subscribe to /topic/points/{userId} over SockJS/STOMP, make load.purchases purchases and wait for
+ * the push carrying the last purchase ("WS push" is timed from sending that purchase).
+ *
+ * Prints count, errors, throughput and p50/p95/p99/max per endpoint for the measured window (warm-up
+ * sessions are not recorded) and writes each HDR histogram as a percentile distribution to
+ * target/loadtest/*.hgrm. Needs the database from application.properties. Run with:
+ * mvn -Pbenchmark test-compile exec:java \
+ *   -Dexec.mainClass=org.example.bespringboot.benchmark.LoadTest \
+ *   -Dload.rate=20 -Dload.duration=60 -Dload.qr.latency-ms=40 -Dload.qr.error-rate=0.01
+ * Application arguments go in exec.args; to compare the virtual-thread profile with the platform-thread
+ * default, run the same workload again with -Dexec.args=--spring.profiles.active=virtual-threads.
+ * The sessions' virtual threads share the JVM's carrier threads (one per CPU) with the application's, so
+ * on a machine with few CPUs raise them for both runs, e.g. MAVEN_OPTS=-Djdk.virtualThreadScheduler.parallelism=4.
+ *
+ * Exits with status 1 when more than load.max-error-pct percent of the measured requests failed.
+ */
+public class LoadTest {
+
+    private static final String USER_PREFIX = "loadtest-";
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(5);
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<String, Endpoint> endpoints = new LinkedHashMap<>();
+    private final ExecutorService sessions = Executors.newVirtualThreadPerTaskExecutor();
+    private final HttpClient http = HttpClient.newBuilder()
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final String baseUrl;
+    private final List<String> usernames;
+    private final double purchaseRatio;
+    private final int purchases;
+    private final long pushTimeoutMs;
+    private final LongAdder sessionsStarted = new LongAdder();
+    private final LongAdder sessionsFailed = new LongAdder();
+    private final LongAdder arrivalsDropped = new LongAdder();
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private LoadTest(String baseUrl, List<String> usernames, double purchaseRatio, int purchases, long pushTimeoutMs) {
+        this.baseUrl = baseUrl;
+        this.usernames = usernames;
+        this.purchaseRatio = purchaseRatio;
+        this.purchases = purchases;
+        this.pushTimeoutMs = pushTimeoutMs;
+        for (String name : List.of("POST /api/v1/auth/login", "GET /api/bars", "GET /api/bars/{id}/rewards",
+                "WS connect", "POST /api/transactions", "WS push")) {
+            endpoints.put(name, new Endpoint(name));
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        double rate = Double.parseDouble(System.getProperty("load.rate", "20"));
+        int warmupSeconds = Integer.getInteger("load.warmup", 10);
+        int durationSeconds = Integer.getInteger("load.duration", 60);
+        int userCount = Integer.getInteger("load.users", 500);
+        int maxSessions = Integer.getInteger("load.max-sessions", 5000);
+        double purchaseRatio = Double.parseDouble(System.getProperty("load.purchase-ratio", "0.6"));
+        int purchases = Integer.getInteger("load.purchases", 2);
+        long pushTimeoutMs = Long.getLong("load.push-timeout-ms", 5000);
+        double maxErrorPct = Double.parseDouble(System.getProperty("load.max-error-pct", "1"));
+        if (rate <= 0 || durationSeconds < 1 || userCount < 1 || purchases < 1) {
+            throw new IllegalArgumentException("load.rate, load.duration, load.users and load.purchases must be positive");
+        }
+
+        try (QrServiceStub qrStub = new QrServiceStub(
+                Long.getLong("load.qr.latency-ms", 20),
+                Long.getLong("load.qr.jitter-ms", 10),
+                Double.parseDouble(System.getProperty("load.qr.slow-rate", "0")),
+                Long.getLong("load.qr.slow-ms", 1500),
+                Double.parseDouble(System.getProperty("load.qr.error-rate", "0")))) {
+
+            List<String> effectiveArgs = new ArrayList<>(List.of(
+                    "--qr.generator=python", "--python.microservice.url=" + qrStub.url(),
+                    "--logging.level.org.springframework.security=WARN"));
+            effectiveArgs.addAll(List.of(args));
+            try (ConfigurableApplicationContext context = BenchmarkContext.start(effectiveArgs.toArray(String[]::new))) {
+                JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+                deleteUsers(jdbcTemplate);
+                List<String> usernames = createUsers(context, userCount);
+                String baseUrl = "http://127.0.0.1:" + context.getEnvironment().getProperty("local.server.port");
+
+                LoadTest test = new LoadTest(baseUrl, usernames, purchaseRatio, purchases, pushTimeoutMs);
+                System.out.printf("%.1f sessions/s for %d s (+%d s warm-up), %d users, %.0f%% buying %d times%n%n",
+                        rate, durationSeconds, warmupSeconds, userCount, purchaseRatio * 100, purchases);
+                double errorPct = test.run(rate, warmupSeconds, durationSeconds, maxSessions);
+                System.out.println(qrStub.summary());
+
+                deleteUsers(jdbcTemplate);
+                if (errorPct > maxErrorPct) {
+                    System.out.printf("Error rate %.2f%% is above load.max-error-pct=%.2f%%%n", errorPct, maxErrorPct);
+                    System.exit(1);
+                }
+            }
+        }
+    }
+
+    private static List<String> createUsers(ConfigurableApplicationContext context, int count) {
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        String password = context.getBean(PasswordEncoder.class).encode("password");
+        List<User> users = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            User user = new User();
+            user.setUsername(USER_PREFIX + i);
+            user.setEmail(USER_PREFIX + i + "@load.local");
+            user.setFirstname("Load");
+            user.setLastname("Test");
+            user.setPassword(password);
+            user.setRole("CLIENT");
+            user.setPointsBalance(0L);
+            users.add(user);
+        }
+        userRepository.saveAll(users);
+        return users.stream().map(User::getUsername).toList();
+    }
+
+    private static void deleteUsers(JdbcTemplate jdbcTemplate) {
+        String users = "SELECT id FROM users WHERE username LIKE '" + USER_PREFIX + "%'";
+        jdbcTemplate.update("DELETE FROM transactions WHERE user_id IN (" + users + ")");
+        jdbcTemplate.update("DELETE FROM users WHERE id IN (" + users + ")");
+    }
+
+    /**
+     * Drive the arrival schedule, wait for the sessions to finish and print the report
+     * @return the percentage of measured requests that failed
+     */
+    private double run(double rate, int warmupSeconds, int durationSeconds, int maxSessions) throws Exception {
+        long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / rate);
+        long start = System.nanoTime();
+        long measureFrom = start + TimeUnit.SECONDS.toNanos(warmupSeconds);
+        long end = measureFrom + TimeUnit.SECONDS.toNanos(durationSeconds);
+        long maxStartLagNanos = 0;
+
+        for (long i = 0; ; i++) {
+            long intended = start + i * intervalNanos;
+            if (intended >= end) {
+                break;
+            }
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            maxStartLagNanos = Math.max(maxStartLagNanos, System.nanoTime() - intended);
+            if (inFlight.get() >= maxSessions) {
+                arrivalsDropped.increment();
+                continue;
+            }
+            String username = usernames.get((int) (i % usernames.size()));
+            boolean measured = intended >= measureFrom;
+            inFlight.incrementAndGet();
+            sessionsStarted.increment();
+            sessions.execute(() -> {
+                try {
+                    session(username, intended, measured);
+                } catch (Exception e) {
+                    sessionsFailed.increment();
+                } finally {
+                    inFlight.decrementAndGet();
+                }
+            });
+        }
+
+        sessions.shutdown();
+        if (!sessions.awaitTermination(2, TimeUnit.MINUTES)) {
+            System.out.printf("%d sessions still running after 2 minutes, reporting without them%n", inFlight.get());
+        }
+        return report(durationSeconds, TimeUnit.NANOSECONDS.toMillis(maxStartLagNanos));
+    }
+
+    private void session(String username, long intendedStart, boolean measured) throws Exception {
+        JsonNode login = call("POST /api/v1/auth/login", measured, intendedStart, post("/api/v1/auth/login", null,
+                Map.of("username", username, "password", "password")));
+        if (login == null) {
+            return;
+        }
+        String token = login.path("token").asText();
+        long userId = login.path("userId").asLong();
+
+        JsonNode bars = call("GET /api/bars", measured, System.nanoTime(), get("/api/bars", token));
+        if (bars == null || bars.isEmpty()) {
+            return;
+        }
+        long barId = bars.get(ThreadLocalRandom.current().nextInt(bars.size())).path("id").asLong();
+        call("GET /api/bars/{id}/rewards", measured, System.nanoTime(), get("/api/bars/" + barId + "/rewards", token));
+
+        if (ThreadLocalRandom.current().nextDouble() >= purchaseRatio) {
+            return;
+        }
+        try (StompSubscriber subscriber = subscribe(userId, measured)) {
+            if (subscriber == null) {
+                return;
+            }
+            long lastSentAt = 0;
+            long lastTransactionId = -1;
+            for (int i = 0; i < purchases; i++) {
+                lastSentAt = System.nanoTime();
+                JsonNode transaction = call("POST /api/transactions", measured, lastSentAt, post("/api/transactions", token,
+                        Map.of("userId", userId, "barId", barId, "amount", ThreadLocalRandom.current().nextLong(10, 201))));
+                lastTransactionId = transaction == null ? -1 : transaction.path("id").asLong(
+                        transaction.path("transactionId").asLong(-1));
+            }
+            if (lastTransactionId < 0) {
+                return;
+            }
+
+            Endpoint push = endpoints.get("WS push");
+            try {
+                long receivedAt = subscriber.awaitTransaction(lastTransactionId).get(pushTimeoutMs, TimeUnit.MILLISECONDS);
+                push.record(measured, lastSentAt, receivedAt);
+            } catch (TimeoutException e) {
+                push.fail(measured, "timeout");
+            }
+        }
+    }
+
+    private StompSubscriber subscribe(long userId, boolean measured) {
+        Endpoint connect = endpoints.get("WS connect");
+        long startedAt = System.nanoTime();
+        StompSubscriber subscriber = new StompSubscriber();
+        try {
+            String sessionPath = "/ws/" + ThreadLocalRandom.current().nextInt(1000) + "/"
+                    + UUID.randomUUID().toString().replace("-", "") + "/websocket";
+            WebSocket webSocket = http.newWebSocketBuilder()
+                    .connectTimeout(Duration.ofSeconds(5))
+                    .buildAsync(URI.create(baseUrl.replace("http", "ws") + sessionPath), subscriber)
+                    .get(REQUEST_TIMEOUT.toSeconds(), TimeUnit.SECONDS);
+            subscriber.webSocket = webSocket;
+            subscriber.send("CONNECT\naccept-version:1.2\nhost:localhost\nheart-beat:0,0\n\n");
+            subscriber.connected.get(REQUEST_TIMEOUT.toSeconds(), TimeUnit.SECONDS);
+            subscriber.send("SUBSCRIBE\nid:points\ndestination:/topic/points/" + userId + "\n\n");
+            connect.record(measured, startedAt, System.nanoTime());
+            return subscriber;
+        } catch (Exception e) {
+            connect.fail(measured, e.getClass().getSimpleName());
+            subscriber.close();
+            return null;
+        }
+    }
+
+    private HttpRequest get(String path, String token) {
+        return request(path, token).GET().build();
+    }
+
+    private HttpRequest post(String path, String token, Map<String, Object> body) throws Exception {
+        return request(path, token)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)))
+                .build();
+    }
+
+    private HttpRequest.Builder request(String path, String token) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(REQUEST_TIMEOUT);
+        return token == null ? builder : builder.header("Authorization", "Bearer " + token);
+    }
+
+    // Sends the request and records it; returns the parsed body of a 2xx response, null on failure
+    private JsonNode call(String name, boolean measured, long startedAt, HttpRequest request) {
+        Endpoint endpoint = endpoints.get(name);
+        try {
+            HttpResponse<byte[]> response = http.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            long finishedAt = System.nanoTime();
+            if (response.statusCode() / 100 != 2) {
+                endpoint.fail(measured, String.valueOf(response.statusCode()));
+                return null;
+            }
+            endpoint.record(measured, startedAt, finishedAt);
+            return response.body().length == 0 ? objectMapper.nullNode() : objectMapper.readTree(response.body());
+        } catch (Exception e) {
+            endpoint.fail(measured, e.getClass().getSimpleName());
+            return null;
+        }
+    }
+
+    private double report(int durationSeconds, long maxStartLagMs) throws Exception {
+        File directory = new File("target/loadtest");
+        directory.mkdirs();
+        long requests = 0;
+        long errors = 0;
+
+        System.out.printf("%-28s %8s %7s %9s %9s %9s %9s %9s%n",
+                "Endpoint", "OK", "Errors", "Req/s", "p50 ms", "p95 ms", "p99 ms", "Max ms");
+        for (Endpoint endpoint : endpoints.values()) {
+            Histogram histogram = endpoint.latencies;
+            long failed = endpoint.errors.sum();
+            requests += histogram.getTotalCount() + failed;
+            errors += failed;
+            System.out.printf("%-28s %8d %7d %9.1f %9.1f %9.1f %9.1f %9.1f%n", endpoint.name,
+                    histogram.getTotalCount(), failed, histogram.getTotalCount() / (double) durationSeconds,
+                    millis(histogram, 50), millis(histogram, 95), millis(histogram, 99),
+                    histogram.getMaxValue() / 1000.0);
+            if (!endpoint.errorReasons.isEmpty()) {
+                System.out.printf("%-28s errors: %s%n", "", endpoint.errorReasons);
+            }
+
+            String fileName = endpoint.name.replaceAll("[^A-Za-z0-9]+", "_").replaceAll("^_|_$", "") + ".hgrm";
+            try (PrintStream out = new PrintStream(new File(directory, fileName))) {
+                histogram.outputPercentileDistribution(out, 1000.0);
+            }
+        }
+
+        System.out.printf("%nSessions: %d started, %d aborted, %d arrivals dropped (load.max-sessions reached), "
+                        + "scheduler lag max %d ms%n",
+                sessionsStarted.sum(), sessionsFailed.sum(), arrivalsDropped.sum(), maxStartLagMs);
+        System.out.printf("Histograms (ms): %s%n", directory.getAbsolutePath());
+        return requests == 0 ? 0 : errors * 100.0 / requests;
+    }
+
+    private static double millis(Histogram histogram, double percentile) {
+        return histogram.getValueAtPercentile(percentile) / 1000.0;
+    }
+
+    private static final class Endpoint {
+        private final String name;
+        private final Histogram latencies = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3);
+        private final LongAdder errors = new LongAdder();
+        private final Map<String, LongAdder> errorReasons = new ConcurrentHashMap<>();
+
+        Endpoint(String name) {
+            this.name = name;
+        }
+
+        void record(boolean measured, long startedAt, long finishedAt) {
+            if (measured) {
+                long micros = TimeUnit.NANOSECONDS.toMicros(Math.max(finishedAt - startedAt, 0));
+                latencies.recordValue(Math.min(micros, HIGHEST_TRACKABLE_MICROS));
+            }
+        }
+
+        void fail(boolean measured, String reason) {
+            if (measured) {
+                errors.increment();
+                errorReasons.computeIfAbsent(reason, r -> new LongAdder()).increment();
+            }
+        }
+    }
+
+    /**
+     * Minimal STOMP-over-SockJS client: one subscription, completes a future per pushed transaction id
+     * SockJS wraps server frames as o (open), h (heartbeat), a["..."] (messages) and c[...] (close);
+     * client frames are sent as a JSON array holding one STOMP frame.
+     */
+    private final class StompSubscriber implements WebSocket.Listener, AutoCloseable {
+        private final CompletableFuture<Void> connected = new CompletableFuture<>();
+        private final Map<Long, CompletableFuture<Long>> pushes = new ConcurrentHashMap<>();
+        private final StringBuilder partial = new StringBuilder();
+        private volatile WebSocket webSocket;
+
+        void send(String frame) throws Exception {
+            webSocket.sendText(objectMapper.writeValueAsString(List.of(frame + "\0")), true)
+                    .get(REQUEST_TIMEOUT.toSeconds(), TimeUnit.SECONDS);
+        }
+
+        // Completes with the System.nanoTime() at which the push for this transaction arrived
+        CompletableFuture<Long> awaitTransaction(long transactionId) {
+            return pushes.computeIfAbsent(transactionId, id -> new CompletableFuture<>());
+        }
+
+        @Override
+        public CompletionStage<?> onText(WebSocket webSocket, CharSequence data, boolean last) {
+            partial.append(data);
+            if (last) {
+                String text = partial.toString();
+                partial.setLength(0);
+                if (text.startsWith("a")) {
+                    try {
+                        for (String frame : objectMapper.readValue(text.substring(1), String[].class)) {
+                            onFrame(frame);
+                        }
+                    } catch (Exception e) {
+                        connected.completeExceptionally(e);
+                    }
+                } else if (text.startsWith("c")) {
+                    connected.completeExceptionally(new IllegalStateException("SockJS session closed: " + text));
+                }
+            }
+            webSocket.request(1);
+            return null;
+        }
+
+        private void onFrame(String frame) throws Exception {
+            long receivedAt = System.nanoTime();
+            if (frame.startsWith("CONNECTED")) {
+                connected.complete(null);
+            } else if (frame.startsWith("ERROR")) {
+                connected.completeExceptionally(new IllegalStateException(frame.lines().findFirst().orElse("ERROR")));
+            } else if (frame.startsWith("MESSAGE")) {
+                int bodyStart = frame.indexOf("\n\n");
+                String body = frame.substring(bodyStart + 2).replace("\0", "");
+                JsonNode message = objectMapper.readTree(body);
+                if (message.has("transactionId")) {
+                    awaitTransaction(message.path("transactionId").asLong()).complete(receivedAt);
+                }
+            }
+        }
+
+        @Override
+        public void onError(WebSocket webSocket, Throwable error) {
+            connected.completeExceptionally(error);
+        }
+
+        @Override
+        public void close() {
+            if (webSocket != null) {
+                webSocket.abort();
+            }
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package org.example.bespringboot.benchmark;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.FileAppender;
+import ch.qos.logback.core.encoder.Encoder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.bespringboot.config.logging.JsonLineEncoder;
+import org.example.bespringboot.config.logging.MeteredAsyncAppender;
+import org.example.bespringboot.config.logging.SamplingTurboFilter;
+import org.example.bespringboot.controller.TransactionController;
+import org.example.bespringboot.dto.QrResponse;
+import org.example.bespringboot.dto.TransactionRequest;
+import org.example.bespringboot.service.OutboxService;
+import org.example.bespringboot.service.PointsLedgerService;
+import org.example.bespringboot.service.PurchaseMetrics;
+import org.example.bespringboot.service.TransactionService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.File;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Logging Benchmark
+ * Latency distribution of a purchase through {@link TransactionController} and {@link TransactionService}
+ * (in-memory repositories, fixed QR code, as in {@link CreateTransactionBenchmark}) under four logging
+ * setups, all writing to files in target/logging-benchmark (a file stands in for the console):
+ * off - logging disabled;
+ * sync-debug - the previous setup: pattern layout written synchronously, application loggers at DEBUG;
+ * sync-info - the same appenders with application loggers at INFO;
+ * async-sampled - the current setup: bounded async queues, JSON lines for the file, per-logger sampling.
+ * Several threads run at once so that appender contention shows up in the tail. Run with:
+ * mvn -Pbenchmark test-compile exec:exec@jmh -Djmh.include=LoggingBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class LoggingBenchmark {
+
+    private static final String APPLICATION_LOGGER = "org.example.bespringboot";
+    private static final String FILE_PATTERN = "%d{yyyy-MM-dd HH:mm:ss} [%thread] %-5level %logger{36} - %msg%n";
+    private static final String CONSOLE_PATTERN = "%d{yyyy-MM-dd HH:mm:ss} - %msg%n";
+
+    @Param({"off", "sync-debug", "sync-info", "async-sampled"})
+    public String logging;
+
+    private InMemoryRepositories repositories;
+    private TransactionController controller;
+    private ExecutorService executor;
+    private TransactionRequest request;
+
+    @Setup
+    public void setUp() {
+        configureLogging();
+
+        repositories = new InMemoryRepositories().withUser(1L, 0L);
+        QrResponse qr = new QrResponse("iVBORw0KGgoAAAANSUhEUgAAAAEAAAABCAYAAAAfFcSJAAAADUlEQVR42mNkYPhfDwAChwGA60e6kgAAAABJRU5ErkJggg==",
+                "9f86d081884c7d659a2feaa0c55ad015a3bf4f1b2b0b822cd15d6c15b0f00a08");
+        TransactionTemplate transactionTemplate = new TransactionTemplate(InMemoryRepositories.noOpTransactionManager());
+        PointsLedgerService ledger = new PointsLedgerService(repositories.users(), repositories.pointsEntries());
+        OutboxService outbox = new OutboxService(repositories.outboxEvents(),
+                Jackson2ObjectMapperBuilder.json().build(), Optional.empty());
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        TransactionService transactionService = new TransactionService((userId, amount) -> qr,
+                repositories.transactions(), repositories.users(), repositories.bars(), ledger, outbox,
+                transactionTemplate, executor, new PurchaseMetrics(new SimpleMeterRegistry()),
+                BenchmarkContext.qrImageService());
+        controller = new TransactionController(transactionService, null, null, null);
+
+        request = new TransactionRequest();
+        request.setUserId(1L);
+        request.setBarId(1L);
+        request.setAmount(25L);
+    }
+
+    private void configureLogging() {
+        LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
+        context.reset();
+        Logger root = context.getLogger(Logger.ROOT_LOGGER_NAME);
+        File directory = new File("target/logging-benchmark");
+        directory.mkdirs();
+
+        switch (logging) {
+            case "off" -> root.setLevel(Level.OFF);
+            case "sync-debug", "sync-info" -> {
+                root.setLevel(Level.INFO);
+                context.getLogger(APPLICATION_LOGGER).setLevel("sync-debug".equals(logging) ? Level.DEBUG : Level.INFO);
+                root.addAppender(fileAppender(context, new File(directory, logging + "-console.log"),
+                        pattern(context, CONSOLE_PATTERN)));
+                root.addAppender(fileAppender(context, new File(directory, logging + ".log"),
+                        pattern(context, FILE_PATTERN)));
+            }
+            case "async-sampled" -> {
+                root.setLevel(Level.INFO);
+                context.getLogger(APPLICATION_LOGGER).setLevel(Level.INFO);
+                SamplingTurboFilter sampling = new SamplingTurboFilter();
+                sampling.addLoggerPrefix(APPLICATION_LOGGER + ".controller");
+                sampling.addLoggerPrefix(APPLICATION_LOGGER + ".service.TransactionService");
+                sampling.setContext(context);
+                sampling.start();
+                context.addTurboFilter(sampling);
+
+                JsonLineEncoder json = new JsonLineEncoder();
+                json.setContext(context);
+                json.start();
+                root.addAppender(async(context, fileAppender(context, new File(directory, logging + "-console.log"),
+                        pattern(context, CONSOLE_PATTERN))));
+                root.addAppender(async(context, fileAppender(context, new File(directory, logging + ".log"), json)));
+            }
+            default -> throw new IllegalArgumentException("Unknown logging setup: " + logging);
+        }
+    }
+
+    private static Encoder<ILoggingEvent> pattern(LoggerContext context, String pattern) {
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(context);
+        encoder.setPattern(pattern);
+        encoder.start();
+        return encoder;
+    }
+
+    private static Appender<ILoggingEvent> fileAppender(LoggerContext context, File file, Encoder<ILoggingEvent> encoder) {
+        FileAppender<ILoggingEvent> appender = new FileAppender<>();
+        appender.setContext(context);
+        appender.setName(file.getName());
+        appender.setFile(file.getPath());
+        appender.setAppend(false);
+        appender.setEncoder(encoder);
+        appender.start();
+        return appender;
+    }
+
+    private static Appender<ILoggingEvent> async(LoggerContext context, Appender<ILoggingEvent> delegate) {
+        MeteredAsyncAppender appender = new MeteredAsyncAppender();
+        appender.setContext(context);
+        appender.setName("async-" + delegate.getName());
+        appender.setQueueSize(8192);
+        appender.setNeverBlock(true);
+        appender.addAppender(delegate);
+        appender.start();
+        return appender;
+    }
+
+    // Keeps the in-memory tables from growing across iterations
+    @TearDown(org.openjdk.jmh.annotations.Level.Iteration)
+    public void clearRows() {
+        repositories.clearRows();
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.close();
+        ((LoggerContext) LoggerFactory.getILoggerFactory()).stop();
+    }
+
+    @Benchmark
+    public ResponseEntity<?> purchase() {
+        return controller.createTransaction(request, null);
+    }
+}
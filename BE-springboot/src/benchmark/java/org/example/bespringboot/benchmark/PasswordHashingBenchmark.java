@@ -0,0 +1,72 @@
+package org.example.bespringboot.benchmark;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.bespringboot.config.AsyncConfig;
+import org.example.bespringboot.service.PasswordHashingService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Password Hashing Benchmark
+ * Login throughput (password verification, which dominates a login) at several BCrypt strengths, with
+ * 16 concurrent callers: once through {@link PasswordHashingService} on the bounded pool, once directly
+ * on the calling threads as before. Run with:
+ * mvn -Pbenchmark test-compile exec:exec -Dexec.args="-cp %classpath org.openjdk.jmh.Main PasswordHashingBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+@Threads(16)
+public class PasswordHashingBenchmark {
+
+    private static final String PASSWORD = "correct horse battery staple";
+
+    @Param({"8", "10", "12"})
+    public int strength;
+
+    private BCryptPasswordEncoder encoder;
+    private ThreadPoolExecutor executor;
+    private PasswordHashingService service;
+    private String hash;
+
+    @Setup
+    public void setUp() {
+        encoder = new BCryptPasswordEncoder(strength);
+        executor = new AsyncConfig().passwordHashExecutor(0, 64);
+        service = new PasswordHashingService(encoder, executor, new SimpleMeterRegistry(), strength, 30_000);
+        hash = encoder.encode(PASSWORD);
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    public boolean loginOnHashingPool() {
+        return service.matches(PASSWORD, hash);
+    }
+
+    @Benchmark
+    public boolean loginOnCallerThread() {
+        return encoder.matches(PASSWORD, hash);
+    }
+}
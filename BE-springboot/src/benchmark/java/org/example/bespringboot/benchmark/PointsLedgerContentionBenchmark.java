@@ -0,0 +1,128 @@
+package org.example.bespringboot.benchmark;
+
+import org.example.bespringboot.entity.User;
+import org.example.bespringboot.repository.PointsEntryRepository;
+import org.example.bespringboot.repository.UserRepository;
+import org.example.bespringboot.service.PointsLedgerService;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Points Ledger Contention Benchmark
+ * Credits one user from many threads at once, first with the old read-modify-write
+ * (findById + setPointsBalance + save) and then through {@link PointsLedgerService}, and reports
+ * throughput plus lost updates for each.
+ *
+ * Needs the database from application.properties (DB_HOST, DB_NAME, ...). Run with:
+ * mvn -Pbenchmark test-compile exec:java \
+ *   -Dexec.mainClass=org.example.bespringboot.benchmark.PointsLedgerContentionBenchmark \
+ *   -Dbench.threads=64 -Dbench.credits=100
+ *
+ * Exits with status 1 if the ledger path loses an update.
+ */
+public class PointsLedgerContentionBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int threads = Integer.getInteger("bench.threads", 64);
+        int creditsPerThread = Integer.getInteger("bench.credits", 100);
+
+        try (ConfigurableApplicationContext context = BenchmarkContext.start(args)) {
+
+            UserRepository userRepository = context.getBean(UserRepository.class);
+            PointsEntryRepository pointsEntryRepository = context.getBean(PointsEntryRepository.class);
+            PointsLedgerService ledger = context.getBean(PointsLedgerService.class);
+            JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+            long expected = (long) threads * creditsPerThread;
+
+            System.out.printf("Crediting 1 point %d times from %d threads%n%n", expected, threads);
+
+            Long legacyUser = createUser(userRepository);
+            Result legacy = run(threads, creditsPerThread, () -> {
+                User user = userRepository.findById(legacyUser).orElseThrow();
+                user.setPointsBalance(user.getPointsBalance() + 1);
+                userRepository.save(user);
+            });
+            long legacyBalance = userRepository.findById(legacyUser).orElseThrow().getPointsBalance();
+            legacy.print("read-modify-write", legacyBalance, expected);
+
+            Long ledgerUser = createUser(userRepository);
+            Result ledgered = run(threads, creditsPerThread,
+                    () -> ledger.credit(ledgerUser, 1, null, "BENCHMARK"));
+            long ledgerBalance = userRepository.findById(ledgerUser).orElseThrow().getPointsBalance();
+            long ledgerSum = pointsEntryRepository.sumDeltaByUserId(ledgerUser);
+            ledgered.print("atomic ledger", ledgerBalance, expected);
+            System.out.printf("  ledger entries sum: %d (%d rows)%n",
+                    ledgerSum, pointsEntryRepository.countByUserId(ledgerUser));
+
+            for (Long userId : List.of(legacyUser, ledgerUser)) {
+                jdbcTemplate.update("DELETE FROM points_entries WHERE user_id = ?", userId);
+                jdbcTemplate.update("DELETE FROM users WHERE id = ?", userId);
+            }
+
+            if (ledgerBalance != expected || ledgerSum != expected || ledgered.errors() > 0) {
+                System.exit(1);
+            }
+        }
+    }
+
+    private static Long createUser(UserRepository userRepository) {
+        String email = "bench-" + UUID.randomUUID().toString().substring(0, 8) + "@bench.local";
+        User user = new User();
+        user.setUsername(email);
+        user.setEmail(email);
+        user.setFirstname("Bench");
+        user.setLastname("Mark");
+        user.setPassword("-");
+        user.setRole("CLIENT");
+        user.setPointsBalance(0L);
+        return userRepository.save(user).getId();
+    }
+
+    private static Result run(int threads, int iterations, Runnable credit) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            futures.add(pool.submit(() -> {
+                start.await();
+                int errors = 0;
+                for (int i = 0; i < iterations; i++) {
+                    try {
+                        credit.run();
+                    } catch (RuntimeException e) {
+                        errors++;
+                    }
+                }
+                return errors;
+            }));
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        int errors = 0;
+        for (Future<Integer> future : futures) {
+            errors += future.get();
+        }
+        long elapsedNanos = System.nanoTime() - begin;
+        pool.shutdown();
+        return new Result((long) threads * iterations, elapsedNanos, errors);
+    }
+
+    private record Result(long operations, long elapsedNanos, int errors) {
+        void print(String label, long balance, long expected) {
+            double seconds = elapsedNanos / 1e9;
+            System.out.printf("%s:%n", label);
+            System.out.printf("  throughput:   %.0f credits/s (%.2f s)%n", operations / seconds, seconds);
+            System.out.printf("  balance:      %d / %d expected, %d lost updates, %d errors%n",
+                    balance, expected, expected - balance, errors);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package org.example.bespringboot.benchmark;
+
+import org.example.bespringboot.service.qr.QrCodeEncoder;
+import org.example.bespringboot.service.qr.QrCodeEncoder.ErrorCorrection;
+import org.example.bespringboot.service.qr.QrImageStore;
+import org.example.bespringboot.service.qr.QrPngEncoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * QR Image Store Benchmark
+ * Serving a QR image by hash from a store holding {@code entries} images: a lookup returning the mapped
+ * view, the same lookup copied into a byte array, and rendering the image from the hash (a store miss).
+ * Setup also reports how long reopening the store (rebuilding the index from the segments) takes.
+ * Run with -prof gc to compare allocation per operation:
+ * mvn -Pbenchmark test-compile exec:exec@jmh -Djmh.include=QrImageStoreBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class QrImageStoreBenchmark {
+
+    @Param({"100000"})
+    public int entries;
+
+    private Path directory;
+    private QrImageStore store;
+    private QrPngEncoder pngEncoder;
+    private String[] hashes;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("qr-store-benchmark");
+        pngEncoder = new QrPngEncoder(10, 4, 16);
+        hashes = new String[entries];
+        try (QrImageStore writer = new QrImageStore(directory, 64 << 20, 1 << 16, 0.5)) {
+            for (int i = 0; i < entries; i++) {
+                hashes[i] = UUID.randomUUID().toString();
+                writer.put(hashes[i], render(hashes[i]));
+            }
+        }
+
+        long started = System.nanoTime();
+        store = new QrImageStore(directory, 64 << 20, 1 << 16, 0.5);
+        System.out.printf("%nReopened store with %d images in %d segments (%d MiB) in %d ms%n", store.size(),
+                store.segmentCount(), store.usedBytes() >> 20, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        store.close();
+        try (var files = Files.list(directory)) {
+            for (Path file : files.toList()) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    @Benchmark
+    public ByteBuffer storeHit() {
+        return store.get(randomHash());
+    }
+
+    @Benchmark
+    public byte[] storeHitCopied() {
+        ByteBuffer png = store.get(randomHash());
+        byte[] copy = new byte[png.remaining()];
+        png.get(copy);
+        return copy;
+    }
+
+    @Benchmark
+    public byte[] render() {
+        return render(randomHash());
+    }
+
+    private String randomHash() {
+        return hashes[ThreadLocalRandom.current().nextInt(hashes.length)];
+    }
+
+    private byte[] render(String hash) {
+        return pngEncoder.encode(QrCodeEncoder.encode(hash.getBytes(StandardCharsets.UTF_8), ErrorCorrection.L));
+    }
+}
@@ -0,0 +1,152 @@
+package org.example.bespringboot.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.example.bespringboot.dto.QrResponse;
+import org.example.bespringboot.service.JavaQrGenerator;
+import org.example.bespringboot.service.qr.QrCodeEncoder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * QR Service Stub - Stands in for the Python QR microservice during load tests
+ *
+ * Serves POST /generate-qr, POST /generate-qr/batch and GET /health with the same JSON shapes as
+ * BE-python/main.py, rendering real PNGs with the in-process encoder so payload sizes match. Each
+ * call waits latency-ms plus a uniform 0..jitter-ms; slow-rate of the calls wait slow-ms instead
+ * (a latency tail), and error-rate of them answer 500. A batch call waits once for the whole batch.
+ * Requests are handled on virtual threads, so injected latency never limits the stub's concurrency.
+ */
+final class QrServiceStub implements AutoCloseable {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final JavaQrGenerator generator = new JavaQrGenerator(QrCodeEncoder.ErrorCorrection.L, 10, 4, 16);
+    private final long latencyMs;
+    private final long jitterMs;
+    private final double slowRate;
+    private final long slowMs;
+    private final double errorRate;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final HttpServer server;
+    private final LongAdder served = new LongAdder();
+    private final LongAdder slowed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    QrServiceStub(long latencyMs, long jitterMs, double slowRate, long slowMs, double errorRate) throws IOException {
+        if (latencyMs < 0 || jitterMs < 0 || slowMs < 0 || slowRate < 0 || slowRate > 1 || errorRate < 0 || errorRate > 1) {
+            throw new IllegalArgumentException("Latencies must be >= 0 and rates between 0 and 1");
+        }
+        this.latencyMs = latencyMs;
+        this.jitterMs = jitterMs;
+        this.slowRate = slowRate;
+        this.slowMs = slowMs;
+        this.errorRate = errorRate;
+
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 1024);
+        server.setExecutor(executor);
+        server.createContext("/generate-qr", this::handle);
+        server.createContext("/health", exchange -> respond(exchange, 200, Map.of("status", "up")));
+        server.start();
+    }
+
+    /**
+     * Base URL to pass as python.microservice.url
+     */
+    String url() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        if (!"POST".equals(exchange.getRequestMethod())) {
+            respond(exchange, 405, Map.of("detail", "Method Not Allowed"));
+            return;
+        }
+        JsonNode request;
+        try (InputStream body = exchange.getRequestBody()) {
+            request = objectMapper.readTree(body);
+        }
+        boolean batch = exchange.getRequestURI().getPath().endsWith("/batch");
+        if (!sleep()) {
+            respond(exchange, 503, Map.of("detail", "Stub shutting down"));
+            return;
+        }
+        if (errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate) {
+            failed.increment();
+            respond(exchange, 500, Map.of("detail", "Injected failure"));
+            return;
+        }
+
+        Object response;
+        if (batch) {
+            List<Map<String, String>> results = new ArrayList<>();
+            for (JsonNode item : request.path("items")) {
+                results.add(qr(item));
+            }
+            response = Map.of("results", results);
+        } else {
+            response = qr(request);
+        }
+        served.increment();
+        respond(exchange, 200, response);
+    }
+
+    private boolean sleep() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long delayMs = latencyMs + (jitterMs > 0 ? random.nextLong(jitterMs + 1) : 0);
+        if (slowRate > 0 && random.nextDouble() < slowRate) {
+            slowed.increment();
+            delayMs = slowMs;
+        }
+        try {
+            TimeUnit.MILLISECONDS.sleep(delayMs);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private Map<String, String> qr(JsonNode item) {
+        QrResponse qr = generator.generate(item.path("user_id").asLong(), item.path("amount").asLong());
+        Map<String, String> result = new LinkedHashMap<>();
+        result.put("qr_code_base64", qr.getQrCodeBase64());
+        result.put("hash", qr.getHash());
+        return result;
+    }
+
+    private void respond(HttpExchange exchange, int status, Object body) throws IOException {
+        byte[] json = objectMapper.writeValueAsString(body).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, json.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(json);
+        }
+    }
+
+    String summary() {
+        return String.format("QR stub: %d served, %d slowed to %d ms, %d failed on purpose",
+                served.sum(), slowed.sum(), slowMs, failed.sum());
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
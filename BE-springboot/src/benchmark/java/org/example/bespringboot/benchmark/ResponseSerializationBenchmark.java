@@ -0,0 +1,89 @@
+package org.example.bespringboot.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.example.bespringboot.dto.BarResponse;
+import org.example.bespringboot.dto.RewardResponse;
+import org.example.bespringboot.dto.TransactionStatusResponse;
+import org.example.bespringboot.entity.Transaction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Response Serialization Benchmark
+ * Jackson serialization of the bodies the hot endpoints return, with an ObjectMapper configured like
+ * Spring Boot's: the POST /api/transactions response (a Transaction with its QR hash and image link),
+ * a 20-row history page, and a 50-bar catalog with 5 rewards each. Run with:
+ * mvn -Pbenchmark test-compile exec:exec@jmh -Djmh.include=ResponseSerializationBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResponseSerializationBenchmark {
+
+    private ObjectMapper objectMapper;
+    private Transaction transaction;
+    private List<TransactionStatusResponse> historyPage;
+    private List<BarResponse> catalog;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        LocalDateTime now = LocalDateTime.of(2024, 5, 1, 21, 30);
+
+        transaction = new Transaction();
+        transaction.setId(1234L);
+        transaction.setAmount(45L);
+        transaction.setPointsEarned(45L);
+        transaction.setStatus("COMPLETED");
+        transaction.setQrCodeHash("9f86d081884c7d659a2feaa0c55ad015a3bf4f1b2b0b822cd15d6c15b0f00a08");
+        transaction.setCreatedAt(now);
+
+        historyPage = new ArrayList<>();
+        for (long i = 0; i < 20; i++) {
+            historyPage.add(new TransactionStatusResponse(1000 - i, 7L, 1 + i % 2, 10 + i, 10 + i,
+                    transaction.getQrCodeHash(), "COMPLETED", now.minusMinutes(i)));
+        }
+
+        catalog = new ArrayList<>();
+        for (long bar = 1; bar <= 50; bar++) {
+            List<RewardResponse> rewards = new ArrayList<>();
+            for (long reward = 1; reward <= 5; reward++) {
+                rewards.add(new RewardResponse(bar * 10 + reward, "Reward " + reward, reward * 50,
+                        "https://images.example.org/rewards/" + reward + ".png"));
+            }
+            catalog.add(new BarResponse(bar, "Bar " + bar, "Str. Lapusneanu " + bar, rewards));
+        }
+    }
+
+    @Benchmark
+    public byte[] transaction() throws Exception {
+        return objectMapper.writeValueAsBytes(transaction);
+    }
+
+    @Benchmark
+    public byte[] historyPage() throws Exception {
+        return objectMapper.writeValueAsBytes(historyPage);
+    }
+
+    @Benchmark
+    public byte[] barCatalog() throws Exception {
+        return objectMapper.writeValueAsBytes(catalog);
+    }
+}
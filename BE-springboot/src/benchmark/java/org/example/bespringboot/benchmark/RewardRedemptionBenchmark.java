@@ -0,0 +1,220 @@
+package org.example.bespringboot.benchmark;
+
+import org.example.bespringboot.BeSpringbootApplication;
+import org.example.bespringboot.service.InsufficientPointsException;
+import org.example.bespringboot.service.RewardRedemptionService;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Reward Redemption Benchmark
+ * 16 threads redeem the same reward, either all on one account (a double tap from several devices)
+ * or spread over 64 accounts (a redemption rush at one bar), against the local Postgres.
+ * conditionalUpdate goes through {@link RewardRedemptionService}; readCheckWrite is the naive
+ * SELECT balance / check / UPDATE balance for comparison. The redeemed and refused counters are
+ * reported per second next to the attempt rate.
+ *
+ * After every iteration each account is left with exactly 5 redemptions worth of points and hit with
+ * 32 concurrent attempts; the granted count and the over-spend are printed, and a non-zero over-spend
+ * fails the run for conditionalUpdate. Benchmark rows are deleted at the end. Run with:
+ * mvn -Pbenchmark test-compile exec:exec -Dexec.args="-cp %classpath org.openjdk.jmh.Main RewardRedemptionBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+@Threads(16)
+public class RewardRedemptionBenchmark {
+
+    private static final long COST = 10;
+    private static final long FUNDED_BALANCE = 1_000_000_000L;
+    private static final int AFFORDABLE = 5;
+    private static final int CHECK_ATTEMPTS = 32;
+
+    @Param({"1", "64"})
+    public int users;
+
+    @Param({"conditionalUpdate", "readCheckWrite"})
+    public String strategy;
+
+    private ConfigurableApplicationContext context;
+    private RewardRedemptionService redemptionService;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+    private final AtomicInteger threadIndex = new AtomicInteger();
+    private long barId;
+    private long rewardId;
+    private long[] userIds;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Outcomes {
+        public long redeemed;
+        public long refused;
+    }
+
+    @State(Scope.Thread)
+    public static class Caller {
+        int next;
+
+        @Setup
+        public void setUp(RewardRedemptionBenchmark benchmark) {
+            next = benchmark.threadIndex.getAndIncrement();
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = SpringApplication.run(BeSpringbootApplication.class,
+                "--server.port=0", "--logging.level.root=WARN",
+                "--logging.level.org.example.bespringboot=WARN", "--logging.level.org.springframework.security=WARN");
+        redemptionService = context.getBean(RewardRedemptionService.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+
+        String run = UUID.randomUUID().toString().substring(0, 8);
+        barId = jdbcTemplate.queryForObject(
+                "INSERT INTO bars (name, location) VALUES (?, 'benchmark') RETURNING id", Long.class, "bench-" + run);
+        rewardId = jdbcTemplate.queryForObject(
+                "INSERT INTO rewards (bar_id, name, points_cost) VALUES (?, 'bench reward', ?) RETURNING id",
+                Long.class, barId, COST);
+        userIds = new long[users];
+        for (int i = 0; i < users; i++) {
+            userIds[i] = jdbcTemplate.queryForObject(
+                    "INSERT INTO users (username, email, password, role, points_balance) "
+                            + "VALUES (?, ?, 'x', 'ROLE_CLIENT', 0) RETURNING id",
+                    Long.class, "bench-" + run + "-" + i, "bench-" + run + "-" + i + "@bench.invalid");
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void fund() {
+        setBalances(FUNDED_BALANCE);
+    }
+
+    @TearDown(Level.Iteration)
+    public void checkOverSpend() throws Exception {
+        setBalances(AFFORDABLE * COST);
+
+        List<Long> attempts = new ArrayList<>();
+        for (long userId : userIds) {
+            for (int i = 0; i < CHECK_ATTEMPTS; i++) {
+                attempts.add(userId);
+            }
+        }
+        Collections.shuffle(attempts);
+
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (long userId : attempts) {
+                results.add(pool.submit(() -> {
+                    start.await();
+                    return attempt(userId);
+                }));
+            }
+            start.countDown();
+            long granted = 0;
+            for (Future<Boolean> result : results) {
+                granted += result.get() ? 1 : 0;
+            }
+
+            long affordable = (long) AFFORDABLE * users;
+            long overSpend = Math.max(0, granted - affordable) * COST;
+            Long negative = jdbcTemplate.queryForObject(
+                    "SELECT count(*) FROM users WHERE id = ANY (?) AND points_balance < 0", Long.class,
+                    (Object) userIds);
+            System.out.printf("%n[over-spend check] %s, %d user(s): granted %d of %d affordable redemptions, "
+                    + "over-spend %d points, negative balances %d%n", strategy, users, granted, affordable, overSpend, negative);
+            if ("conditionalUpdate".equals(strategy) && (overSpend != 0 || negative != 0)) {
+                throw new IllegalStateException("Redemptions overspent by " + overSpend + " points");
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        // Users cascade to redemptions and ledger entries, the bar to its rewards
+        jdbcTemplate.update("DELETE FROM users WHERE id = ANY (?)", (Object) userIds);
+        jdbcTemplate.update("DELETE FROM bars WHERE id = ?", barId);
+        context.close();
+    }
+
+    @Benchmark
+    public void redeem(Caller caller, Outcomes outcomes) {
+        long userId = userIds[caller.next++ % userIds.length];
+        if (attempt(userId)) {
+            outcomes.redeemed++;
+        } else {
+            outcomes.refused++;
+        }
+    }
+
+    private boolean attempt(long userId) {
+        if ("readCheckWrite".equals(strategy)) {
+            return readCheckWrite(userId);
+        }
+        try {
+            return redemptionService.redeem(userId, rewardId).isPresent();
+        } catch (InsufficientPointsException e) {
+            return false;
+        }
+    }
+
+    // What the endpoint must not do: the balance can change between the SELECT and the UPDATE
+    private boolean readCheckWrite(long userId) {
+        return Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+            long balance = jdbcTemplate.queryForObject(
+                    "SELECT points_balance FROM users WHERE id = ?", Long.class, userId);
+            if (balance < COST) {
+                return false;
+            }
+            jdbcTemplate.update("UPDATE users SET points_balance = ? WHERE id = ?", balance - COST, userId);
+            Long redemptionId = jdbcTemplate.queryForObject(
+                    "INSERT INTO redemptions (id, user_id, reward_id, bar_id, points_spent) "
+                            + "VALUES (nextval('redemptions_id_seq'), ?, ?, ?, ?) RETURNING id",
+                    Long.class, userId, rewardId, barId, COST);
+            jdbcTemplate.update("INSERT INTO points_entries (id, user_id, redemption_id, delta, balance_after, reason) "
+                            + "VALUES (nextval('points_entries_id_seq'), ?, ?, ?, ?, 'REDEMPTION')",
+                    userId, redemptionId, -COST, balance - COST);
+            return true;
+        }));
+    }
+
+    private void setBalances(long balance) {
+        jdbcTemplate.update("UPDATE users SET points_balance = ? WHERE id = ANY (?)", balance, userIds);
+    }
+}
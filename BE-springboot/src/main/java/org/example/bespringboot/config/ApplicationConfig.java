@@ -2,6 +2,7 @@ package org.example.bespringboot.config;
 
 import lombok.RequiredArgsConstructor;
 import org.example.bespringboot.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -38,8 +39,11 @@ public class ApplicationConfig {
         return config.getAuthenticationManager();
     }
 
+    @Value("${app.security.password-hashing.bcrypt-strength:10}")
+    private int bcryptStrength;
+
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        return new BCryptPasswordEncoder(bcryptStrength);
     }
 }
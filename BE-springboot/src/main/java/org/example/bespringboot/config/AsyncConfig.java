@@ -0,0 +1,51 @@
+package org.example.bespringboot.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Executors for work that runs outside the request thread
+ */
+@Configuration
+public class AsyncConfig {
+
+    /**
+     * Virtual-thread-per-task executor for asynchronous transaction completion
+     * The work is dominated by blocking I/O (QR service, JDBC), which virtual threads park cheaply.
+     */
+    @Bean(destroyMethod = "close")
+    public ExecutorService transactionExecutor() {
+        return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("txn-", 0).factory());
+    }
+
+    /**
+     * Virtual-thread-per-task executor for hedged QR service attempts
+     */
+    @Bean(destroyMethod = "close")
+    public ExecutorService qrClientExecutor() {
+        return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("qr-client-", 0).factory());
+    }
+
+    /**
+     * Fixed platform-thread pool for BCrypt hashing (login, registration)
+     * BCrypt is CPU-bound, so the pool defaults to one thread per core and sits behind a short bounded
+     * queue; once both are full new work is rejected instead of piling up on request threads.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ThreadPoolExecutor passwordHashExecutor(
+            @Value("${app.security.password-hashing.threads:0}") int threads,
+            @Value("${app.security.password-hashing.queue-capacity:64}") int queueCapacity) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        return new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                Thread.ofPlatform().name("bcrypt-", 0).daemon(true).factory(),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+}
@@ -1,14 +1,18 @@
 package org.example.bespringboot.config;
 
+import io.jsonwebtoken.Claims;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.example.bespringboot.dto.AuthenticatedUser;
+import org.example.bespringboot.service.AuthenticatedUserService;
 import org.example.bespringboot.service.JwtService;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import org.springframework.security.web.util.matcher.OrRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -26,18 +30,37 @@ import java.io.IOException;
  *
  * Workflow:
  * 1. Extract JWT token from Authorization header (format: "Bearer <token>")
- * 2. Validate token and extract username (email)
- * 3. Load UserDetails from database
- * 4. Validate token signature and expiration
- * 5. Create and set authentication in SecurityContextHolder
+ * 2. Verify token signature and expiration once (claims are cached by JwtService)
+ * 3. Resolve the principal from the token claims (no database lookup for current tokens)
+ * 4. Create and set authentication in SecurityContextHolder
+ *
+ * Public routes that never use a principal skip the filter entirely (except the bar history under /api/bars).
  */
 @Slf4j
 @Component
 @RequiredArgsConstructor
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
+    /** A bar's transaction history sits under the public /api/bars/** prefix but is for bar staff only */
+    static final String BAR_HISTORY_ROUTE = "/api/bars/*/transactions";
+
+    private static final RequestMatcher AUTHENTICATED_ROUTES = new AntPathRequestMatcher(BAR_HISTORY_ROUTE);
+    private static final RequestMatcher PUBLIC_ROUTES = new OrRequestMatcher(
+            new AntPathRequestMatcher("/api/v1/auth/**"),
+            new AntPathRequestMatcher("/api/bars/**"),
+            new AntPathRequestMatcher("/actuator/**"),
+            new AntPathRequestMatcher("/ws/**"),
+            new AntPathRequestMatcher("/swagger-ui/**"),
+            new AntPathRequestMatcher("/v3/api-docs/**"),
+            new AntPathRequestMatcher("/api-docs/**"));
+
     private final JwtService jwtService;
-    private final UserDetailsService userDetailsService;
+    private final AuthenticatedUserService authenticatedUserService;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return PUBLIC_ROUTES.matches(request) && !AUTHENTICATED_ROUTES.matches(request);
+    }
 
     /**
      * Filter internal method called for each HTTP request
@@ -64,26 +87,26 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             final String jwt = authHeader.substring(7);
             log.debug("JWT token extracted from Authorization header");
 
-            // Extract username (email) from the token
-            final String userEmail = jwtService.extractUsername(jwt);
+            // Verify the token once and extract username (email) from its claims
+            final Claims claims = jwtService.extractClaims(jwt);
+            final String userEmail = claims != null ? claims.getSubject() : null;
 
             // Check if user is not already authenticated in SecurityContextHolder
             if (StringUtils.hasText(userEmail) && SecurityContextHolder.getContext().getAuthentication() == null) {
                 log.debug("Processing JWT token for user: {}", userEmail);
 
-                // Load the UserDetails from the database
-                UserDetails userDetails = this.userDetailsService.loadUserByUsername(userEmail);
+                // Resolve the principal from the verified claims
+                AuthenticatedUser principal = authenticatedUserService.resolve(claims);
 
-                // Validate the token using JwtService
-                if (jwtService.isTokenValid(jwt, userDetails)) {
-                    log.info("JWT token is valid for user: {}", userEmail);
+                if (principal != null) {
+                    log.debug("JWT token is valid for user: {}", userEmail);
 
                     // Create authentication token
                     UsernamePasswordAuthenticationToken authenticationToken =
                             new UsernamePasswordAuthenticationToken(
-                                    userDetails,
+                                    principal,
                                     null,
-                                    userDetails.getAuthorities()
+                                    principal.getAuthorities()
                             );
 
                     // Set authentication details using WebAuthenticationDetailsSource
@@ -96,9 +119,9 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                     context.setAuthentication(authenticationToken);
                     SecurityContextHolder.setContext(context);
 
-                    log.info("Authentication set in SecurityContextHolder for user: {}", userEmail);
+                    log.debug("Authentication set in SecurityContextHolder for user: {}", userEmail);
                 } else {
-                    log.warn("Invalid JWT token for user: {}", userEmail);
+                    log.warn("No user found for JWT subject: {}", userEmail);
                 }
             } else if (StringUtils.hasText(userEmail)) {
                 log.debug("User {} is already authenticated. Skipping JWT validation.", userEmail);
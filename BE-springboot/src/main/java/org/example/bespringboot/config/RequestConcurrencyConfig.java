@@ -0,0 +1,31 @@
+package org.example.bespringboot.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Registers the {@link RequestConcurrencyFilter} for /api/* when app.http.concurrency.max-requests > 0
+ * WebSocket/SockJS (/ws) and actuator requests are not limited.
+ */
+@Configuration
+@ConditionalOnExpression("${app.http.concurrency.max-requests:0} > 0")
+public class RequestConcurrencyConfig {
+
+    @Bean
+    public FilterRegistrationBean<RequestConcurrencyFilter> requestConcurrencyFilter(
+            MeterRegistry meterRegistry,
+            @Value("${app.http.concurrency.max-requests}") int maxRequests,
+            @Value("${app.http.concurrency.acquire-timeout-ms:1000}") long acquireTimeoutMs) {
+        FilterRegistrationBean<RequestConcurrencyFilter> registration = new FilterRegistrationBean<>(
+                new RequestConcurrencyFilter(maxRequests, acquireTimeoutMs, meterRegistry));
+        registration.addUrlPatterns("/api/*");
+        // Ahead of Spring Security, so rejected requests skip token parsing
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER - 10);
+        return registration;
+    }
+}
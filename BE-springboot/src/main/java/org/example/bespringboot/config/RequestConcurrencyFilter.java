@@ -0,0 +1,74 @@
+package org.example.bespringboot.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Request Concurrency Filter - Caps how many API requests are processed at once
+ *
+ * With platform threads Tomcat's thread pool (server.tomcat.threads.max) bounds concurrent requests;
+ * with virtual threads every request gets its own thread and nothing does, so a burst would queue up on
+ * the Hikari pool and the QR bulkhead instead. A request waits at most acquire-timeout-ms for a permit
+ * and is otherwise answered with 503 and Retry-After. Registered by {@link RequestConcurrencyConfig}.
+ *
+ * Metrics: {@code http.server.requests.permits.available} and {@code http.server.requests.rejected}.
+ */
+@Slf4j
+public class RequestConcurrencyFilter extends OncePerRequestFilter {
+
+    private final Semaphore permits;
+    private final long acquireTimeoutNanos;
+    private final Counter rejected;
+
+    public RequestConcurrencyFilter(int maxRequests, long acquireTimeoutMs, MeterRegistry meterRegistry) {
+        if (maxRequests < 1 || acquireTimeoutMs < 0) {
+            throw new IllegalArgumentException("max-requests must be >= 1 and acquire-timeout-ms >= 0");
+        }
+        this.permits = new Semaphore(maxRequests);
+        this.acquireTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(acquireTimeoutMs);
+        this.rejected = Counter.builder("http.server.requests.rejected")
+                .description("Requests answered with 503 because no concurrency permit was free in time")
+                .register(meterRegistry);
+        Gauge.builder("http.server.requests.permits.available", permits, Semaphore::availablePermits)
+                .description("Requests that can still start without waiting")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(acquireTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            rejected.increment();
+            log.warn("Rejected {} {}: concurrency limit reached", request.getMethod(), request.getRequestURI());
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            return;
+        }
+
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            permits.release();
+        }
+    }
+}
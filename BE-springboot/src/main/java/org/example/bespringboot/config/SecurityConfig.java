@@ -17,6 +17,9 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 @RequiredArgsConstructor
 public class SecurityConfig {
 
+    static final String ROLE_BAR_STAFF = "BAR_STAFF";
+    static final String ROLE_ADMIN = "ADMIN";
+
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
 
     @Bean
@@ -36,7 +39,12 @@ public class SecurityConfig {
                             // 2. PERMITEM TOATE RUTELE PUBLICE + EROAREA
                             .requestMatchers("/api/v1/auth/**").permitAll()
                             .requestMatchers("/error").permitAll() // <--- ASTA LIPSEA! Fara ea nu vezi erorile.
-                            .requestMatchers("/ws/**", "/api/bars/**", "/api/transactions/**", "/actuator/**").permitAll()
+                            // A bar's purchase history is for staff only
+                            .requestMatchers(HttpMethod.GET, JwtAuthenticationFilter.BAR_HISTORY_ROUTE)
+                            .hasAnyRole(ROLE_BAR_STAFF, ROLE_ADMIN)
+                            // Purchases are open; reading them back (history, QR image) requires a JWT
+                            .requestMatchers(HttpMethod.POST, "/api/transactions").permitAll()
+                            .requestMatchers("/ws/**", "/api/bars/**", "/actuator/**").permitAll()
                             .requestMatchers("/swagger-ui/**", "/v3/api-docs/**").permitAll()
 
                             // Allow authenticated users to access user endpoints (GET requests for profile data)
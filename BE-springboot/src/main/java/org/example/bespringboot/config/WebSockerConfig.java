@@ -1,15 +1,64 @@
 package org.example.bespringboot.config;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketSession;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
 
+/**
+ * WebSocket/STOMP configuration with bounded broker channels
+ *
+ * Inbound and outbound client channels run on fixed-size pools with bounded queues. Each session may
+ * buffer at most send-buffer-size-limit bytes and spend at most send-time-limit-ms on one send; a client
+ * that falls behind both limits is disconnected instead of holding messages for everyone else.
+ * A full outbound queue drops the message for that subscriber. With spring.threads.virtual.enabled the
+ * channel workers are virtual threads; pool sizes and queues stay the same, so the bounds still apply.
+ *
+ * Metrics: {@code websocket.outbound.messages} (messages fanned out to sessions),
+ * {@code websocket.outbound.dropped} and {@code websocket.sessions.dropped} (slow consumers closed).
+ */
+@Slf4j
 @Configuration
 @EnableWebSocketMessageBroker
-
+@RequiredArgsConstructor
 public class WebSockerConfig implements WebSocketMessageBrokerConfigurer {
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.websocket.inbound.threads:4}")
+    private int inboundThreads;
+    @Value("${app.websocket.inbound.queue-capacity:1000}")
+    private int inboundQueueCapacity;
+    @Value("${app.websocket.outbound.threads:8}")
+    private int outboundThreads;
+    @Value("${app.websocket.outbound.queue-capacity:10000}")
+    private int outboundQueueCapacity;
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+    @Value("${app.websocket.send-time-limit-ms:5000}")
+    private int sendTimeLimitMs;
+    @Value("${app.websocket.send-buffer-size-limit:262144}")
+    private int sendBufferSizeLimit;
+    @Value("${app.websocket.message-size-limit:16384}")
+    private int messageSizeLimit;
+
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
         config.enableSimpleBroker("/topic");
@@ -22,4 +71,68 @@ public class WebSockerConfig implements WebSocketMessageBrokerConfigurer {
                 .setAllowedOriginPatterns("*")
                 .withSockJS();
     }
+
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        registration.taskExecutor(channelExecutor("clientInboundChannel-", inboundThreads, inboundQueueCapacity));
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        Counter fannedOut = Counter.builder("websocket.outbound.messages")
+                .description("Messages handed to client sessions")
+                .register(meterRegistry);
+        Counter dropped = Counter.builder("websocket.outbound.dropped")
+                .description("Messages not delivered because the outbound queue was full")
+                .register(meterRegistry);
+
+        registration.taskExecutor(channelExecutor("clientOutboundChannel-", outboundThreads, outboundQueueCapacity));
+        registration.interceptors(new ChannelInterceptor() {
+            @Override
+            public void afterSendCompletion(Message<?> message, MessageChannel channel, boolean sent, Exception ex) {
+                if (SimpMessageHeaderAccessor.getMessageType(message.getHeaders()) != SimpMessageType.MESSAGE) {
+                    return;
+                }
+                if (sent && ex == null) {
+                    fannedOut.increment();
+                } else {
+                    dropped.increment();
+                }
+            }
+        });
+    }
+
+    private ThreadPoolTaskExecutor channelExecutor(String threadNamePrefix, int threads, int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix(threadNamePrefix);
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setAllowCoreThreadTimeOut(true);
+        if (virtualThreads) {
+            executor.setThreadFactory(Thread.ofVirtual().name(threadNamePrefix, 1).factory());
+        }
+        return executor;
+    }
+
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        Counter slowConsumers = Counter.builder("websocket.sessions.dropped")
+                .description("Sessions closed for exceeding the send time and buffer limits")
+                .register(meterRegistry);
+
+        registration.setSendTimeLimit(sendTimeLimitMs)
+                .setSendBufferSizeLimit(sendBufferSizeLimit)
+                .setMessageSizeLimit(messageSizeLimit)
+                .addDecoratorFactory(handler -> new WebSocketHandlerDecorator(handler) {
+                    @Override
+                    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) throws Exception {
+                        if (CloseStatus.SESSION_NOT_RELIABLE.equalsCode(status)) {
+                            slowConsumers.increment();
+                            log.warn("Closed slow WebSocket session {}", session.getId());
+                        }
+                        super.afterConnectionClosed(session, status);
+                    }
+                });
+    }
 }
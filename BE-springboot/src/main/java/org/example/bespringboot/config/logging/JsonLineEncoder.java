@@ -0,0 +1,164 @@
+package org.example.bespringboot.config.logging;
+
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.IThrowableProxy;
+import ch.qos.logback.classic.spi.ThrowableProxyUtil;
+import ch.qos.logback.core.encoder.EncoderBase;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * JSON Line Encoder - Writes each log event as one JSON object per line
+ *
+ * Fields: ts (epoch millis), level, logger, thread, msg, the MDC entries (traceId, spanId, ...) and
+ * exception (stack trace) when present. The JSON is escaped and UTF-8 encoded straight into a byte
+ * buffer reused per thread, so an event costs one byte[] copy instead of a pattern layout's
+ * StringBuilder, String and encoded bytes. Buffers that grew past 64 KB (large stack traces) are
+ * replaced instead of kept.
+ */
+public class JsonLineEncoder extends EncoderBase<ILoggingEvent> {
+
+    private static final int INITIAL_CAPACITY = 512;
+    private static final int MAX_RETAINED_CAPACITY = 64 * 1024;
+    private static final byte[] HEX = "0123456789abcdef".getBytes();
+
+    private final ThreadLocal<Buffer> buffers = ThreadLocal.withInitial(Buffer::new);
+    private boolean includeThread = true;
+    private boolean includeMdc = true;
+
+    public void setIncludeThread(boolean includeThread) {
+        this.includeThread = includeThread;
+    }
+
+    public void setIncludeMdc(boolean includeMdc) {
+        this.includeMdc = includeMdc;
+    }
+
+    @Override
+    public byte[] headerBytes() {
+        return null;
+    }
+
+    @Override
+    public byte[] encode(ILoggingEvent event) {
+        Buffer buffer = buffers.get();
+        buffer.length = 0;
+
+        buffer.ascii("{\"ts\":").number(event.getTimeStamp());
+        buffer.ascii(",\"level\":\"").ascii(event.getLevel().levelStr).ascii("\"");
+        buffer.ascii(",\"logger\":").string(event.getLoggerName());
+        if (includeThread) {
+            buffer.ascii(",\"thread\":").string(event.getThreadName());
+        }
+        buffer.ascii(",\"msg\":").string(event.getFormattedMessage());
+        if (includeMdc) {
+            for (Map.Entry<String, String> entry : event.getMDCPropertyMap().entrySet()) {
+                buffer.ascii(",").string(entry.getKey()).ascii(":").string(entry.getValue());
+            }
+        }
+        IThrowableProxy throwable = event.getThrowableProxy();
+        if (throwable != null) {
+            buffer.ascii(",\"exception\":").string(ThrowableProxyUtil.asString(throwable));
+        }
+        buffer.ascii("}\n");
+
+        byte[] line = Arrays.copyOf(buffer.bytes, buffer.length);
+        if (buffer.bytes.length > MAX_RETAINED_CAPACITY) {
+            buffers.remove();
+        }
+        return line;
+    }
+
+    @Override
+    public byte[] footerBytes() {
+        return null;
+    }
+
+    private static final class Buffer {
+        private byte[] bytes = new byte[INITIAL_CAPACITY];
+        private int length;
+
+        private void ensure(int extra) {
+            if (length + extra > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + extra));
+            }
+        }
+
+        // Only for constant, already escaped ASCII
+        Buffer ascii(String text) {
+            int n = text.length();
+            ensure(n);
+            for (int i = 0; i < n; i++) {
+                bytes[length++] = (byte) text.charAt(i);
+            }
+            return this;
+        }
+
+        Buffer number(long value) {
+            return ascii(Long.toString(value));
+        }
+
+        Buffer string(String text) {
+            if (text == null) {
+                return ascii("null");
+            }
+            int n = text.length();
+            ensure(n + 2);
+            bytes[length++] = '"';
+            // Each branch reserves its bytes plus one for the closing quote
+            for (int i = 0; i < n; i++) {
+                char c = text.charAt(i);
+                if (c >= 0x20 && c < 0x80 && c != '"' && c != '\\') {
+                    ensure(2);
+                    bytes[length++] = (byte) c;
+                } else if (c < 0x80) {
+                    escape(c);
+                } else if (c < 0x800) {
+                    ensure(3);
+                    bytes[length++] = (byte) (0xC0 | (c >> 6));
+                    bytes[length++] = (byte) (0x80 | (c & 0x3F));
+                } else if (Character.isHighSurrogate(c) && i + 1 < n && Character.isLowSurrogate(text.charAt(i + 1))) {
+                    int codePoint = Character.toCodePoint(c, text.charAt(++i));
+                    ensure(5);
+                    bytes[length++] = (byte) (0xF0 | (codePoint >> 18));
+                    bytes[length++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                    bytes[length++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                    bytes[length++] = (byte) (0x80 | (codePoint & 0x3F));
+                } else if (Character.isSurrogate(c)) {
+                    // Unpaired surrogate: not encodable, write U+FFFD like String.getBytes would
+                    ensure(4);
+                    bytes[length++] = (byte) 0xEF;
+                    bytes[length++] = (byte) 0xBF;
+                    bytes[length++] = (byte) 0xBD;
+                } else {
+                    ensure(4);
+                    bytes[length++] = (byte) (0xE0 | (c >> 12));
+                    bytes[length++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                    bytes[length++] = (byte) (0x80 | (c & 0x3F));
+                }
+            }
+            bytes[length++] = '"';
+            return this;
+        }
+
+        private void escape(char c) {
+            ensure(7);
+            bytes[length++] = '\\';
+            switch (c) {
+                case '"' -> bytes[length++] = '"';
+                case '\\' -> bytes[length++] = '\\';
+                case '\n' -> bytes[length++] = 'n';
+                case '\r' -> bytes[length++] = 'r';
+                case '\t' -> bytes[length++] = 't';
+                default -> {
+                    bytes[length++] = 'u';
+                    bytes[length++] = '0';
+                    bytes[length++] = '0';
+                    bytes[length++] = HEX[c >> 4];
+                    bytes[length++] = HEX[c & 0xF];
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package org.example.bespringboot.config.logging;
+
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+
+/**
+ * Logging Metrics - Exposes the async appenders' queues and the sampling filter's suppressed count
+ *
+ * Metrics: {@code logging.async.queue.remaining} and {@code logging.async.dropped} (tag appender) for
+ * every {@link MeteredAsyncAppender} on the root logger, {@code logging.sampled.suppressed} for every
+ * {@link SamplingTurboFilter}.
+ */
+@Component
+public class LoggingMetrics {
+
+    public LoggingMetrics(MeterRegistry meterRegistry) {
+        if (!(LoggerFactory.getILoggerFactory() instanceof LoggerContext context)) {
+            return;
+        }
+        Iterator<Appender<ILoggingEvent>> appenders =
+                context.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME).iteratorForAppenders();
+        while (appenders.hasNext()) {
+            if (appenders.next() instanceof MeteredAsyncAppender appender) {
+                Gauge.builder("logging.async.queue.remaining", appender, MeteredAsyncAppender::getRemainingCapacity)
+                        .description("Free slots in the async logging queue")
+                        .tag("appender", appender.getName())
+                        .register(meterRegistry);
+                FunctionCounter.builder("logging.async.dropped", appender, MeteredAsyncAppender::getDropped)
+                        .description("Log events dropped by the async appender")
+                        .tag("appender", appender.getName())
+                        .register(meterRegistry);
+            }
+        }
+        context.getTurboFilterList().stream()
+                .filter(SamplingTurboFilter.class::isInstance)
+                .map(SamplingTurboFilter.class::cast)
+                .forEach(filter -> FunctionCounter.builder("logging.sampled.suppressed", filter,
+                                SamplingTurboFilter::getSuppressed)
+                        .description("Log events denied by per-logger sampling")
+                        .register(meterRegistry));
+    }
+}
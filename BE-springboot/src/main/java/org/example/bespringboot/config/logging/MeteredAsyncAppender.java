@@ -0,0 +1,43 @@
+package org.example.bespringboot.config.logging;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Metered Async Appender - Logback's AsyncAppender that counts the events it drops
+ *
+ * Events go through a bounded queue (queueSize) to one worker thread that runs the wrapped appender.
+ * Drop policy: once fewer than discardingThreshold slots are free, INFO and below are discarded;
+ * with neverBlock a full queue drops WARN and ERROR as well instead of blocking the caller.
+ * The count of full-queue drops is approximate, since the worker may free a slot concurrently.
+ */
+public class MeteredAsyncAppender extends AsyncAppender {
+
+    private final LongAdder dropped = new LongAdder();
+
+    @Override
+    protected void append(ILoggingEvent event) {
+        if (isNeverBlock() && getRemainingCapacity() == 0 && !super.isDiscardable(event)) {
+            dropped.increment();
+        }
+        super.append(event);
+    }
+
+    @Override
+    protected boolean isDiscardable(ILoggingEvent event) {
+        boolean discardable = super.isDiscardable(event);
+        if (discardable) {
+            dropped.increment();
+        }
+        return discardable;
+    }
+
+    /**
+     * Events dropped since startup, by the discarding threshold or a full queue
+     */
+    public long getDropped() {
+        return dropped.sum();
+    }
+}
@@ -0,0 +1,116 @@
+package org.example.bespringboot.config.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sampling Turbo Filter - Caps high-frequency log lines per logger and second
+ *
+ * Applies to loggers whose name starts with one of the configured loggerPrefix values: each such
+ * logger may emit maxPerSecond events at INFO or below per second, the rest are denied before a
+ * logging event is even created. WARN and ERROR always pass, as do loggers outside the prefixes.
+ * Denied events are counted in {@link #getSuppressed()}.
+ *
+ * Configured in logback-spring.xml:
+ * <pre>
+ * &lt;turboFilter class="org.example.bespringboot.config.logging.SamplingTurboFilter"&gt;
+ *     &lt;loggerPrefix&gt;org.example.bespringboot.controller&lt;/loggerPrefix&gt;
+ *     &lt;maxPerSecond&gt;20&lt;/maxPerSecond&gt;
+ * &lt;/turboFilter&gt;
+ * </pre>
+ */
+public class SamplingTurboFilter extends TurboFilter {
+
+    // Loggers outside the prefixes map to this window and are never sampled
+    private static final Window UNSAMPLED = new Window();
+    private static final int COUNT_BITS = 20;
+    private static final long MAX_COUNT = (1L << COUNT_BITS) - 1;
+
+    private final List<String> loggerPrefixes = new ArrayList<>();
+    private final Map<String, Window> windows = new ConcurrentHashMap<>();
+    private final LongAdder suppressed = new LongAdder();
+    private int maxPerSecond = 20;
+
+    public void addLoggerPrefix(String loggerPrefix) {
+        loggerPrefixes.add(loggerPrefix.trim());
+    }
+
+    public void setMaxPerSecond(int maxPerSecond) {
+        this.maxPerSecond = maxPerSecond;
+    }
+
+    @Override
+    public void start() {
+        if (maxPerSecond < 0 || maxPerSecond > MAX_COUNT) {
+            addError("maxPerSecond must be between 0 and " + MAX_COUNT);
+            return;
+        }
+        super.start();
+    }
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        // format is null for isXxxEnabled() checks, which must not use up the budget
+        if (format == null || level.isGreaterOrEqual(Level.WARN) || !level.isGreaterOrEqual(logger.getEffectiveLevel())) {
+            return FilterReply.NEUTRAL;
+        }
+        Window window = windows.computeIfAbsent(logger.getName(), this::windowFor);
+        boolean allowed = window == UNSAMPLED
+                || (maxPerSecond > 0 && window.tryAcquire(maxPerSecond, System.currentTimeMillis() / 1000));
+        if (allowed) {
+            return FilterReply.NEUTRAL;
+        }
+        suppressed.increment();
+        return FilterReply.DENY;
+    }
+
+    private Window windowFor(String loggerName) {
+        for (String prefix : loggerPrefixes) {
+            if (loggerName.startsWith(prefix)) {
+                return new Window();
+            }
+        }
+        return UNSAMPLED;
+    }
+
+    /**
+     * Events denied since startup
+     */
+    public long getSuppressed() {
+        return suppressed.sum();
+    }
+
+    // Second and count packed into one long so a new second resets the count atomically
+    private static final class Window {
+        private final AtomicLong state = new AtomicLong();
+
+        boolean tryAcquire(int max, long second) {
+            while (true) {
+                long current = state.get();
+                long currentSecond = current >>> COUNT_BITS;
+                long count = current & MAX_COUNT;
+                long next;
+                if (currentSecond != second) {
+                    next = (second << COUNT_BITS) | 1;
+                } else if (count < max) {
+                    next = current + 1;
+                } else {
+                    return false;
+                }
+                if (state.compareAndSet(current, next)) {
+                    return true;
+                }
+            }
+        }
+    }
+}
@@ -6,6 +6,8 @@ import org.example.bespringboot.dto.AuthenticationResponse;
 import org.example.bespringboot.dto.LoginRequest;
 import org.example.bespringboot.dto.RegisterRequest;
 import org.example.bespringboot.service.AuthenticationService;
+import org.example.bespringboot.service.PasswordHashingBusyException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -37,6 +39,9 @@ public class AuthController {
         } catch (IllegalArgumentException e) {
             log.warn("Login failed: {}", e.getMessage());
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        } catch (PasswordHashingBusyException e) {
+            log.warn("Login rejected: {}", e.getMessage());
+            return serviceUnavailable();
         } catch (Exception e) {
             log.error("Login error: {}", e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
@@ -57,9 +62,19 @@ public class AuthController {
         } catch (IllegalArgumentException e) {
             log.warn("Registration failed: {}", e.getMessage());
             return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (PasswordHashingBusyException e) {
+            log.warn("Registration rejected: {}", e.getMessage());
+            return serviceUnavailable();
         } catch (Exception e) {
             log.error("Registration error: {}", e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
+
+    // Password hashing pool is saturated: ask the client to retry shortly
+    private static ResponseEntity<AuthenticationResponse> serviceUnavailable() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .build();
+    }
 }
@@ -2,17 +2,29 @@ package org.example.bespringboot.controller;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.example.bespringboot.entity.Bar;
-import org.example.bespringboot.entity.Reward;
-import org.example.bespringboot.repository.BarRepository;
-import org.example.bespringboot.repository.RewardRepository;
+import org.example.bespringboot.dto.TransactionStatusResponse;
+import org.example.bespringboot.service.BarCatalogService;
+import org.example.bespringboot.service.BarCatalogService.CatalogPage;
+import org.example.bespringboot.service.BarCatalogService.SerializedBody;
+import org.example.bespringboot.service.TransactionHistoryService;
+import org.example.bespringboot.service.TransactionHistoryService.HistoryPage;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+
 import java.util.List;
 
 /**
  * BarController - Handles bar-related endpoints
- * Provides access to bars and their associated rewards
+ * Provides access to bars and their associated rewards.
+ * Both endpoints are served from the in-memory catalog snapshot with a strong ETag;
+ * a matching If-None-Match is answered with 304 Not Modified and no body.
+ * GET /api/bars can be paged by offset (page, size) or by keyset (after = last bar id seen, size);
+ * the body stays a JSON array, with X-Total-Count and a Link rel="next" header for the next page.
+ * GET /api/bars/{barId}/transactions is read from the database with keyset paging (cursor, size);
+ * unlike the catalog it requires a JWT of bar staff or an admin.
  */
 @Slf4j
 @RequiredArgsConstructor
@@ -20,19 +32,53 @@ import java.util.List;
 @RequestMapping("/api/bars")
 public class BarController {
 
-    private final BarRepository barRepository;
-    private final RewardRepository rewardRepository;
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private final BarCatalogService barCatalogService;
+    private final TransactionHistoryService transactionHistoryService;
 
     /**
-     * Get all bars
-     * @return List of all bars in the system
+     * Get all bars, or one page of them
+     * @param page zero-based page number (offset paging)
+     * @param size page size, 1-100 (default 20 when paging)
+     * @param after id of the last bar already seen (keyset paging, takes precedence over page)
+     * @return List of bars ordered by id, 400 for invalid paging parameters
      */
     @GetMapping
-    public ResponseEntity<List<Bar>> getAllBars() {
-        log.info("Fetching all bars");
-        List<Bar> bars = barRepository.findAll();
-        log.info("Found {} bars", bars.size());
-        return ResponseEntity.ok(bars);
+    public ResponseEntity<?> getAllBars(@RequestParam(required = false) Integer page,
+                                        @RequestParam(required = false) Integer size,
+                                        @RequestParam(required = false) Long after) {
+        if (page == null && size == null && after == null) {
+            log.debug("Fetching all bars");
+            return cachedJson(barCatalogService.bars());
+        }
+
+        int pageSize = size != null ? size : DEFAULT_PAGE_SIZE;
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE || (page != null && page < 0)) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        CatalogPage catalogPage;
+        String next;
+        if (after != null) {
+            catalogPage = barCatalogService.after(after, pageSize);
+            next = "/api/bars?after=" + catalogPage.lastId() + "&size=" + pageSize;
+        } else {
+            int pageNumber = page != null ? page : 0;
+            catalogPage = barCatalogService.page(pageNumber, pageSize);
+            next = "/api/bars?page=" + (pageNumber + 1) + "&size=" + pageSize;
+        }
+        log.debug("Fetching bars page with {} of {} bars", catalogPage.items().size(), catalogPage.totalElements());
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .eTag(catalogPage.etag())
+                .cacheControl(CacheControl.noCache())
+                .header("X-Total-Count", String.valueOf(catalogPage.totalElements()));
+        if (catalogPage.hasNext()) {
+            response.header(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"");
+        }
+        return response.body(catalogPage.items());
     }
 
     /**
@@ -41,17 +87,62 @@ public class BarController {
      * @return List of rewards for the specified bar
      */
     @GetMapping("/{barId}/rewards")
-    public ResponseEntity<List<Reward>> getBarRewards(@PathVariable Long barId) {
-        log.info("Fetching rewards for bar: {}", barId);
+    public ResponseEntity<byte[]> getBarRewards(@PathVariable Long barId) {
+        log.debug("Fetching rewards for bar: {}", barId);
 
-        // Verify bar exists
-        if (!barRepository.existsById(barId)) {
+        SerializedBody rewards = barCatalogService.rewards(barId);
+        if (rewards == null) {
             log.warn("Bar not found with id: {}", barId);
             return ResponseEntity.notFound().build();
         }
+        return cachedJson(rewards);
+    }
+
+    /**
+     * Get a bar's transaction history, newest first
+     * Requires a JWT token with the BAR_STAFF or ADMIN role
+     * The next page is linked with a Link rel="next" header carrying an opaque cursor.
+     * @param barId Bar ID
+     * @param cursor cursor from the previous page's Link header (omit for the first page)
+     * @param size page size, 1-100 (default 20)
+     * @return List of transactions, 404 if the bar does not exist, 400 for an invalid size or cursor
+     */
+    @GetMapping("/{barId}/transactions")
+    public ResponseEntity<List<TransactionStatusResponse>> getBarTransactions(
+            @PathVariable Long barId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (barCatalogService.rewards(barId) == null) {
+            log.warn("Bar not found with id: {}", barId);
+            return ResponseEntity.notFound().build();
+        }
+
+        try {
+            HistoryPage page = transactionHistoryService.barHistory(barId, cursor, size);
+            log.debug("Fetched {} history entries for bar: {}", page.items().size(), barId);
+
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+            if (page.nextCursor() != null) {
+                String next = "/api/bars/" + barId + "/transactions?cursor=" + page.nextCursor() + "&size=" + size;
+                response.header(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"");
+            }
+            return response.body(page.items());
+
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid history request for bar {}: {}", barId, e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
 
-        List<Reward> rewards = rewardRepository.findByBarId(barId);
-        log.info("Found {} rewards for bar: {}", rewards.size(), barId);
-        return ResponseEntity.ok(rewards);
+    // Spring MVC compares the ETag with If-None-Match for GET and turns a match into 304
+    private static ResponseEntity<byte[]> cachedJson(SerializedBody body) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(body.etag())
+                .cacheControl(CacheControl.noCache())
+                .body(body.json());
     }
-}
\ No newline at end of file
+}
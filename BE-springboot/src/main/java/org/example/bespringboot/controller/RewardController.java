@@ -0,0 +1,59 @@
+package org.example.bespringboot.controller;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.bespringboot.dto.AuthenticatedUser;
+import org.example.bespringboot.dto.InsufficientPointsResponse;
+import org.example.bespringboot.dto.RedemptionResponse;
+import org.example.bespringboot.service.InsufficientPointsException;
+import org.example.bespringboot.service.RewardRedemptionService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Optional;
+
+/**
+ * RewardController - Handles reward endpoints
+ * Rewards are redeemed by the authenticated user with the points of their own balance.
+ */
+@Slf4j
+@RequiredArgsConstructor
+@RestController
+@RequestMapping("/api/rewards")
+public class RewardController {
+
+    private final RewardRedemptionService rewardRedemptionService;
+
+    /**
+     * Redeem a reward
+     * Requires authentication - JWT token must be provided in Authorization header
+     * @param id Reward ID
+     * @return 201 with the redemption and new balance, 404 if the reward does not exist,
+     * 409 with the current balance and the reward's cost if the balance does not cover the reward
+     */
+    @PostMapping("/{id}/redeem")
+    public ResponseEntity<?> redeem(@PathVariable Long id,
+            @AuthenticationPrincipal AuthenticatedUser user) {
+        try {
+            Optional<RedemptionResponse> redemption = rewardRedemptionService.redeem(user.getId(), id);
+            if (redemption.isEmpty()) {
+                log.warn("Reward not found with id: {}", id);
+                return ResponseEntity.notFound().build();
+            }
+            return ResponseEntity.status(HttpStatus.CREATED).body(redemption.get());
+
+        } catch (InsufficientPointsException e) {
+            log.info("Redemption of reward {} by user {} refused: {}", id, user.getId(), e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(InsufficientPointsResponse.builder()
+                    .pointsBalance(e.getPointsBalance())
+                    .pointsRequired(e.getPointsRequired())
+                    .build());
+
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid redemption request: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+}
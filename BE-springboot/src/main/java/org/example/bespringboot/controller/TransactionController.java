@@ -1,14 +1,37 @@
 package org.example.bespringboot.controller;
 
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.example.bespringboot.dto.AuthenticatedUser;
+import org.example.bespringboot.dto.TransactionAcceptedResponse;
 import org.example.bespringboot.dto.TransactionRequest;
+import org.example.bespringboot.dto.TransactionStatusResponse;
 import org.example.bespringboot.entity.Transaction;
+import org.example.bespringboot.service.IdempotencyConflictException;
+import org.example.bespringboot.service.QrImageService;
+import org.example.bespringboot.service.TransactionHistoryService;
+import org.example.bespringboot.service.TransactionHistoryService.HistoryPage;
+import org.example.bespringboot.service.TransactionIdempotencyService;
+import org.example.bespringboot.service.TransactionIdempotencyService.Outcome;
 import org.example.bespringboot.service.TransactionService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.List;
+
 /**
  * TransactionController - Handles transaction endpoints
  * Manages QR code generation and loyalty point transactions
@@ -19,34 +42,191 @@ import org.springframework.web.bind.annotation.*;
 @RequestMapping("/api/transactions")
 public class TransactionController {
 
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final String IDEMPOTENT_REPLAYED = "Idempotent-Replayed";
+
     private final TransactionService transactionService;
+    private final TransactionHistoryService transactionHistoryService;
+    private final TransactionIdempotencyService transactionIdempotencyService;
+    private final QrImageService qrImageService;
+
+    @Value("${transactions.async.enabled:false}")
+    private boolean asyncEnabled;
 
     /**
      * Create a new transaction
-     * Initiates QR code generation and points calculation
+     * Initiates QR code generation and points calculation.
+     * With transactions.async.enabled=true the PENDING transaction is returned immediately with
+     * 202 Accepted; completion is pushed to /topic/points/{userId} and exposed via GET /{id}.
+     * With an Idempotency-Key header a retried request returns the original transaction (marked with
+     * Idempotent-Replayed: true) instead of purchasing again; a duplicate of a request still in progress
+     * waits for it. The body carries the QR hash and qrCodeUrl, the link to the PNG image.
      *
      * @param transactionRequest Transaction details (userId, barId, amount)
-     * @return Created transaction with QR code hash
+     * @param idempotencyKey optional client-chosen key, unique per purchase (1-100 printable ASCII characters)
+     * @return Created transaction with QR code hash, or the accepted transaction id in async mode;
+     *         400 for an invalid request or a key reused with another request, 409 while the original is
+     *         still running after the wait timeout
      */
     @PostMapping
-    public ResponseEntity<Transaction> createTransaction(@RequestBody TransactionRequest transactionRequest) {
+    public ResponseEntity<?> createTransaction(
+            @RequestBody TransactionRequest transactionRequest,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
         log.info("Received transaction request for userId: {}, barId: {}, amount: {}",
                 transactionRequest.getUserId(),
                 transactionRequest.getBarId(),
                 transactionRequest.getAmount());
 
         try {
-            Transaction transaction = transactionService.createTransaction(transactionRequest);
-            log.info("Transaction created successfully with id: {}", transaction.getId());
-            return ResponseEntity.status(HttpStatus.CREATED).body(transaction);
+            Outcome outcome = idempotencyKey == null
+                    ? new Outcome(purchase(transactionRequest, null), false)
+                    : transactionIdempotencyService.execute(idempotencyKey, transactionRequest,
+                            () -> purchase(transactionRequest, idempotencyKey));
+            Transaction transaction = outcome.transaction();
+            if (outcome.replayed()) {
+                log.info("Replaying transaction {} for Idempotency-Key {}", transaction.getId(), idempotencyKey);
+            }
+
+            ResponseEntity.BodyBuilder response =
+                    ResponseEntity.status(asyncEnabled ? HttpStatus.ACCEPTED : HttpStatus.CREATED);
+            if (idempotencyKey != null) {
+                response.header(IDEMPOTENT_REPLAYED, String.valueOf(outcome.replayed()));
+            }
+
+            if (asyncEnabled) {
+                String statusUrl = "/api/transactions/" + transaction.getId();
+                return response
+                        .location(URI.create(statusUrl))
+                        .body(TransactionAcceptedResponse.builder()
+                                .transactionId(transaction.getId())
+                                .status(transaction.getStatus())
+                                .statusUrl(statusUrl)
+                                .build());
+            }
+
+            if (!outcome.replayed()) {
+                log.info("Transaction created successfully with id: {}", transaction.getId());
+            }
+            return response.body(transaction);
 
         } catch (IllegalArgumentException e) {
             log.error("Invalid transaction request: {}", e.getMessage());
             return ResponseEntity.badRequest().build();
 
+        } catch (IdempotencyConflictException e) {
+            log.warn("Duplicate transaction request: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .build();
+
         } catch (RuntimeException e) {
             log.error("Transaction processing failed: {}", e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
+
+    private Transaction purchase(TransactionRequest transactionRequest, String idempotencyKey) {
+        return asyncEnabled
+                ? transactionService.submitTransaction(transactionRequest, idempotencyKey)
+                : transactionService.createTransaction(transactionRequest, idempotencyKey);
+    }
+
+    /**
+     * Get the authenticated user's transaction history, newest first
+     * Requires authentication - JWT token must be provided in Authorization header
+     * The next page is linked with a Link rel="next" header carrying an opaque cursor.
+     * @param cursor cursor from the previous page's Link header (omit for the first page)
+     * @param size page size, 1-100 (default 20)
+     * @return List of transactions, 400 for an invalid size or cursor
+     */
+    @GetMapping
+    public ResponseEntity<List<TransactionStatusResponse>> getUserHistory(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int size,
+            @AuthenticationPrincipal AuthenticatedUser user) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        Long userId = user.getId();
+        try {
+            HistoryPage page = transactionHistoryService.userHistory(userId, cursor, size);
+            log.debug("Fetched {} history entries for user: {}", page.items().size(), userId);
+
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+            if (page.nextCursor() != null) {
+                String next = "/api/transactions?cursor=" + page.nextCursor() + "&size=" + size;
+                response.header(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"");
+            }
+            return response.body(page.items());
+
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid history request for user {}: {}", userId, e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Get the QR code of one of the authenticated user's transactions as a PNG image
+     * Requires authentication - JWT token must be provided in Authorization header
+     * A QR code never changes once issued, so the image is privately cacheable for a year (ETag = QR hash);
+     * a request with a matching If-None-Match gets 304. The body is streamed from the image store's
+     * memory-mapped segment without being copied into a byte array first.
+     * @param id Transaction ID
+     * @return image/png, 404 if the transaction does not exist, belongs to another user or has no QR code yet
+     */
+    @GetMapping(value = "/{id}/qr.png", produces = MediaType.IMAGE_PNG_VALUE)
+    public ResponseEntity<Resource> getQrCodeImage(@PathVariable Long id,
+                                                   @AuthenticationPrincipal AuthenticatedUser user) {
+        return transactionService.getQrCodeHash(id, user.getId())
+                .map(hash -> ResponseEntity.ok()
+                        .contentType(MediaType.IMAGE_PNG)
+                        .eTag(hash)
+                        .cacheControl(CacheControl.maxAge(Duration.ofDays(365)).cachePrivate().immutable())
+                        .body((Resource) new PngResource(qrImageService.png(hash))))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Get the current status of one of the authenticated user's transactions
+     * Requires authentication - JWT token must be provided in Authorization header
+     * @param id Transaction ID
+     * @return Transaction status (PENDING, COMPLETED or FAILED), 404 if not found or owned by another user
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<TransactionStatusResponse> getTransactionStatus(@PathVariable Long id,
+                                                                          @AuthenticationPrincipal AuthenticatedUser user) {
+        return transactionService.getTransactionStatus(id, user.getId())
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Read-only PNG bytes as a Resource, so the response is written from the buffer in chunks
+     * and Range requests can be served from it
+     */
+    private static final class PngResource extends AbstractResource {
+
+        private final ByteBuffer png;
+
+        PngResource(ByteBuffer png) {
+            this.png = png;
+        }
+
+        @Override
+        public InputStream getInputStream() {
+            return new ByteBufferBackedInputStream(png.duplicate());
+        }
+
+        @Override
+        public long contentLength() {
+            return png.remaining();
+        }
+
+        @Override
+        public String getDescription() {
+            return "QR code PNG";
+        }
+    }
 }
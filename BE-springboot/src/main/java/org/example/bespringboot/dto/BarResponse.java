@@ -0,0 +1,21 @@
+package org.example.bespringboot.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * BarResponse DTO
+ * Bar with its rewards as exposed by GET /api/bars
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BarResponse {
+    private Long id;
+    private String name;
+    private String location;
+    private List<RewardResponse> rewards;
+}
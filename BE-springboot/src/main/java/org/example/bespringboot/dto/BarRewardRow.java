@@ -0,0 +1,22 @@
+package org.example.bespringboot.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * BarRewardRow DTO
+ * One row of the bars LEFT JOIN rewards catalog query; reward columns are null for a bar without rewards
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BarRewardRow {
+    private Long barId;
+    private String barName;
+    private String barLocation;
+    private Long rewardId;
+    private String rewardName;
+    private Long rewardPointsCost;
+    private String rewardImageUrl;
+}
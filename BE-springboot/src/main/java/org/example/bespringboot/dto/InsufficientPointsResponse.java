@@ -0,0 +1,19 @@
+package org.example.bespringboot.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * InsufficientPointsResponse DTO
+ * Returned with 409 Conflict by POST /api/rewards/{id}/redeem when the balance does not cover the reward
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class InsufficientPointsResponse {
+    private Long pointsBalance;
+    private Long pointsRequired;
+}
@@ -0,0 +1,18 @@
+package org.example.bespringboot.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * QrBatchResponse DTO
+ * Response of the Python /generate-qr/batch endpoint, one result per requested item in order
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class QrBatchResponse {
+    private List<QrResponse> results;
+}
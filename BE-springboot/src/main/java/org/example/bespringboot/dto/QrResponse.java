@@ -5,6 +5,8 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.Base64;
+
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -19,4 +21,12 @@ public class QrResponse {
     public String getQrCodeBase64() {
         return qrCodeBase64;
     }
+
+    /**
+     * @return the PNG image bytes
+     * @throws IllegalArgumentException if qrCodeBase64 is not valid base64
+     */
+    public byte[] decodePng() {
+        return Base64.getDecoder().decode(qrCodeBase64);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,26 @@
+package org.example.bespringboot.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * RedemptionResponse DTO
+ * Returned with 201 Created by POST /api/rewards/{id}/redeem
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RedemptionResponse {
+    private Long redemptionId;
+    private Long rewardId;
+    private String rewardName;
+    private Long barId;
+    private Long pointsSpent;
+    private Long pointsBalance;
+    private LocalDateTime createdAt;
+}
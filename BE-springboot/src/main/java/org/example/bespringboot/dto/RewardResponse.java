@@ -0,0 +1,19 @@
+package org.example.bespringboot.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * RewardResponse DTO
+ * Reward as exposed by the bar catalog endpoints
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RewardResponse {
+    private Long id;
+    private String name;
+    private Long pointsCost;
+    private String imageUrl;
+}
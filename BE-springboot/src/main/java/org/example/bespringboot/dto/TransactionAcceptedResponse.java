@@ -0,0 +1,20 @@
+package org.example.bespringboot.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * TransactionAcceptedResponse DTO
+ * Returned with 202 Accepted when a transaction is processed asynchronously
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionAcceptedResponse {
+    private Long transactionId;
+    private String status;
+    private String statusUrl;
+}
@@ -0,0 +1,25 @@
+package org.example.bespringboot.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * TransactionStatusResponse DTO
+ * Flat view of a transaction returned by GET /api/transactions/{id} and the history endpoints
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionStatusResponse {
+    private Long id;
+    private Long userId;
+    private Long barId;
+    private Long amount;
+    private Long pointsEarned;
+    private String qrCodeHash;
+    private String status;
+    private LocalDateTime createdAt;
+}
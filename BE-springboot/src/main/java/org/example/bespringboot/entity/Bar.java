@@ -4,7 +4,10 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.example.bespringboot.service.BarCatalogChangeListener;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 import java.util.ArrayList;
 import java.util.List;
@@ -19,10 +22,12 @@ import java.util.List;
 @Builder
 @Entity
 @Table(name = "bars")
+@EntityListeners(BarCatalogChangeListener.class)
 public class Bar {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "bars_seq")
+    @SequenceGenerator(name = "bars_seq", sequenceName = "bars_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -31,8 +36,10 @@ public class Bar {
     @Column(nullable = false)
     private String location;
 
-    @OneToMany(mappedBy = "bar", fetch = FetchType.EAGER, cascade = CascadeType.ALL, orphanRemoval = true)
+    @OneToMany(mappedBy = "bar", fetch = FetchType.LAZY, cascade = CascadeType.ALL, orphanRemoval = true)
     @JsonManagedReference(value = "bar-rewards")
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private List<Reward> rewards = new ArrayList<>();
 }
 
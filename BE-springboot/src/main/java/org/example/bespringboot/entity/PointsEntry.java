@@ -0,0 +1,42 @@
+package org.example.bespringboot.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+/**
+ * PointsEntry Entity - One append-only movement in a user's points ledger
+ * Maps to 'points_entries' table in PostgreSQL. Positive delta = credit, negative = debit.
+ */
+@Data
+@Entity
+@Table(name = "points_entries")
+public class PointsEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "points_entries_seq")
+    @SequenceGenerator(name = "points_entries_seq", sequenceName = "points_entries_id_seq", allocationSize = 50)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    @Column(name = "transaction_id")
+    private Long transactionId;
+
+    @Column(name = "redemption_id")
+    private Long redemptionId;
+
+    @Column(nullable = false)
+    private Long delta;
+
+    @Column(nullable = false)
+    private Long balanceAfter;
+
+    @Column(nullable = false)
+    private String reason;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+}
@@ -0,0 +1,37 @@
+package org.example.bespringboot.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+/**
+ * Redemption Entity - A reward a user paid for with points
+ * Maps to 'redemptions' table in PostgreSQL. The debit itself is the points_entries row
+ * with reason REDEMPTION that references this redemption.
+ */
+@Data
+@Entity
+@Table(name = "redemptions")
+public class Redemption {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "redemptions_seq")
+    @SequenceGenerator(name = "redemptions_seq", sequenceName = "redemptions_id_seq", allocationSize = 50)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    @Column(name = "reward_id")
+    private Long rewardId;
+
+    @Column(name = "bar_id", nullable = false)
+    private Long barId;
+
+    @Column(nullable = false)
+    private Long pointsSpent;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+}
@@ -4,7 +4,10 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.example.bespringboot.service.BarCatalogChangeListener;
 import com.fasterxml.jackson.annotation.JsonBackReference;
 
 /**
@@ -17,15 +20,19 @@ import com.fasterxml.jackson.annotation.JsonBackReference;
 @Builder
 @Entity
 @Table(name = "rewards")
+@EntityListeners(BarCatalogChangeListener.class)
 public class Reward {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "rewards_seq")
+    @SequenceGenerator(name = "rewards_seq", sequenceName = "rewards_id_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "bar_id", nullable = false)
     @JsonBackReference(value = "bar-rewards")
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private Bar bar;
 
     @Column(nullable = false)
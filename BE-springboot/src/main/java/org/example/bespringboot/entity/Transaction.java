@@ -1,7 +1,10 @@
 package org.example.bespringboot.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
 import java.time.LocalDateTime;
 
 @Data
@@ -10,15 +13,22 @@ import java.time.LocalDateTime;
 public class Transaction {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transactions_seq")
+    @SequenceGenerator(name = "transactions_seq", sequenceName = "transactions_id_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private User user;
 
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "bar_id", nullable = false)
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private Bar bar;
 
     @Column(nullable = false)
@@ -30,16 +40,32 @@ public class Transaction {
     @Column
     private String qrCodeHash;
 
-    @Transient
-    private String qrCodeImage;
-
     @Column(nullable = false)
     private String status = "PENDING";
 
     @Column(nullable = false)
     private LocalDateTime createdAt = LocalDateTime.now();
 
-    public void setQrCodeImage(String qrCodeImage) {
-        this.qrCodeImage = qrCodeImage;
+    // Idempotency-Key of the request that created it, unique per user; null when none was sent
+    @Column(name = "idempotency_key", length = 100)
+    @JsonIgnore
+    private String idempotencyKey;
+
+    // user and bar are usually unloaded references, so the API exposes their ids only
+    public Long getUserId() {
+        return user != null ? user.getId() : null;
+    }
+
+    public Long getBarId() {
+        return bar != null ? bar.getId() : null;
+    }
+
+    // The QR image is served separately as PNG; the API links to it once the transaction has a QR code
+    public String getQrCodeUrl() {
+        return qrCodeHash != null ? qrCodeUrl(id) : null;
+    }
+
+    public static String qrCodeUrl(Long transactionId) {
+        return "/api/transactions/" + transactionId + "/qr.png";
     }
 }
\ No newline at end of file
@@ -1,14 +1,25 @@
 package org.example.bespringboot.repository;
 
+import org.example.bespringboot.dto.BarRewardRow;
 import org.example.bespringboot.entity.Bar;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 /**
  * Repository for Bar entity
  * Provides database access operations for bars
  */
 @Repository
 public interface BarRepository extends JpaRepository<Bar, Long> {
-}
 
+    /**
+     * Whole catalog in one round trip: one row per (bar, reward), bars without rewards included once
+     */
+    @Query("select new org.example.bespringboot.dto.BarRewardRow("
+            + "b.id, b.name, b.location, r.id, r.name, r.pointsCost, r.imageUrl) "
+            + "from Bar b left join b.rewards r order by b.id, r.id")
+    List<BarRewardRow> findCatalogRows();
+}
@@ -0,0 +1,43 @@
+package org.example.bespringboot.repository;
+
+import org.example.bespringboot.entity.OutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Repository for OutboxEvent entity
+ * Claims batches of due events for the outbox dispatcher
+ */
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    /**
+     * Lock up to limit due events, oldest first; rows locked by another dispatcher are skipped, so
+     * several nodes can drain the outbox concurrently without handing out an event twice.
+     * Must run inside a transaction: the locks are held until it ends.
+     */
+    @Query(value = "SELECT * FROM outbox_events WHERE available_at <= now() AND attempts < :maxAttempts "
+            + "ORDER BY available_at, id LIMIT :limit FOR UPDATE SKIP LOCKED",
+            nativeQuery = true)
+    List<OutboxEvent> claimDue(@Param("maxAttempts") int maxAttempts, @Param("limit") int limit);
+
+    /**
+     * Record a failed delivery and make the event due again after delaySeconds
+     */
+    @Modifying
+    @Query(value = "UPDATE outbox_events SET attempts = attempts + 1, last_error = :error, "
+            + "available_at = now() + make_interval(secs => :delaySeconds) WHERE id = :id",
+            nativeQuery = true)
+    int markFailed(@Param("id") Long id, @Param("error") String error, @Param("delaySeconds") double delaySeconds);
+
+    long countByAttemptsLessThan(int maxAttempts);
+
+    @Query("select min(e.createdAt) from OutboxEvent e where e.attempts < :maxAttempts")
+    LocalDateTime findOldestCreatedAt(@Param("maxAttempts") int maxAttempts);
+}
@@ -0,0 +1,20 @@
+package org.example.bespringboot.repository;
+
+import org.example.bespringboot.entity.PointsEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository for PointsEntry entity
+ * Provides append and reconciliation access to the points ledger
+ */
+@Repository
+public interface PointsEntryRepository extends JpaRepository<PointsEntry, Long> {
+
+    @Query("select coalesce(sum(e.delta), 0) from PointsEntry e where e.user.id = :userId")
+    long sumDeltaByUserId(@Param("userId") Long userId);
+
+    long countByUserId(Long userId);
+}
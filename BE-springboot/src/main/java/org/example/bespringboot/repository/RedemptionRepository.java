@@ -0,0 +1,13 @@
+package org.example.bespringboot.repository;
+
+import org.example.bespringboot.entity.Redemption;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository for Redemption entity
+ * Provides database access operations for redeemed rewards
+ */
+@Repository
+public interface RedemptionRepository extends JpaRepository<Redemption, Long> {
+}
@@ -1,8 +1,18 @@
 package org.example.bespringboot.repository;
 
+import org.example.bespringboot.dto.TransactionStatusResponse;
 import org.example.bespringboot.entity.Transaction;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
 
 /**
  * Repository for Transaction entity
@@ -10,5 +20,81 @@ import org.springframework.stereotype.Repository;
  */
 @Repository
 public interface TransactionRepository extends JpaRepository<Transaction, Long> {
-}
 
+    @Query("select new org.example.bespringboot.dto.TransactionStatusResponse("
+            + "t.id, t.user.id, t.bar.id, t.amount, t.pointsEarned, t.qrCodeHash, t.status, t.createdAt) "
+            + "from Transaction t where t.id = :id and t.user.id = :userId")
+    Optional<TransactionStatusResponse> findStatusByIdAndUserId(@Param("id") Long id, @Param("userId") Long userId);
+
+    @Query("select t.qrCodeHash from Transaction t "
+            + "where t.id = :id and t.user.id = :userId and t.qrCodeHash is not null")
+    Optional<String> findQrCodeHashByIdAndUserId(@Param("id") Long id, @Param("userId") Long userId);
+
+    /**
+     * Whether a purchase can reference the user and the bar: both primary keys checked in one round trip
+     */
+    @Query(value = "SELECT EXISTS (SELECT 1 FROM users WHERE id = :userId) "
+            + "AND EXISTS (SELECT 1 FROM bars WHERE id = :barId)", nativeQuery = true)
+    boolean referencesExist(@Param("userId") Long userId, @Param("barId") Long barId);
+
+    // Served by the partial unique index uk_transactions_user_idempotency_key
+    @Query("from Transaction t where t.user.id = :userId and t.idempotencyKey = :idempotencyKey")
+    Optional<Transaction> findByUserIdAndIdempotencyKey(@Param("userId") Long userId,
+                                                        @Param("idempotencyKey") String idempotencyKey);
+
+    /*
+     * History pages, newest first, keyset on (createdAt, id): each page starts strictly after the last row
+     * of the previous one, so fetching page n costs the same as page 1 (index on user_id/bar_id, created_at, id)
+     */
+
+    @Query("select new org.example.bespringboot.dto.TransactionStatusResponse("
+            + "t.id, t.user.id, t.bar.id, t.amount, t.pointsEarned, t.qrCodeHash, t.status, t.createdAt) "
+            + "from Transaction t where t.user.id = :userId "
+            + "order by t.createdAt desc, t.id desc")
+    List<TransactionStatusResponse> findHistoryByUserId(@Param("userId") Long userId, Limit limit);
+
+    @Query("select new org.example.bespringboot.dto.TransactionStatusResponse("
+            + "t.id, t.user.id, t.bar.id, t.amount, t.pointsEarned, t.qrCodeHash, t.status, t.createdAt) "
+            + "from Transaction t where t.user.id = :userId and (t.createdAt, t.id) < (:createdAt, :id) "
+            + "order by t.createdAt desc, t.id desc")
+    List<TransactionStatusResponse> findHistoryByUserIdBefore(@Param("userId") Long userId,
+                                                              @Param("createdAt") LocalDateTime createdAt,
+                                                              @Param("id") Long id,
+                                                              Limit limit);
+
+    @Query("select new org.example.bespringboot.dto.TransactionStatusResponse("
+            + "t.id, t.user.id, t.bar.id, t.amount, t.pointsEarned, t.qrCodeHash, t.status, t.createdAt) "
+            + "from Transaction t where t.bar.id = :barId "
+            + "order by t.createdAt desc, t.id desc")
+    List<TransactionStatusResponse> findHistoryByBarId(@Param("barId") Long barId, Limit limit);
+
+    @Query("select new org.example.bespringboot.dto.TransactionStatusResponse("
+            + "t.id, t.user.id, t.bar.id, t.amount, t.pointsEarned, t.qrCodeHash, t.status, t.createdAt) "
+            + "from Transaction t where t.bar.id = :barId and (t.createdAt, t.id) < (:createdAt, :id) "
+            + "order by t.createdAt desc, t.id desc")
+    List<TransactionStatusResponse> findHistoryByBarIdBefore(@Param("barId") Long barId,
+                                                             @Param("createdAt") LocalDateTime createdAt,
+                                                             @Param("id") Long id,
+                                                             Limit limit);
+
+    /**
+     * Complete a PENDING transaction with one UPDATE (no load + merge)
+     * @return number of rows updated, 0 if the transaction is missing or no longer PENDING
+     */
+    @Transactional
+    @Modifying
+    @Query("update Transaction t set t.status = 'COMPLETED', t.qrCodeHash = :qrCodeHash, t.pointsEarned = :pointsEarned "
+            + "where t.id = :id and t.status = 'PENDING'")
+    int markCompleted(@Param("id") Long id, @Param("qrCodeHash") String qrCodeHash,
+                      @Param("pointsEarned") Long pointsEarned);
+
+    /**
+     * Fail a PENDING transaction and release its Idempotency-Key, so a retry with the key runs again
+     * @return number of rows updated, 0 if the transaction is missing or no longer PENDING
+     */
+    @Transactional
+    @Modifying
+    @Query("update Transaction t set t.status = 'FAILED', t.idempotencyKey = null "
+            + "where t.id = :id and t.status = 'PENDING'")
+    int markFailed(@Param("id") Long id);
+}
@@ -2,7 +2,11 @@ package org.example.bespringboot.repository;
 
 import org.example.bespringboot.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import java.util.Optional;
 
 /**
@@ -13,4 +17,37 @@ import java.util.Optional;
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByUsername(String username);
     Optional<User> findByEmail(String email);
+
+    @Query("select u.pointsBalance from User u where u.id = :id")
+    Optional<Long> findPointsBalanceById(@Param("id") Long id);
+
+    /**
+     * Replace the password hash only if it is still the one that was verified (rehash-on-login)
+     * @return 1 if updated, 0 if the password changed in the meantime
+     */
+    @Transactional
+    @Modifying
+    @Query("update User u set u.password = :newHash where u.id = :id and u.password = :oldHash")
+    int updatePasswordHash(@Param("id") Long id, @Param("oldHash") String oldHash, @Param("newHash") String newHash);
+
+    /**
+     * Atomically add delta to the user's balance in a single statement (no read-modify-write)
+     * @return the new balance, empty if the user does not exist
+     */
+    @Transactional
+    @Query(value = "UPDATE users SET points_balance = points_balance + :delta WHERE id = :id RETURNING points_balance",
+            nativeQuery = true)
+    Optional<Long> addPointsReturningBalance(@Param("id") Long id, @Param("delta") long delta);
+
+    /**
+     * Atomically subtract amount if, and only if, the balance covers it. Concurrent debits serialize on
+     * the row lock and each re-checks the condition against the committed balance, so the balance can
+     * never go negative.
+     * @return the new balance, empty if the balance is too low or the user does not exist
+     */
+    @Transactional
+    @Query(value = "UPDATE users SET points_balance = points_balance - :amount "
+            + "WHERE id = :id AND points_balance >= :amount RETURNING points_balance",
+            nativeQuery = true)
+    Optional<Long> subtractPointsReturningBalance(@Param("id") Long id, @Param("amount") long amount);
 }
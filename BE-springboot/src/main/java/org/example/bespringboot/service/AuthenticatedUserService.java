@@ -0,0 +1,75 @@
+package org.example.bespringboot.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.example.bespringboot.dto.AuthenticatedUser;
+import org.example.bespringboot.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+
+/**
+ * Authenticated User Service - Resolves the request principal from verified JWT claims
+ *
+ * Tokens carrying user id and role claims become an {@link AuthenticatedUser} directly, without
+ * touching the database. Older tokens that only have a subject are looked up once and the result is
+ * kept in a bounded, expiring cache (app.security.principal-cache.*); entries are evicted when the
+ * user row changes (see {@link UserChangeListener}). Cache metrics use cache="auth.principals".
+ */
+@Slf4j
+@Service
+public class AuthenticatedUserService {
+
+    private final UserRepository userRepository;
+    private final Cache<String, AuthenticatedUser> principals;
+
+    public AuthenticatedUserService(
+            UserRepository userRepository,
+            MeterRegistry meterRegistry,
+            @Value("${app.security.principal-cache.max-size:10000}") long maxSize,
+            @Value("${app.security.principal-cache.ttl-seconds:300}") long ttlSeconds) {
+        this.userRepository = userRepository;
+        this.principals = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, principals, "auth.principals");
+    }
+
+    /**
+     * @param claims verified claims from {@link JwtService#extractClaims(String)}
+     * @return the principal, null if the token has no subject or its user no longer exists
+     */
+    public AuthenticatedUser resolve(Claims claims) {
+        String subject = claims.getSubject();
+        if (subject == null) {
+            return null;
+        }
+
+        Number userId = claims.get(JwtService.CLAIM_USER_ID, Number.class);
+        String role = claims.get(JwtService.CLAIM_ROLE, String.class);
+        if (userId != null && role != null) {
+            return new AuthenticatedUser(userId.longValue(), subject, role);
+        }
+
+        // Tokens issued before the id/role claims existed: same lookup as the UserDetailsService
+        return principals.get(subject, username -> userRepository.findByEmail(username)
+                .map(AuthenticatedUser::from)
+                .orElse(null));
+    }
+
+    /**
+     * Drop cached principals of a user whose row changed
+     */
+    public void evict(Long userId) {
+        if (principals.asMap().values().removeIf(principal -> principal.getId().equals(userId))) {
+            log.debug("Evicted cached principal for user {}", userId);
+        }
+    }
+}
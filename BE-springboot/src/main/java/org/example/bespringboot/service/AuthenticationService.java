@@ -7,13 +7,13 @@ import org.example.bespringboot.dto.LoginRequest;
 import org.example.bespringboot.dto.RegisterRequest;
 import org.example.bespringboot.entity.User;
 import org.example.bespringboot.repository.UserRepository;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import java.util.Optional;
 
 /**
  * Authentication Service for handling user login and registration
+ * BCrypt work runs on the bounded hashing pool via {@link PasswordHashingService}.
  */
 @Slf4j
 @Service
@@ -21,7 +21,7 @@ import java.util.Optional;
 public class AuthenticationService {
 
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
     private final JwtService jwtService;
 
     /**
@@ -42,7 +42,7 @@ public class AuthenticationService {
         newUser.setFirstname(request.getFirstname());
         newUser.setLastname(request.getLastname());
         newUser.setEmail(request.getEmail());
-        newUser.setPassword(passwordEncoder.encode(request.getPassword())); // Encode password
+        newUser.setPassword(passwordHashingService.encode(request.getPassword())); // Encode password
         newUser.setRole("CLIENT"); // Set default role
         newUser.setPointsBalance(0L); // Initialize points balance
 
@@ -80,11 +80,16 @@ public class AuthenticationService {
         User user = userOptional.get();
 
         // Verify password
-        if (!passwordEncoder.matches(request.getPassword(), user.getPassword())) {
+        if (!passwordHashingService.matches(request.getPassword(), user.getPassword())) {
             log.warn("Login failed: Invalid password for user - {}", request.getUsername());
             throw new IllegalArgumentException("Invalid username or password");
         }
 
+        // Stored hash uses another BCrypt strength than configured: upgrade it without delaying the login
+        if (passwordHashingService.needsRehash(user.getPassword())) {
+            rehashPassword(user, request.getPassword());
+        }
+
         log.info("Login successful for user: {}", request.getUsername());
 
         // Generate JWT token
@@ -99,4 +104,18 @@ public class AuthenticationService {
                 .role(user.getRole())
                 .build();
     }
-}
\ No newline at end of file
+
+    private void rehashPassword(User user, String rawPassword) {
+        String oldHash = user.getPassword();
+        passwordHashingService.encodeAsync(rawPassword)
+                .thenAccept(newHash -> {
+                    if (userRepository.updatePasswordHash(user.getId(), oldHash, newHash) == 1) {
+                        log.info("Password hash upgraded for user: {}", user.getUsername());
+                    }
+                })
+                .exceptionally(e -> {
+                    log.warn("Password rehash skipped for user {}: {}", user.getUsername(), e.getMessage());
+                    return null;
+                });
+    }
+}
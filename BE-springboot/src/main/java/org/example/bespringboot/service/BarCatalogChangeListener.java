@@ -0,0 +1,31 @@
+package org.example.bespringboot.service;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.example.bespringboot.entity.Bar;
+import org.example.bespringboot.entity.Reward;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA listener on {@link Bar} and {@link Reward} that invalidates the bar catalog snapshot
+ * Hibernate obtains it from the Spring context; the snapshot is dropped after the change commits.
+ */
+@Component
+public class BarCatalogChangeListener {
+
+    private final BarCatalogService barCatalogService;
+
+    // Lazy: the catalog depends on BarRepository, which needs the EntityManagerFactory that owns this listener
+    public BarCatalogChangeListener(@Lazy BarCatalogService barCatalogService) {
+        this.barCatalogService = barCatalogService;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    void onCatalogChanged(Object entity) {
+        barCatalogService.invalidate();
+    }
+}
@@ -0,0 +1,203 @@
+package org.example.bespringboot.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.example.bespringboot.dto.BarResponse;
+import org.example.bespringboot.dto.BarRewardRow;
+import org.example.bespringboot.dto.RewardResponse;
+import org.example.bespringboot.repository.BarRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.DigestUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bar Catalog Service - Immutable, pre-serialized snapshot of all bars and their rewards
+ *
+ * The catalog is read with a single bars LEFT JOIN rewards projection query, mapped to DTOs and
+ * serialized once; GET /api/bars and GET /api/bars/{barId}/rewards hand out the cached JSON bytes with
+ * a strong ETag. Pages (offset or keyset on bar id) are sliced from the same snapshot. The snapshot is
+ * dropped after any committed change to a bar or reward (see {@link BarCatalogChangeListener}) and is
+ * rebuilt on the next read, or after app.catalog.max-age-seconds to pick up changes made outside JPA.
+ * Each snapshot records the invalidation generation it was read under, so a rebuild that read the
+ * catalog before a change committed is never served once that change has invalidated it.
+ */
+@Slf4j
+@Service
+public class BarCatalogService {
+
+    private final BarRepository barRepository;
+    private final ObjectMapper objectMapper;
+    private final long maxAgeNanos;
+    private final Counter rebuildCounter;
+    // A lock rather than synchronized: the rebuild queries the database, which would pin a virtual thread
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    private final AtomicLong generation = new AtomicLong();
+
+    private volatile Snapshot snapshot;
+
+    public BarCatalogService(
+            BarRepository barRepository,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${app.catalog.max-age-seconds:300}") long maxAgeSeconds) {
+        this.barRepository = barRepository;
+        this.objectMapper = objectMapper;
+        this.maxAgeNanos = TimeUnit.SECONDS.toNanos(maxAgeSeconds);
+        this.rebuildCounter = Counter.builder("bar.catalog.rebuilds")
+                .description("Times the bar catalog snapshot was rebuilt from the database")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @return all bars (with rewards) as JSON
+     */
+    public SerializedBody bars() {
+        return current().bars();
+    }
+
+    /**
+     * Offset page of bars ordered by id
+     */
+    public CatalogPage page(int page, int size) {
+        Snapshot current = current();
+        int from = (int) Math.min((long) page * size, current.barList().size());
+        return current.slice(from, size, "page-" + page + "-" + size);
+    }
+
+    /**
+     * Keyset page: up to size bars with id greater than afterId, ordered by id
+     */
+    public CatalogPage after(long afterId, int size) {
+        Snapshot current = current();
+        int index = Arrays.binarySearch(current.barIds(), afterId);
+        int from = index >= 0 ? index + 1 : -index - 1;
+        return current.slice(from, size, "after-" + afterId + "-" + size);
+    }
+
+    /**
+     * @return the bar's rewards as JSON, null if the bar does not exist
+     */
+    public SerializedBody rewards(Long barId) {
+        return current().rewardsByBar().get(barId);
+    }
+
+    /**
+     * Drop the snapshot once the current transaction commits (immediately if there is none)
+     */
+    public void invalidate() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    generation.incrementAndGet();
+                }
+            });
+        } else {
+            generation.incrementAndGet();
+        }
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (isFresh(current)) {
+            return current;
+        }
+        rebuildLock.lock();
+        try {
+            current = snapshot;
+            if (!isFresh(current)) {
+                // Read before the query: a change committing meanwhile makes this snapshot stale at once
+                current = build(generation.get());
+                snapshot = current;
+            }
+            return current;
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    private boolean isFresh(Snapshot current) {
+        return current != null && current.generation() == generation.get() && !current.isOlderThan(maxAgeNanos);
+    }
+
+    private Snapshot build(long builtAtGeneration) {
+        // Rows arrive ordered by bar id, then reward id
+        Map<Long, BarResponse> barsById = new LinkedHashMap<>();
+        for (BarRewardRow row : barRepository.findCatalogRows()) {
+            BarResponse bar = barsById.computeIfAbsent(row.getBarId(), id ->
+                    new BarResponse(id, row.getBarName(), row.getBarLocation(), new ArrayList<>()));
+            if (row.getRewardId() != null) {
+                bar.getRewards().add(new RewardResponse(row.getRewardId(), row.getRewardName(),
+                        row.getRewardPointsCost(), row.getRewardImageUrl()));
+            }
+        }
+
+        List<BarResponse> bars = List.copyOf(barsById.values());
+        long[] barIds = new long[bars.size()];
+        Map<Long, SerializedBody> rewardsByBar = new HashMap<>();
+        for (int i = 0; i < bars.size(); i++) {
+            BarResponse bar = bars.get(i);
+            barIds[i] = bar.getId();
+            rewardsByBar.put(bar.getId(), serialize(bar.getRewards()));
+        }
+
+        rebuildCounter.increment();
+        log.info("Bar catalog snapshot rebuilt with {} bars", bars.size());
+        return new Snapshot(serialize(bars), bars, barIds, Map.copyOf(rewardsByBar), builtAtGeneration,
+                System.nanoTime());
+    }
+
+    private SerializedBody serialize(Object value) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(value);
+            return new SerializedBody(json, "\"" + DigestUtils.md5DigestAsHex(json) + "\"");
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize bar catalog", e);
+        }
+    }
+
+    /**
+     * Serialized JSON response body and its strong ETag (quoted)
+     */
+    public record SerializedBody(byte[] json, String etag) {
+    }
+
+    /**
+     * One page of the catalog; the ETag is derived from the snapshot's ETag and the page bounds
+     */
+    public record CatalogPage(List<BarResponse> items, long totalElements, boolean hasNext, String etag) {
+
+        public Long lastId() {
+            return items.isEmpty() ? null : items.get(items.size() - 1).getId();
+        }
+    }
+
+    private record Snapshot(SerializedBody bars, List<BarResponse> barList, long[] barIds,
+                            Map<Long, SerializedBody> rewardsByBar, long generation, long builtAtNanos) {
+
+        boolean isOlderThan(long maxAgeNanos) {
+            return System.nanoTime() - builtAtNanos > maxAgeNanos;
+        }
+
+        CatalogPage slice(int from, int size, String qualifier) {
+            int to = Math.min(from + size, barList.size());
+            String etag = bars.etag().substring(0, bars.etag().length() - 1) + "-" + qualifier + "\"";
+            return new CatalogPage(barList.subList(from, to), barList.size(), to < barList.size(), etag);
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package org.example.bespringboot.service;
+
+/**
+ * Thrown when a request with an Idempotency-Key is still being processed; callers should answer 409
+ */
+public class IdempotencyConflictException extends RuntimeException {
+
+    public IdempotencyConflictException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,19 @@
+package org.example.bespringboot.service;
+
+import lombok.Getter;
+
+/**
+ * Thrown when a user's balance does not cover a redemption; callers should answer 409
+ */
+@Getter
+public class InsufficientPointsException extends RuntimeException {
+
+    private final long pointsBalance;
+    private final long pointsRequired;
+
+    public InsufficientPointsException(long pointsBalance, long pointsRequired) {
+        super("Balance of " + pointsBalance + " points does not cover " + pointsRequired);
+        this.pointsBalance = pointsBalance;
+        this.pointsRequired = pointsRequired;
+    }
+}
@@ -0,0 +1,46 @@
+package org.example.bespringboot.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.example.bespringboot.dto.QrResponse;
+import org.example.bespringboot.service.qr.QrCodeEncoder;
+import org.example.bespringboot.service.qr.QrCodeMatrix;
+import org.example.bespringboot.service.qr.QrPngEncoder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * In-process QR generator
+ * Produces the same payload as the Python service (random UUID hash, byte-mode QR, PNG as base64)
+ * without the network hop.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "qr.generator", havingValue = "java")
+public class JavaQrGenerator implements QrGenerator {
+
+    private final QrCodeEncoder.ErrorCorrection errorCorrection;
+    private final QrPngEncoder pngEncoder;
+
+    public JavaQrGenerator(
+            @Value("${qr.java.error-correction:L}") QrCodeEncoder.ErrorCorrection errorCorrection,
+            @Value("${qr.java.box-size:10}") int boxSize,
+            @Value("${qr.java.border:4}") int border,
+            @Value("${qr.java.buffer-pool-size:16}") int bufferPoolSize) {
+        this.errorCorrection = errorCorrection;
+        this.pngEncoder = new QrPngEncoder(boxSize, border, bufferPoolSize);
+    }
+
+    @Override
+    public QrResponse generate(Long userId, Long amount) {
+        String hash = UUID.randomUUID().toString();
+        QrCodeMatrix matrix = QrCodeEncoder.encode(hash.getBytes(StandardCharsets.US_ASCII), errorCorrection);
+        byte[] png = pngEncoder.encode(matrix);
+        log.debug("QR code generated in-process for user: {} (version {})", userId, matrix.getVersion());
+        return new QrResponse(Base64.getEncoder().encodeToString(png), hash);
+    }
+}
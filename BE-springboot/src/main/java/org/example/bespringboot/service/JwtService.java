@@ -1,76 +1,172 @@
 package org.example.bespringboot.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.example.bespringboot.entity.User;
 import org.springframework.beans.factory.annotation.Value; // Poti lasa importul, dar nu-l mai folosim la secret
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * JWT Service - Issues and validates HS256 tokens
+ *
+ * The signing key and parser are built once. A token is verified (signature + expiry) at most once:
+ * the verified claims are cached under the SHA-256 digest of the token until the token expires, capped
+ * by app.jwt.claims-cache.max-ttl-seconds, and the cache is bounded by app.jwt.claims-cache.max-size.
+ * Hit/miss counts are published as {@code cache.gets{cache="jwt.claims"}}.
+ *
+ * Tokens issued for a {@link User} also carry its id ({@value #CLAIM_USER_ID}) and role
+ * ({@value #CLAIM_ROLE}), so the request principal can be built without a database lookup.
+ */
+@Slf4j
 @Service
-@RequiredArgsConstructor
 public class JwtService {
 
+    public static final String CLAIM_USER_ID = "uid";
+    public static final String CLAIM_ROLE = "role";
+
     // ⛔ AM SCOS @Value CA SA NU MAI IA DIN PROPERTIES
     // ✅ AM PUS CHEIA DIRECT AICI (Hardcoded) - Asta e sigura 100% ca va fi folosita
     private final String jwtSecret = "404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970404E635266556A586E3272357538782F";
 
-    @Value("${app.jwt.expiration:86400000}")
-    private long jwtExpiration;
+    private final long jwtExpiration;
+    private final SecretKey signingKey;
+    private final JwtParser parser;
+    private final Cache<String, Claims> claimsCache;
+
+    public JwtService(
+            MeterRegistry meterRegistry,
+            @Value("${app.jwt.expiration:86400000}") long jwtExpiration,
+            @Value("${app.jwt.claims-cache.max-size:10000}") long claimsCacheMaxSize,
+            @Value("${app.jwt.claims-cache.max-ttl-seconds:300}") long claimsCacheMaxTtlSeconds) {
+        this.jwtExpiration = jwtExpiration;
+        this.signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
+        this.claimsCache = Caffeine.newBuilder()
+                .maximumSize(claimsCacheMaxSize)
+                .expireAfter(new ClaimsExpiry(TimeUnit.SECONDS.toNanos(claimsCacheMaxTtlSeconds)))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, claimsCache, "jwt.claims");
+    }
 
     public String generateToken(UserDetails userDetails) {
-        return generateToken(userDetails.getUsername());
+        Map<String, Object> claims = new HashMap<>();
+        if (userDetails instanceof User user) {
+            claims.put(CLAIM_USER_ID, user.getId());
+            claims.put(CLAIM_ROLE, user.getRole());
+        }
+        return generateToken(userDetails.getUsername(), claims);
     }
 
     public String generateToken(String username) {
+        return generateToken(username, Map.of());
+    }
+
+    private String generateToken(String username, Map<String, Object> claims) {
         return Jwts.builder()
+                .setClaims(claims)
                 .setSubject(username)
                 .setIssuedAt(new Date())
                 .setExpiration(new Date(System.currentTimeMillis() + jwtExpiration))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
-    public String extractUsername(String token) {
+    /**
+     * Verify a token and return its claims
+     * @return the verified claims, null if the token is malformed, tampered with or expired
+     */
+    public Claims extractClaims(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        String key = digest(token);
+        Claims claims = claimsCache.getIfPresent(key);
+        if (claims != null) {
+            return claims;
+        }
         try {
-            return Jwts.parserBuilder()
-                    .setSigningKey(getSigningKey())
-                    .build()
-                    .parseClaimsJws(token)
-                    .getBody()
-                    .getSubject();
-        } catch (Exception e) {
+            claims = parser.parseClaimsJws(token).getBody();
+        } catch (JwtException | IllegalArgumentException e) {
+            log.debug("Rejected JWT: {}", e.getMessage());
             return null;
         }
+        claimsCache.put(key, claims);
+        return claims;
+    }
+
+    public String extractUsername(String token) {
+        Claims claims = extractClaims(token);
+        return claims != null ? claims.getSubject() : null;
     }
 
     public boolean isTokenValid(String token, UserDetails userDetails) {
-        String username = extractUsername(token);
-        return username != null && username.equals(userDetails.getUsername()) && !isTokenExpired(token);
+        return isTokenValid(extractClaims(token), userDetails);
     }
 
-    private boolean isTokenExpired(String token) {
+    /**
+     * @param claims claims returned by {@link #extractClaims(String)}, already checked for signature and expiry
+     */
+    public boolean isTokenValid(Claims claims, UserDetails userDetails) {
+        return claims != null && claims.getSubject() != null
+                && claims.getSubject().equals(userDetails.getUsername());
+    }
+
+    private static String digest(String token) {
         try {
-            Date expiration = Jwts.parserBuilder()
-                    .setSigningKey(getSigningKey())
-                    .build()
-                    .parseClaimsJws(token)
-                    .getBody()
-                    .getExpiration();
-            return expiration.before(new Date());
-        } catch (Exception e) {
-            return true;
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(sha256.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
         }
     }
 
-    private SecretKey getSigningKey() {
-        // Folosim direct variabila string de sus
-        byte[] keyBytes = jwtSecret.getBytes(StandardCharsets.UTF_8);
-        return Keys.hmacShaKeyFor(keyBytes);
+    /**
+     * Keeps cached claims until the token's own expiry, never longer than maxTtlNanos
+     */
+    private record ClaimsExpiry(long maxTtlNanos) implements Expiry<String, Claims> {
+
+        @Override
+        public long expireAfterCreate(String key, Claims claims, long currentTime) {
+            Date expiration = claims.getExpiration();
+            if (expiration == null) {
+                return maxTtlNanos;
+            }
+            long untilExpiry = TimeUnit.MILLISECONDS.toNanos(expiration.getTime() - System.currentTimeMillis());
+            return Math.max(0, Math.min(untilExpiry, maxTtlNanos));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Claims claims, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, claims, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,176 @@
+package org.example.bespringboot.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * MicroBatcher - Coalesces concurrent single-item requests into batch calls
+ *
+ * Items are queued by {@link #submit(Object)}. A dispatcher thread takes the first waiting item,
+ * then keeps collecting until the batch holds maxBatchSize items or lingerMs has passed since that
+ * first item, and hands the batch to the handler on the dispatch executor. The handler must return
+ * one result per item, in order; each caller's future is completed with its own result.
+ *
+ * Metrics (tagged with name): {@code batcher.batch.size}, {@code batcher.queue.depth},
+ * {@code batcher.queue.capacity}, {@code batcher.linger}, {@code batcher.rejected}.
+ *
+ * @param <T> request item type
+ * @param <R> result type
+ */
+@Slf4j
+public class MicroBatcher<T, R> implements AutoCloseable {
+
+    private final String name;
+    private final int maxBatchSize;
+    private final long lingerNanos;
+    private final BlockingQueue<Pending<T, R>> queue;
+    private final Function<List<T>, List<R>> handler;
+    private final Executor dispatchExecutor;
+    private final Thread dispatcher;
+    private final DistributionSummary batchSizes;
+    private final Counter rejected;
+    private volatile boolean running = true;
+
+    public MicroBatcher(String name, int maxBatchSize, long lingerMs, int queueCapacity,
+                        Function<List<T>, List<R>> handler, Executor dispatchExecutor,
+                        MeterRegistry meterRegistry) {
+        if (maxBatchSize < 1 || lingerMs < 0 || queueCapacity < 1) {
+            throw new IllegalArgumentException("maxBatchSize and queueCapacity must be >= 1, lingerMs >= 0");
+        }
+        this.name = name;
+        this.maxBatchSize = maxBatchSize;
+        this.lingerNanos = TimeUnit.MILLISECONDS.toNanos(lingerMs);
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.handler = handler;
+        this.dispatchExecutor = dispatchExecutor;
+
+        this.batchSizes = DistributionSummary.builder("batcher.batch.size")
+                .description("Items per dispatched batch")
+                .tag("name", name)
+                .register(meterRegistry);
+        this.rejected = Counter.builder("batcher.rejected")
+                .description("Items rejected because the queue was full")
+                .tag("name", name)
+                .register(meterRegistry);
+        Gauge.builder("batcher.queue.depth", queue, BlockingQueue::size)
+                .description("Items waiting to be batched")
+                .tag("name", name)
+                .register(meterRegistry);
+        Gauge.builder("batcher.queue.capacity", () -> queueCapacity)
+                .tag("name", name)
+                .register(meterRegistry);
+        Gauge.builder("batcher.max.batch.size", () -> maxBatchSize)
+                .tag("name", name)
+                .register(meterRegistry);
+        Gauge.builder("batcher.linger", () -> lingerMs)
+                .baseUnit("milliseconds")
+                .tag("name", name)
+                .register(meterRegistry);
+
+        this.dispatcher = Thread.ofPlatform()
+                .name(name + "-batcher")
+                .daemon()
+                .start(this::dispatchLoop);
+    }
+
+    /**
+     * Queue an item for the next batch
+     * @return future completed with this item's result; failed immediately if the queue is full
+     */
+    public CompletableFuture<R> submit(T item) {
+        Pending<T, R> pending = new Pending<>(item, new CompletableFuture<>());
+        if (!running || !queue.offer(pending)) {
+            rejected.increment();
+            return CompletableFuture.failedFuture(
+                    new RejectedExecutionException("Batch queue '" + name + "' is full"));
+        }
+        return pending.future();
+    }
+
+    private void dispatchLoop() {
+        List<Pending<T, R>> batch = new ArrayList<>(maxBatchSize);
+        while (running) {
+            try {
+                Pending<T, R> first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + lingerNanos;
+                while (batch.size() < maxBatchSize) {
+                    queue.drainTo(batch, maxBatchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= maxBatchSize || remaining <= 0) {
+                        break;
+                    }
+                    Pending<T, R> next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                dispatch(List.copyOf(batch));
+                batch.clear();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        batch.forEach(p -> p.future().completeExceptionally(new RejectedExecutionException("Batcher closed")));
+    }
+
+    private void dispatch(List<Pending<T, R>> batch) {
+        batchSizes.record(batch.size());
+        try {
+            dispatchExecutor.execute(() -> runBatch(batch));
+        } catch (RejectedExecutionException e) {
+            batch.forEach(p -> p.future().completeExceptionally(e));
+        }
+    }
+
+    private void runBatch(List<Pending<T, R>> batch) {
+        try {
+            List<T> items = new ArrayList<>(batch.size());
+            for (Pending<T, R> pending : batch) {
+                items.add(pending.item());
+            }
+            List<R> results = handler.apply(items);
+            if (results == null || results.size() != batch.size()) {
+                throw new IllegalStateException("Batch handler returned "
+                        + (results == null ? "null" : results.size() + " results") + " for " + batch.size() + " items");
+            }
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).future().complete(results.get(i));
+            }
+        } catch (Exception e) {
+            log.warn("Batch of {} items failed for '{}': {}", batch.size(), name, e.getMessage());
+            batch.forEach(p -> p.future().completeExceptionally(e));
+        }
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        dispatcher.interrupt();
+        Pending<T, R> pending;
+        while ((pending = queue.poll()) != null) {
+            pending.future().completeExceptionally(new RejectedExecutionException("Batcher closed"));
+        }
+    }
+
+    private record Pending<T, R>(T item, CompletableFuture<R> future) {
+    }
+}
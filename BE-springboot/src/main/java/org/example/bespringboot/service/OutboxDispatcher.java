@@ -0,0 +1,201 @@
+package org.example.bespringboot.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.example.bespringboot.entity.OutboxEvent;
+import org.example.bespringboot.repository.OutboxEventRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Outbox Dispatcher - Delivers outbox events to their {@link OutboxHandler}s in the background
+ *
+ * A single dispatcher thread claims up to batch-size due events with FOR UPDATE SKIP LOCKED, hands
+ * each to the handler for its type and, in the same transaction, deletes the delivered ones. A failed
+ * event is retried after an exponential backoff (1 s doubling up to 5 min); after max-attempts it stays
+ * in the table with its last error and is no longer claimed. Other nodes' dispatchers skip the locked
+ * rows, so every node can run one. The thread drains full batches back to back, otherwise sleeps for
+ * poll-interval-ms or until {@link OutboxService} wakes it after a commit.
+ *
+ * Metrics: {@code outbox.events} (tags type, outcome=delivered|failed|dead), {@code outbox.lag}
+ * (creation to delivery), {@code outbox.batch.size}, and {@code outbox.backlog} /
+ * {@code outbox.oldest.age} (refreshed every few seconds).
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "app.outbox.dispatcher.enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxDispatcher implements AutoCloseable {
+
+    private static final long MAX_BACKOFF_SECONDS = 300;
+    private static final long BACKLOG_REFRESH_NANOS = TimeUnit.SECONDS.toNanos(5);
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Map<String, OutboxHandler> handlers;
+    private final MeterRegistry meterRegistry;
+    private final int batchSize;
+    private final long pollIntervalNanos;
+    private final int maxAttempts;
+    private final Timer lagTimer;
+    private final DistributionSummary batchSizes;
+    private final Thread dispatcher;
+    private volatile long backlog;
+    private volatile double oldestAgeSeconds;
+    private long backlogRefreshedAt;
+    private volatile boolean running = true;
+
+    public OutboxDispatcher(
+            OutboxEventRepository outboxEventRepository,
+            TransactionTemplate transactionTemplate,
+            List<OutboxHandler> handlers,
+            MeterRegistry meterRegistry,
+            @Value("${app.outbox.batch-size:100}") int batchSize,
+            @Value("${app.outbox.poll-interval-ms:500}") long pollIntervalMs,
+            @Value("${app.outbox.max-attempts:10}") int maxAttempts) {
+        if (batchSize < 1 || pollIntervalMs < 1 || maxAttempts < 1) {
+            throw new IllegalArgumentException("batch-size, poll-interval-ms and max-attempts must be >= 1");
+        }
+        this.outboxEventRepository = outboxEventRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.handlers = handlers.stream().collect(Collectors.toMap(OutboxHandler::eventType, Function.identity()));
+        this.meterRegistry = meterRegistry;
+        this.batchSize = batchSize;
+        this.pollIntervalNanos = TimeUnit.MILLISECONDS.toNanos(pollIntervalMs);
+        this.maxAttempts = maxAttempts;
+
+        this.lagTimer = Timer.builder("outbox.lag")
+                .description("Time from writing an outbox event to delivering it")
+                .register(meterRegistry);
+        this.batchSizes = DistributionSummary.builder("outbox.batch.size")
+                .description("Events claimed per dispatcher batch")
+                .register(meterRegistry);
+        Gauge.builder("outbox.backlog", () -> backlog)
+                .description("Events waiting for delivery")
+                .register(meterRegistry);
+        Gauge.builder("outbox.oldest.age", () -> oldestAgeSeconds)
+                .description("Age of the oldest event waiting for delivery")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+
+        this.dispatcher = Thread.ofPlatform()
+                .name("outbox-dispatcher")
+                .daemon()
+                .start(this::dispatchLoop);
+    }
+
+    /**
+     * Make the dispatcher poll now instead of at the end of its interval
+     */
+    public void wakeUp() {
+        LockSupport.unpark(dispatcher);
+    }
+
+    private void dispatchLoop() {
+        while (running) {
+            int claimed = 0;
+            try {
+                claimed = dispatchBatch();
+                refreshBacklog();
+            } catch (Exception e) {
+                log.warn("Outbox dispatch failed: {}", e.getMessage());
+            }
+            if (claimed < batchSize && running) {
+                LockSupport.parkNanos(this, pollIntervalNanos);
+            }
+        }
+    }
+
+    /**
+     * Claim, deliver and settle one batch
+     * @return the number of events claimed
+     */
+    int dispatchBatch() {
+        Integer claimed = transactionTemplate.execute(status -> {
+            List<OutboxEvent> events = outboxEventRepository.claimDue(maxAttempts, batchSize);
+            if (events.isEmpty()) {
+                return 0;
+            }
+            batchSizes.record(events.size());
+
+            List<Long> delivered = new ArrayList<>(events.size());
+            for (OutboxEvent event : events) {
+                try {
+                    OutboxHandler handler = handlers.get(event.getEventType());
+                    if (handler == null) {
+                        throw new IllegalStateException("No outbox handler for " + event.getEventType());
+                    }
+                    handler.handle(event);
+                    delivered.add(event.getId());
+                    count(event, "delivered");
+                    lagTimer.record(Duration.between(event.getCreatedAt(), LocalDateTime.now()));
+                } catch (Exception e) {
+                    fail(event, e);
+                }
+            }
+            if (!delivered.isEmpty()) {
+                outboxEventRepository.deleteAllByIdInBatch(delivered);
+            }
+            return events.size();
+        });
+        return claimed != null ? claimed : 0;
+    }
+
+    private void fail(OutboxEvent event, Exception e) {
+        int attempts = event.getAttempts() + 1;
+        long delaySeconds = Math.min(1L << Math.min(attempts - 1, 30), MAX_BACKOFF_SECONDS);
+        String error = String.valueOf(e.getMessage());
+        outboxEventRepository.markFailed(event.getId(), error.substring(0, Math.min(error.length(), 500)), delaySeconds);
+
+        if (attempts >= maxAttempts) {
+            count(event, "dead");
+            log.error("Outbox event {} ({}) gave up after {} attempts: {}",
+                    event.getId(), event.getEventType(), attempts, error);
+        } else {
+            count(event, "failed");
+            log.warn("Outbox event {} ({}) failed, attempt {} of {}, retrying in {} s: {}",
+                    event.getId(), event.getEventType(), attempts, maxAttempts, delaySeconds, error);
+        }
+    }
+
+    private void count(OutboxEvent event, String outcome) {
+        Counter.builder("outbox.events")
+                .description("Outbox events handled by the dispatcher")
+                .tag("type", event.getEventType())
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private void refreshBacklog() {
+        long now = System.nanoTime();
+        if (backlogRefreshedAt != 0 && now - backlogRefreshedAt < BACKLOG_REFRESH_NANOS) {
+            return;
+        }
+        backlogRefreshedAt = now;
+        backlog = outboxEventRepository.countByAttemptsLessThan(maxAttempts);
+        LocalDateTime oldest = outboxEventRepository.findOldestCreatedAt(maxAttempts);
+        oldestAgeSeconds = oldest == null ? 0 : Duration.between(oldest, LocalDateTime.now()).toMillis() / 1000.0;
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        wakeUp();
+    }
+}
@@ -0,0 +1,19 @@
+package org.example.bespringboot.service;
+
+import org.example.bespringboot.entity.OutboxEvent;
+
+/**
+ * Outbox Handler - Delivers one type of outbox event
+ * Every OutboxHandler bean is picked up by {@link OutboxDispatcher}. Delivery is at least once: an event
+ * is handed out again if the dispatcher dies before deleting it, so handlers must tolerate duplicates.
+ * Throwing marks the event as failed and schedules a retry.
+ */
+public interface OutboxHandler {
+
+    /**
+     * @return the event type this handler delivers
+     */
+    String eventType();
+
+    void handle(OutboxEvent event) throws Exception;
+}
@@ -0,0 +1,61 @@
+package org.example.bespringboot.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.example.bespringboot.entity.OutboxEvent;
+import org.example.bespringboot.repository.OutboxEventRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Optional;
+
+/**
+ * Outbox Service - Records side effects in the transaction of the change that causes them
+ * The event is only visible to the dispatcher once that transaction commits and disappears with it on
+ * rollback, so a side effect never runs for a change that did not happen and is never lost for one that
+ * did. The local dispatcher is woken after commit, so delivery does not wait for its next poll.
+ */
+@Slf4j
+@Service
+public class OutboxService {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+    private final Optional<OutboxDispatcher> dispatcher;
+
+    public OutboxService(OutboxEventRepository outboxEventRepository, ObjectMapper objectMapper,
+                         Optional<OutboxDispatcher> dispatcher) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.objectMapper = objectMapper;
+        this.dispatcher = dispatcher;
+    }
+
+    /**
+     * Append an event; payload is stored as JSON
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public OutboxEvent append(String eventType, Long aggregateId, Object payload) {
+        OutboxEvent event = new OutboxEvent();
+        event.setEventType(eventType);
+        event.setAggregateId(aggregateId);
+        try {
+            event.setPayload(objectMapper.writeValueAsString(payload));
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Outbox payload for " + eventType + " is not serializable", e);
+        }
+        outboxEventRepository.save(event);
+
+        dispatcher.ifPresent(d -> TransactionSynchronizationManager.registerSynchronization(
+                new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        d.wakeUp();
+                    }
+                }));
+        return event;
+    }
+}
@@ -0,0 +1,11 @@
+package org.example.bespringboot.service;
+
+/**
+ * Thrown when the password hashing pool cannot take more work; callers should answer 503
+ */
+public class PasswordHashingBusyException extends RuntimeException {
+
+    public PasswordHashingBusyException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,139 @@
+package org.example.bespringboot.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Password Hashing Service - Runs BCrypt on the bounded passwordHashExecutor
+ *
+ * Request threads hand the hash over and wait at most wait-timeout-ms for it. A full pool/queue or an
+ * expired wait raises {@link PasswordHashingBusyException} (503) instead of tying up the request pool.
+ *
+ * Metrics: {@code password.hash} (tag operation=encode|matches), {@code password.hash.queue.wait},
+ * {@code password.hash.rejected}, and the executor gauges tagged name=passwordHash.
+ */
+@Slf4j
+@Service
+public class PasswordHashingService {
+
+    private static final Pattern BCRYPT_COST = Pattern.compile("^\\$2[aby]?\\$(\\d{2})\\$");
+
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor passwordHashExecutor;
+    private final int bcryptStrength;
+    private final long waitTimeoutMs;
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+    private final Timer queueWaitTimer;
+    private final Counter rejectedCounter;
+
+    public PasswordHashingService(
+            PasswordEncoder passwordEncoder,
+            ThreadPoolExecutor passwordHashExecutor,
+            MeterRegistry meterRegistry,
+            @Value("${app.security.password-hashing.bcrypt-strength:10}") int bcryptStrength,
+            @Value("${app.security.password-hashing.wait-timeout-ms:2000}") long waitTimeoutMs) {
+        this.passwordEncoder = passwordEncoder;
+        this.passwordHashExecutor = passwordHashExecutor;
+        this.bcryptStrength = bcryptStrength;
+        this.waitTimeoutMs = waitTimeoutMs;
+
+        this.encodeTimer = Timer.builder("password.hash")
+                .description("Time spent computing BCrypt hashes")
+                .tag("operation", "encode")
+                .register(meterRegistry);
+        this.matchesTimer = Timer.builder("password.hash")
+                .description("Time spent computing BCrypt hashes")
+                .tag("operation", "matches")
+                .register(meterRegistry);
+        this.queueWaitTimer = Timer.builder("password.hash.queue.wait")
+                .description("Time hashing work waited for a pool thread")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder("password.hash.rejected")
+                .description("Hashing requests rejected because the pool was saturated or too slow")
+                .register(meterRegistry);
+        new ExecutorServiceMetrics(passwordHashExecutor, "passwordHash", Tags.empty()).bindTo(meterRegistry);
+    }
+
+    public String encode(CharSequence rawPassword) {
+        return await(submit(() -> passwordEncoder.encode(rawPassword), encodeTimer));
+    }
+
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return await(submit(() -> passwordEncoder.matches(rawPassword, encodedPassword), matchesTimer));
+    }
+
+    /**
+     * Hash in the background, e.g. to upgrade a stored hash after a successful login
+     * @return future with the new hash; failed with {@link PasswordHashingBusyException} if the pool is full
+     */
+    public CompletableFuture<String> encodeAsync(CharSequence rawPassword) {
+        try {
+            long queuedAt = System.nanoTime();
+            return CompletableFuture.supplyAsync(
+                    () -> timed(() -> passwordEncoder.encode(rawPassword), encodeTimer, queuedAt),
+                    passwordHashExecutor);
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            return CompletableFuture.failedFuture(new PasswordHashingBusyException("Password hashing pool is saturated", e));
+        }
+    }
+
+    /**
+     * @return true if the stored hash was made with a different BCrypt strength than the configured one
+     */
+    public boolean needsRehash(String encodedPassword) {
+        Matcher matcher = BCRYPT_COST.matcher(encodedPassword);
+        return !matcher.find() || Integer.parseInt(matcher.group(1)) != bcryptStrength;
+    }
+
+    private <T> Future<T> submit(Supplier<T> work, Timer timer) {
+        long queuedAt = System.nanoTime();
+        try {
+            return passwordHashExecutor.submit(() -> timed(work, timer, queuedAt));
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            throw new PasswordHashingBusyException("Password hashing pool is saturated", e);
+        }
+    }
+
+    private <T> T timed(Supplier<T> work, Timer timer, long queuedAt) {
+        queueWaitTimer.record(System.nanoTime() - queuedAt, TimeUnit.NANOSECONDS);
+        return timer.record(work);
+    }
+
+    private <T> T await(Future<T> future) {
+        try {
+            return future.get(waitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // A cancelled task still in the queue is skipped when a thread reaches it
+            future.cancel(false);
+            rejectedCounter.increment();
+            throw new PasswordHashingBusyException("Timed out waiting for password hashing", e);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException runtime ? runtime : new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(false);
+            throw new PasswordHashingBusyException("Interrupted while waiting for password hashing", e);
+        }
+    }
+}
@@ -0,0 +1,273 @@
+package org.example.bespringboot.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Points Cluster Fan-out - Relays points messages between backend nodes through Postgres LISTEN/NOTIFY
+ *
+ * The simple STOMP broker only reaches sessions connected to this node. Every message delivered
+ * locally by {@link PointsNotificationService} is also queued here; a {@link MicroBatcher} collects
+ * the queue for up to batch.linger-ms and publishes it with one pg_notify round trip, splitting it
+ * into as many NOTIFY payloads as the 8000-byte limit requires. A message that does not fit on its
+ * own is dropped.
+ *
+ * Each node LISTENs on a dedicated connection outside the Hikari pool and hands messages published
+ * by other nodes to its local broker; its own payloads are recognised by node id and skipped.
+ * The listener reconnects with exponential backoff; messages published while it is disconnected
+ * are not replayed, so clients still read the balance over REST when they (re)connect.
+ *
+ * Metrics: {@code points.cluster.published} (NOTIFY payloads), {@code points.cluster.received},
+ * {@code points.cluster.delivered} (messages handed to the local broker),
+ * {@code points.cluster.dropped} (tag reason=oversize|unreadable), {@code points.cluster.listener.connected}
+ * and the batcher metrics tagged name=pointsCluster.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "app.websocket.cluster.enabled", havingValue = "true")
+public class PointsClusterFanout implements AutoCloseable {
+
+    // Postgres rejects NOTIFY payloads of 8000 bytes or more
+    static final int MAX_PAYLOAD_BYTES = 7900;
+    private static final Pattern CHANNEL_NAME = Pattern.compile("[a-z_][a-z0-9_]*");
+    private static final long LISTEN_POLL_MS = 1000;
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final JdbcTemplate jdbcTemplate;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final ObjectMapper objectMapper;
+    private final String channel;
+    private final String url;
+    private final String username;
+    private final String password;
+    private final long maxBackoffMs;
+    private final MicroBatcher<Map<String, Object>, Boolean> publisher;
+    private final Thread listener;
+    private final Counter publishedCounter;
+    private final Counter receivedCounter;
+    private final Counter deliveredCounter;
+    private final Counter oversizeCounter;
+    private final Counter unreadableCounter;
+    private volatile boolean connected;
+    private volatile boolean running = true;
+
+    public PointsClusterFanout(
+            JdbcTemplate jdbcTemplate,
+            SimpMessagingTemplate messagingTemplate,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${app.websocket.cluster.channel:points_updates}") String channel,
+            @Value("${app.websocket.cluster.batch.max-size:64}") int batchMaxSize,
+            @Value("${app.websocket.cluster.batch.linger-ms:20}") long batchLingerMs,
+            @Value("${app.websocket.cluster.batch.queue-capacity:10000}") int batchQueueCapacity,
+            @Value("${app.websocket.cluster.reconnect-max-backoff-ms:30000}") long maxBackoffMs,
+            @Value("${spring.datasource.url}") String url,
+            @Value("${spring.datasource.username}") String username,
+            @Value("${spring.datasource.password}") String password) {
+        if (!CHANNEL_NAME.matcher(channel).matches()) {
+            throw new IllegalArgumentException("Invalid NOTIFY channel name: " + channel);
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.messagingTemplate = messagingTemplate;
+        this.objectMapper = objectMapper;
+        this.channel = channel;
+        this.url = url;
+        this.username = username;
+        this.password = password;
+        this.maxBackoffMs = maxBackoffMs;
+
+        this.publishedCounter = Counter.builder("points.cluster.published")
+                .description("NOTIFY payloads published to other nodes")
+                .register(meterRegistry);
+        this.receivedCounter = Counter.builder("points.cluster.received")
+                .description("NOTIFY payloads received from other nodes")
+                .register(meterRegistry);
+        this.deliveredCounter = Counter.builder("points.cluster.delivered")
+                .description("Messages from other nodes handed to the local broker")
+                .register(meterRegistry);
+        this.oversizeCounter = Counter.builder("points.cluster.dropped")
+                .description("Messages not relayed to other nodes")
+                .tag("reason", "oversize")
+                .register(meterRegistry);
+        this.unreadableCounter = Counter.builder("points.cluster.dropped")
+                .description("Messages not relayed to other nodes")
+                .tag("reason", "unreadable")
+                .register(meterRegistry);
+        Gauge.builder("points.cluster.listener.connected", () -> connected ? 1 : 0)
+                .description("1 while the LISTEN connection is open")
+                .register(meterRegistry);
+
+        this.publisher = new MicroBatcher<>("pointsCluster", batchMaxSize, batchLingerMs, batchQueueCapacity,
+                this::publishBatch, Runnable::run, meterRegistry);
+        this.listener = Thread.ofPlatform()
+                .name("points-cluster-listener")
+                .daemon()
+                .start(this::listenLoop);
+    }
+
+    /**
+     * Queue a message (already delivered on this node) for the other nodes
+     */
+    public void publish(Map<String, Object> message) {
+        publisher.submit(message);
+    }
+
+    private List<Boolean> publishBatch(List<Map<String, Object>> messages) {
+        List<String> payloads = new ArrayList<>();
+        List<String> chunk = new ArrayList<>();
+        int chunkBytes = 0;
+        for (Map<String, Object> message : messages) {
+            String json = toRelayJson(message);
+            if (json == null) {
+                continue;
+            }
+            int bytes = json.getBytes(StandardCharsets.UTF_8).length + 1;
+            if (!chunk.isEmpty() && chunkBytes + bytes > MAX_PAYLOAD_BYTES) {
+                payloads.add(envelope(chunk));
+                chunk.clear();
+                chunkBytes = 0;
+            }
+            chunk.add(json);
+            chunkBytes += bytes;
+        }
+        if (!chunk.isEmpty()) {
+            payloads.add(envelope(chunk));
+        }
+
+        if (!payloads.isEmpty()) {
+            jdbcTemplate.queryForList("SELECT pg_notify(?, payload) FROM unnest(?::text[]) AS payload",
+                    channel, payloads.toArray(String[]::new));
+            publishedCounter.increment(payloads.size());
+        }
+        return Collections.nCopies(messages.size(), Boolean.TRUE);
+    }
+
+    // JSON for one message, small enough to fit a payload with the envelope; null if it cannot be made to fit
+    private String toRelayJson(Map<String, Object> message) {
+        try {
+            String json = objectMapper.writeValueAsString(message);
+            return fits(json) ? json : oversize(message);
+        } catch (JsonProcessingException e) {
+            unreadableCounter.increment();
+            log.warn("Could not serialize points message for user {}", message.get("userId"), e);
+            return null;
+        }
+    }
+
+    private boolean fits(String json) {
+        return json.getBytes(StandardCharsets.UTF_8).length + nodeId.length() + 32 <= MAX_PAYLOAD_BYTES;
+    }
+
+    private String oversize(Map<String, Object> message) {
+        oversizeCounter.increment();
+        log.warn("Points message for user {} is too large to relay to other nodes", message.get("userId"));
+        return null;
+    }
+
+    private String envelope(List<String> messagesJson) {
+        return "{\"node\":\"" + nodeId + "\",\"messages\":[" + String.join(",", messagesJson) + "]}";
+    }
+
+    private void listenLoop() {
+        long backoffMs = 500;
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(url, username, password)) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + channel);
+                }
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                connected = true;
+                backoffMs = 500;
+                log.info("Listening for points updates from other nodes on channel {}", channel);
+
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications((int) LISTEN_POLL_MS);
+                    if (notifications == null) {
+                        // getNotifications does not notice a dead socket on its own
+                        if (!connection.isValid(5)) {
+                            throw new SQLException("LISTEN connection is no longer valid");
+                        }
+                        continue;
+                    }
+                    for (PGNotification notification : notifications) {
+                        deliver(notification.getParameter());
+                    }
+                }
+            } catch (SQLException e) {
+                connected = false;
+                if (!running) {
+                    break;
+                }
+                log.warn("Points cluster listener disconnected, retrying in {} ms: {}", backoffMs, e.getMessage());
+                try {
+                    TimeUnit.MILLISECONDS.sleep(backoffMs);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+                backoffMs = Math.min(backoffMs * 2, maxBackoffMs);
+            }
+        }
+        connected = false;
+    }
+
+    void deliver(String payload) {
+        Envelope envelope;
+        try {
+            envelope = objectMapper.readValue(payload, new TypeReference<>() {
+            });
+        } catch (JsonProcessingException e) {
+            unreadableCounter.increment();
+            log.warn("Ignoring unreadable points payload: {}", e.getMessage());
+            return;
+        }
+        if (nodeId.equals(envelope.node()) || envelope.messages() == null) {
+            return;
+        }
+        receivedCounter.increment();
+        for (Map<String, Object> message : envelope.messages()) {
+            Object userId = message.get("userId");
+            if (userId == null) {
+                unreadableCounter.increment();
+                continue;
+            }
+            messagingTemplate.convertAndSend(PointsNotificationService.destination(userId), (Object) message);
+            deliveredCounter.increment();
+        }
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        publisher.close();
+        listener.interrupt();
+    }
+
+    private record Envelope(String node, List<Map<String, Object>> messages) {
+    }
+}
@@ -0,0 +1,79 @@
+package org.example.bespringboot.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.example.bespringboot.entity.PointsEntry;
+import org.example.bespringboot.repository.PointsEntryRepository;
+import org.example.bespringboot.repository.UserRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+/**
+ * Points Ledger Service
+ * Every balance change is an atomic UPDATE of users.points_balance plus an append-only
+ * points_entries row written in the same database transaction, so concurrent credits for the
+ * same user serialize on the row lock instead of overwriting each other. Debits are conditional
+ * on the balance covering them, so no interleaving of concurrent debits can overdraw an account.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PointsLedgerService {
+
+    public static final String REASON_PURCHASE = "PURCHASE";
+    public static final String REASON_REDEMPTION = "REDEMPTION";
+
+    private final UserRepository userRepository;
+    private final PointsEntryRepository pointsEntryRepository;
+
+    /**
+     * Credit points to a user
+     * @param userId user to credit
+     * @param delta points to add
+     * @param transactionId purchase that earned the points, may be null
+     * @param reason ledger reason code
+     * @return the user's balance after the credit
+     * @throws IllegalArgumentException if the user does not exist
+     */
+    @Transactional
+    public long credit(Long userId, long delta, Long transactionId, String reason) {
+        long balance = userRepository.addPointsReturningBalance(userId, delta)
+                .orElseThrow(() -> new IllegalArgumentException("User not found with id: " + userId));
+
+        appendEntry(userId, delta, balance, reason, transactionId, null);
+        log.debug("Credited {} points to user {} ({}), balance {}", delta, userId, reason, balance);
+        return balance;
+    }
+
+    /**
+     * Debit points only if the balance covers them
+     * Must run inside the caller's transaction: the caller appends the ledger entry with
+     * {@link #appendEntry} once it has recorded what the points paid for.
+     * @param userId user to debit
+     * @param amount points to subtract
+     * @return the user's balance after the debit, empty if the balance is too low (nothing changed)
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Optional<Long> debitIfCovered(Long userId, long amount) {
+        return userRepository.subtractPointsReturningBalance(userId, amount);
+    }
+
+    /**
+     * Append the ledger entry for a balance change applied in the current transaction
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void appendEntry(Long userId, long delta, long balanceAfter, String reason,
+                            Long transactionId, Long redemptionId) {
+        PointsEntry entry = new PointsEntry();
+        entry.setUser(userRepository.getReferenceById(userId));
+        entry.setTransactionId(transactionId);
+        entry.setRedemptionId(redemptionId);
+        entry.setDelta(delta);
+        entry.setBalanceAfter(balanceAfter);
+        entry.setReason(reason);
+        pointsEntryRepository.save(entry);
+    }
+}
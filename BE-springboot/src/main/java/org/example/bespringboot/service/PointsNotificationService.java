@@ -0,0 +1,188 @@
+package org.example.bespringboot.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Points Notification Service - Pushes balance changes to /topic/points/{userId}
+ * Every message carries userId, pointsBalance and timestamp, plus details of what changed the balance
+ * (a transaction or a redemption). Delivery is best effort: a failed send is logged, never thrown.
+ *
+ * Updates are coalesced per user: the first update opens a window of coalesce-window-ms and the message
+ * sent when it closes carries the latest balance and details at the top level, plus an {@code events}
+ * list with the details, balance and timestamp of every update in the window, oldest first. A burst of
+ * credits therefore reaches the broker as one message, and the client still learns the outcome of each
+ * transaction. Sends run on a single notifier thread, never on the request thread. At most
+ * max-pending-users users can have a pending message; an update for a further user is sent at once on
+ * the caller's thread instead of being coalesced.
+ * A window of 0 sends every update immediately on the caller's thread.
+ * When cluster fan-out is enabled, every sent message is also relayed to the other nodes through
+ * {@link PointsClusterFanout}.
+ *
+ * Metrics: {@code points.notifications.queued}, {@code points.notifications.coalesced},
+ * {@code points.notifications.sent}, {@code points.notifications.uncoalesced} (backlog full),
+ * {@code points.notifications.dropped} (tag reason=send_failed),
+ * {@code points.notifications.pending} and {@code points.notifications.send} (time to hand a message to the broker).
+ */
+@Slf4j
+@Service
+public class PointsNotificationService implements AutoCloseable {
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final Optional<PointsClusterFanout> clusterFanout;
+    private final long coalesceWindowMs;
+    private final int maxPendingUsers;
+    private final Map<Long, Map<String, Object>> pending = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService notifier;
+    private final Counter queuedCounter;
+    private final Counter coalescedCounter;
+    private final Counter sentCounter;
+    private final Counter uncoalescedCounter;
+    private final Counter failedCounter;
+    private final Timer sendTimer;
+
+    public PointsNotificationService(
+            SimpMessagingTemplate messagingTemplate,
+            Optional<PointsClusterFanout> clusterFanout,
+            MeterRegistry meterRegistry,
+            @Value("${app.websocket.points.coalesce-window-ms:250}") long coalesceWindowMs,
+            @Value("${app.websocket.points.max-pending-users:10000}") int maxPendingUsers) {
+        if (coalesceWindowMs < 0 || maxPendingUsers < 1) {
+            throw new IllegalArgumentException("coalesce-window-ms must be >= 0 and max-pending-users >= 1");
+        }
+        this.messagingTemplate = messagingTemplate;
+        this.clusterFanout = clusterFanout;
+        this.coalesceWindowMs = coalesceWindowMs;
+        this.maxPendingUsers = maxPendingUsers;
+        this.notifier = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("points-notifier").daemon().factory());
+
+        this.queuedCounter = Counter.builder("points.notifications.queued")
+                .description("Balance updates handed to the notifier")
+                .register(meterRegistry);
+        this.coalescedCounter = Counter.builder("points.notifications.coalesced")
+                .description("Balance updates merged into a message that was already pending")
+                .register(meterRegistry);
+        this.sentCounter = Counter.builder("points.notifications.sent")
+                .description("Balance messages published to the broker")
+                .register(meterRegistry);
+        this.uncoalescedCounter = Counter.builder("points.notifications.uncoalesced")
+                .description("Balance updates sent at once because the coalescing backlog was full")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("points.notifications.dropped")
+                .description("Balance updates that were never published")
+                .tag("reason", "send_failed")
+                .register(meterRegistry);
+        this.sendTimer = Timer.builder("points.notifications.send")
+                .description("Time to publish a balance message to the broker")
+                .register(meterRegistry);
+        Gauge.builder("points.notifications.pending", pending, Map::size)
+                .description("Users with a balance message waiting for its coalescing window")
+                .register(meterRegistry);
+    }
+
+    public void notifyPointsUpdate(Long userId, Long pointsBalance, Map<String, Object> details) {
+        Map<String, Object> event = new HashMap<>(details);
+        event.put("pointsBalance", pointsBalance);
+        event.put("timestamp", System.currentTimeMillis());
+        queuedCounter.increment();
+
+        if (coalesceWindowMs == 0) {
+            send(userId, message(userId, event, new ArrayList<>(List.of(event))));
+            return;
+        }
+        if (pending.size() >= maxPendingUsers && !pending.containsKey(userId)) {
+            uncoalescedCounter.increment();
+            log.warn("Notification backlog full ({} users), sending balance update for user {} at once",
+                    maxPendingUsers, userId);
+            send(userId, message(userId, event, new ArrayList<>(List.of(event))));
+            return;
+        }
+
+        // Whoever finds no pending message opens the window; the flush sends whatever has accumulated by then
+        boolean[] opened = new boolean[1];
+        pending.compute(userId, (id, current) -> {
+            List<Map<String, Object>> events = new ArrayList<>();
+            if (current == null) {
+                opened[0] = true;
+            } else {
+                events.addAll(events(current));
+            }
+            events.add(event);
+            return message(userId, event, events);
+        });
+        if (!opened[0]) {
+            coalescedCounter.increment();
+            return;
+        }
+        try {
+            notifier.schedule(() -> flush(userId), coalesceWindowMs, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            Map<String, Object> dropped = pending.remove(userId);
+            failedCounter.increment(dropped != null ? events(dropped).size() : 1);
+            log.warn("Notifier stopped, dropping balance update for user {}", userId);
+        }
+    }
+
+    // Latest update at the top level, every update of the window under "events"
+    private static Map<String, Object> message(Long userId, Map<String, Object> latest,
+                                               List<Map<String, Object>> events) {
+        Map<String, Object> message = new HashMap<>(latest);
+        message.put("userId", userId);
+        message.put("events", events);
+        return message;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Map<String, Object>> events(Map<String, Object> message) {
+        return (List<Map<String, Object>>) message.get("events");
+    }
+
+    private void flush(Long userId) {
+        Map<String, Object> message = pending.remove(userId);
+        if (message != null) {
+            send(userId, message);
+        }
+    }
+
+    private void send(Long userId, Map<String, Object> message) {
+        try {
+            String destination = destination(userId);
+            sendTimer.record(() -> messagingTemplate.convertAndSend(destination, (Object) message));
+            sentCounter.increment();
+            log.debug("WebSocket notification sent to {}", destination);
+            clusterFanout.ifPresent(fanout -> fanout.publish(message));
+
+        } catch (Exception e) {
+            failedCounter.increment();
+            log.error("Failed to send WebSocket notification", e);
+        }
+    }
+
+    static String destination(Object userId) {
+        return "/topic/points/" + userId;
+    }
+
+    @Override
+    public void close() {
+        notifier.shutdownNow();
+        pending.clear();
+    }
+}
@@ -0,0 +1,39 @@
+package org.example.bespringboot.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.example.bespringboot.entity.OutboxEvent;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Points Outbox Handler - Delivers POINTS_UPDATED events to {@link PointsNotificationService}
+ */
+@Component
+@RequiredArgsConstructor
+public class PointsOutboxHandler implements OutboxHandler {
+
+    public static final String EVENT_TYPE = "POINTS_UPDATED";
+
+    private final PointsNotificationService pointsNotificationService;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public String eventType() {
+        return EVENT_TYPE;
+    }
+
+    @Override
+    public void handle(OutboxEvent event) throws Exception {
+        PointsUpdated update = objectMapper.readValue(event.getPayload(), PointsUpdated.class);
+        pointsNotificationService.notifyPointsUpdate(update.userId(), update.pointsBalance(),
+                update.details() != null ? update.details() : Map.of());
+    }
+
+    /**
+     * Payload of a POINTS_UPDATED event; details are merged into the pushed message
+     */
+    public record PointsUpdated(Long userId, Long pointsBalance, Map<String, Object> details) {
+    }
+}
@@ -0,0 +1,82 @@
+package org.example.bespringboot.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Purchase Metrics - Phase timers, outcome counters and the in-flight gauge of the purchase flow
+ *
+ * {@code purchase.phase} (tag phase) times each step of {@link TransactionService}; db_transaction
+ * spans the steps inside the database transaction plus the commit. SLO buckets for the Prometheus
+ * histogram come from management.metrics.distribution.slo.purchase.phase.
+ * {@code purchase.outcomes} (tags mode=sync|async, outcome=COMPLETED|FAILED, error=exception class or
+ * none) counts finished purchases and {@code purchase.inflight} those started but not finished.
+ */
+@Component
+public class PurchaseMetrics {
+
+    public enum Phase {
+        QR,
+        INITIAL_SAVE,
+        TRANSACTION_SAVE,
+        COMPLETION_SAVE,
+        BALANCE_UPDATE,
+        NOTIFICATION_ENQUEUE,
+        DB_TRANSACTION
+    }
+
+    public static final String MODE_SYNC = "sync";
+    public static final String MODE_ASYNC = "async";
+
+    private final MeterRegistry meterRegistry;
+    private final Map<Phase, Timer> timers = new EnumMap<>(Phase.class);
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    public PurchaseMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        for (Phase phase : Phase.values()) {
+            timers.put(phase, Timer.builder("purchase.phase")
+                    .description("Time spent in one phase of a purchase")
+                    .tag("phase", phase.name().toLowerCase(Locale.ROOT))
+                    .register(meterRegistry));
+        }
+        Gauge.builder("purchase.inflight", inFlight, AtomicInteger::get)
+                .description("Purchases started but not yet completed or failed")
+                .register(meterRegistry);
+    }
+
+    public <T> T time(Phase phase, Supplier<T> work) {
+        return timers.get(phase).record(work);
+    }
+
+    public void time(Phase phase, Runnable work) {
+        timers.get(phase).record(work);
+    }
+
+    public void started() {
+        inFlight.incrementAndGet();
+    }
+
+    /**
+     * Count a purchase that {@link #started()} as COMPLETED (error null) or FAILED
+     */
+    public void finished(String mode, Throwable error) {
+        inFlight.decrementAndGet();
+        Counter.builder("purchase.outcomes")
+                .description("Finished purchases by outcome")
+                .tag("mode", mode)
+                .tag("outcome", error == null ? "COMPLETED" : "FAILED")
+                .tag("error", error == null ? "none" : error.getClass().getSimpleName())
+                .register(meterRegistry)
+                .increment();
+    }
+}
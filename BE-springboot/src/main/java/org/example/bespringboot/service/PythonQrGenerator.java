@@ -0,0 +1,220 @@
+package org.example.bespringboot.service;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.example.bespringboot.dto.QrBatchResponse;
+import org.example.bespringboot.dto.QrResponse;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * QR generator backed by the Python microservice ({@code POST /generate-qr})
+ *
+ * Calls are guarded by the "pythonQr" circuit breaker (fails fast while the service is unhealthy)
+ * and each attempt by the "pythonQr" bulkhead (caps concurrent in-flight calls). With hedging
+ * enabled, a second attempt is sent if the first has not answered within the hedge delay and the
+ * first successful response wins; /generate-qr has no side effects, so the loser is just dropped.
+ *
+ * With batching enabled, concurrent calls are coalesced by a {@link MicroBatcher} into
+ * {@code POST /generate-qr/batch} requests (up to max-size items or linger-ms, whichever comes first);
+ * each batch request is one bulkhead attempt.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "qr.generator", havingValue = "python", matchIfMissing = true)
+public class PythonQrGenerator implements QrGenerator, DisposableBean {
+
+    static final String RESILIENCE_INSTANCE = "pythonQr";
+
+    private final RestTemplate restTemplate;
+    private final String pythonMicroserviceUrl;
+    private final CircuitBreaker circuitBreaker;
+    private final Bulkhead bulkhead;
+    private final ExecutorService qrClientExecutor;
+    private final boolean hedgeEnabled;
+    private final long hedgeDelayMs;
+    private final Counter hedgeCounter;
+    private final MicroBatcher<QrItem, QrResponse> batcher;
+    private final long batchWaitTimeoutMs;
+
+    public PythonQrGenerator(
+            RestTemplate restTemplate,
+            CircuitBreakerRegistry circuitBreakerRegistry,
+            BulkheadRegistry bulkheadRegistry,
+            ExecutorService qrClientExecutor,
+            MeterRegistry meterRegistry,
+            @Value("${python.microservice.url:http://backend-python:5000}") String pythonMicroserviceUrl,
+            @Value("${python.microservice.hedge.enabled:false}") boolean hedgeEnabled,
+            @Value("${python.microservice.hedge.delay-ms:300}") long hedgeDelayMs,
+            @Value("${python.microservice.batch.enabled:false}") boolean batchEnabled,
+            @Value("${python.microservice.batch.max-size:32}") int batchMaxSize,
+            @Value("${python.microservice.batch.linger-ms:5}") long batchLingerMs,
+            @Value("${python.microservice.batch.queue-capacity:1000}") int batchQueueCapacity,
+            @Value("${python.microservice.batch.wait-timeout-ms:2500}") long batchWaitTimeoutMs) {
+        this.restTemplate = restTemplate;
+        this.pythonMicroserviceUrl = pythonMicroserviceUrl;
+        this.circuitBreaker = circuitBreakerRegistry.circuitBreaker(RESILIENCE_INSTANCE);
+        this.bulkhead = bulkheadRegistry.bulkhead(RESILIENCE_INSTANCE);
+        this.qrClientExecutor = qrClientExecutor;
+        this.hedgeEnabled = hedgeEnabled;
+        this.hedgeDelayMs = hedgeDelayMs;
+        this.hedgeCounter = Counter.builder("qr.python.hedges")
+                .description("Hedged QR requests sent because the first attempt was slow")
+                .register(meterRegistry);
+        this.batchWaitTimeoutMs = batchWaitTimeoutMs;
+        this.batcher = batchEnabled
+                ? new MicroBatcher<>("python-qr", batchMaxSize, batchLingerMs, batchQueueCapacity,
+                        items -> bulkhead.executeSupplier(() -> postGenerateQrBatch(items)),
+                        qrClientExecutor, meterRegistry)
+                : null;
+    }
+
+    @Override
+    public QrResponse generate(Long userId, Long amount) {
+        return callPythonMicroservice(userId, amount);
+    }
+
+    private QrResponse callPythonMicroservice(Long userId, Long amount) {
+        try {
+            QrResponse response = circuitBreaker.executeSupplier(() -> {
+                if (batcher != null) {
+                    return batched(userId, amount);
+                }
+                return hedgeEnabled ? hedged(userId, amount) : attempt(userId, amount);
+            });
+
+            log.info("QR code generated successfully for user: {}", userId);
+            return response;
+
+        } catch (Exception e) {
+            log.error("Failed to call Python microservice", e);
+            throw new RuntimeException("Failed to generate QR code: " + e.getMessage(), e);
+        }
+    }
+
+    private QrResponse attempt(Long userId, Long amount) {
+        return bulkhead.executeSupplier(() -> postGenerateQr(userId, amount));
+    }
+
+    private QrResponse postGenerateQr(Long userId, Long amount) {
+        String url = pythonMicroserviceUrl + "/generate-qr";
+
+        Map<String, Object> request = new HashMap<>();
+        request.put("user_id", userId);
+        request.put("amount", amount);
+
+        log.info("Calling Python microservice at: {}", url);
+        QrResponse response = restTemplate.postForObject(url, request, QrResponse.class);
+
+        if (response == null) {
+            throw new RuntimeException("Python microservice returned null response");
+        }
+        return response;
+    }
+
+    private List<QrResponse> postGenerateQrBatch(List<QrItem> items) {
+        String url = pythonMicroserviceUrl + "/generate-qr/batch";
+
+        List<Map<String, Object>> requestItems = new ArrayList<>(items.size());
+        for (QrItem item : items) {
+            Map<String, Object> requestItem = new HashMap<>();
+            requestItem.put("user_id", item.userId());
+            requestItem.put("amount", item.amount());
+            requestItems.add(requestItem);
+        }
+
+        log.debug("Calling Python microservice at: {} with {} items", url, items.size());
+        QrBatchResponse response = restTemplate.postForObject(url, Map.of("items", requestItems), QrBatchResponse.class);
+
+        if (response == null || response.getResults() == null) {
+            throw new RuntimeException("Python microservice returned null batch response");
+        }
+        return response.getResults();
+    }
+
+    private QrResponse batched(Long userId, Long amount) {
+        try {
+            return batcher.submit(new QrItem(userId, amount))
+                    .orTimeout(batchWaitTimeoutMs, TimeUnit.MILLISECONDS)
+                    .join();
+        } catch (CompletionException e) {
+            throw propagate(e.getCause());
+        }
+    }
+
+    private QrResponse hedged(Long userId, Long amount) {
+        CompletableFuture<QrResponse> primary =
+                CompletableFuture.supplyAsync(() -> attempt(userId, amount), qrClientExecutor);
+        try {
+            return primary.get(hedgeDelayMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException slow) {
+            hedgeCounter.increment();
+            log.debug("QR call for user {} slower than {} ms, sending hedge", userId, hedgeDelayMs);
+            CompletableFuture<QrResponse> hedge =
+                    CompletableFuture.supplyAsync(() -> attempt(userId, amount), qrClientExecutor);
+            try {
+                return firstSuccessful(primary, hedge).join();
+            } catch (CompletionException e) {
+                throw propagate(e.getCause());
+            }
+        } catch (ExecutionException e) {
+            throw propagate(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for QR service", e);
+        }
+    }
+
+    private static CompletableFuture<QrResponse> firstSuccessful(CompletableFuture<QrResponse> a,
+                                                                 CompletableFuture<QrResponse> b) {
+        CompletableFuture<QrResponse> winner = new CompletableFuture<>();
+        AtomicInteger failures = new AtomicInteger();
+        for (CompletableFuture<QrResponse> future : List.of(a, b)) {
+            future.whenComplete((response, error) -> {
+                if (error == null) {
+                    winner.complete(response);
+                } else if (failures.incrementAndGet() == 2) {
+                    winner.completeExceptionally(error);
+                }
+            });
+        }
+        return winner;
+    }
+
+    @Override
+    public void destroy() {
+        if (batcher != null) {
+            batcher.close();
+        }
+    }
+
+    private static RuntimeException propagate(Throwable cause) {
+        if (cause instanceof CompletionException && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause instanceof RuntimeException runtime ? runtime : new RuntimeException(cause);
+    }
+
+    private record QrItem(Long userId, Long amount) {
+    }
+}
@@ -0,0 +1,20 @@
+package org.example.bespringboot.service;
+
+import org.example.bespringboot.dto.QrResponse;
+
+/**
+ * QrGenerator - Produces the QR code (hash + base64 PNG) attached to a transaction
+ *
+ * The active implementation is chosen with the {@code qr.generator} property:
+ * {@code python} (default) calls the QR microservice, {@code java} encodes in-process.
+ */
+public interface QrGenerator {
+
+    /**
+     * Generate a unique QR code for a purchase
+     * @param userId user making the purchase
+     * @param amount purchase amount
+     * @return QR hash and base64-encoded PNG image
+     */
+    QrResponse generate(Long userId, Long amount);
+}
@@ -0,0 +1,165 @@
+package org.example.bespringboot.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.example.bespringboot.service.qr.QrCodeEncoder;
+import org.example.bespringboot.service.qr.QrImageStore;
+import org.example.bespringboot.service.qr.QrPngEncoder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * QR Image Service - PNG bytes of a transaction's QR code, by QR hash
+ *
+ * Both QR generators encode the hash itself (byte mode, the qr.java.* settings match the Python
+ * service), so the image is a pure function of the hash. Images are kept in a {@link QrImageStore}
+ * under app.qr.store.dir and served as read-only views of its memory-mapped segments; a hash that is
+ * not stored yet (purchases from before the store, or a lost store directory) is rendered in-process
+ * once and stored. Sparse segments are compacted every app.qr.store.compaction-interval-seconds.
+ * A store that cannot be written to is logged and skipped: images can always be rendered again. That includes
+ * a store directory locked by another instance (replicas sharing a volume, or a second application context
+ * in one JVM), which leaves this instance rendering every image instead of failing to start.
+ *
+ * Metrics: {@code qr.images.reads} (source=store|rendered), {@code qr.store.entries},
+ * {@code qr.store.segments} and {@code qr.store.bytes} (state=used|live).
+ */
+@Slf4j
+@Service
+public class QrImageService implements AutoCloseable {
+
+    private final QrCodeEncoder.ErrorCorrection errorCorrection;
+    private final QrPngEncoder pngEncoder;
+    private final QrImageStore store; // null when the store could not be opened: every image is rendered
+    private final ScheduledExecutorService compactor;
+    private final Counter storeReads;
+    private final Counter renderedReads;
+
+    public QrImageService(
+            MeterRegistry meterRegistry,
+            @Value("${qr.java.error-correction:L}") QrCodeEncoder.ErrorCorrection errorCorrection,
+            @Value("${qr.java.box-size:10}") int boxSize,
+            @Value("${qr.java.border:4}") int border,
+            @Value("${qr.java.buffer-pool-size:16}") int bufferPoolSize,
+            @Value("${app.qr.store.dir:data/qr-store}") Path storeDir,
+            @Value("${app.qr.store.segment-bytes:67108864}") int segmentBytes,
+            @Value("${app.qr.store.initial-index-capacity:65536}") int initialIndexCapacity,
+            @Value("${app.qr.store.min-live-ratio:0.5}") double minLiveRatio,
+            @Value("${app.qr.store.compaction-interval-seconds:600}") long compactionIntervalSeconds) {
+        if (compactionIntervalSeconds < 1) {
+            throw new IllegalArgumentException("compaction-interval-seconds must be >= 1");
+        }
+        this.errorCorrection = errorCorrection;
+        this.pngEncoder = new QrPngEncoder(boxSize, border, bufferPoolSize);
+        this.store = open(storeDir, segmentBytes, initialIndexCapacity, minLiveRatio);
+
+        this.storeReads = Counter.builder("qr.images.reads")
+                .description("QR images served, by where the bytes came from")
+                .tag("source", "store")
+                .register(meterRegistry);
+        this.renderedReads = Counter.builder("qr.images.reads")
+                .description("QR images served, by where the bytes came from")
+                .tag("source", "rendered")
+                .register(meterRegistry);
+        if (store == null) {
+            this.compactor = null;
+            return;
+        }
+        Gauge.builder("qr.store.entries", store, QrImageStore::size)
+                .description("QR images in the store index")
+                .register(meterRegistry);
+        Gauge.builder("qr.store.segments", store, QrImageStore::segmentCount)
+                .description("Segment files of the QR image store")
+                .register(meterRegistry);
+        Gauge.builder("qr.store.bytes", store, QrImageStore::usedBytes)
+                .description("Bytes written to QR image segments")
+                .tag("state", "used")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("qr.store.bytes", store, QrImageStore::liveBytes)
+                .description("Bytes written to QR image segments")
+                .tag("state", "live")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+
+        this.compactor = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("qr-store-compactor").daemon().factory());
+        compactor.scheduleWithFixedDelay(this::compact, compactionIntervalSeconds, compactionIntervalSeconds,
+                TimeUnit.SECONDS);
+    }
+
+    /**
+     * Keep the image produced by the QR generator for a new purchase
+     */
+    public void store(String hash, byte[] png) {
+        if (store == null) {
+            return;
+        }
+        try {
+            store.put(hash, png);
+        } catch (IllegalArgumentException | UncheckedIOException e) {
+            log.warn("QR image for hash {} not stored: {}", hash, e.getMessage());
+        }
+    }
+
+    /**
+     * @return a read-only view of the PNG for the hash, from the store or rendered from the hash
+     */
+    public ByteBuffer png(String hash) {
+        ByteBuffer stored = store != null ? store.get(hash) : null;
+        if (stored != null) {
+            storeReads.increment();
+            return stored;
+        }
+        byte[] rendered = render(hash);
+        store(hash, rendered);
+        renderedReads.increment();
+        return ByteBuffer.wrap(rendered).asReadOnlyBuffer();
+    }
+
+    private static QrImageStore open(Path storeDir, int segmentBytes, int initialIndexCapacity,
+                                     double minLiveRatio) {
+        try {
+            QrImageStore store = new QrImageStore(storeDir, segmentBytes, initialIndexCapacity, minLiveRatio);
+            log.info("QR image store {} opened with {} images in {} segments",
+                    storeDir.toAbsolutePath(), store.size(), store.segmentCount());
+            return store;
+        } catch (IllegalStateException | UncheckedIOException e) {
+            log.warn("QR image store not used, images are rendered on every request: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private byte[] render(String hash) {
+        log.debug("Rendering QR image for hash {}", hash);
+        return pngEncoder.encode(QrCodeEncoder.encode(hash.getBytes(StandardCharsets.UTF_8), errorCorrection));
+    }
+
+    private void compact() {
+        try {
+            int compacted = store.compact();
+            if (compacted > 0) {
+                log.info("Compacted {} QR image segments, {} remain", compacted, store.segmentCount());
+            }
+        } catch (RuntimeException e) {
+            log.warn("QR image store compaction failed: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void close() {
+        if (store != null) {
+            compactor.shutdownNow();
+            store.close();
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package org.example.bespringboot.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.example.bespringboot.dto.RedemptionResponse;
+import org.example.bespringboot.entity.Redemption;
+import org.example.bespringboot.entity.Reward;
+import org.example.bespringboot.repository.RedemptionRepository;
+import org.example.bespringboot.repository.RewardRepository;
+import org.example.bespringboot.repository.UserRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Reward Redemption Service
+ * A redemption is one short database transaction: read the reward's cost, debit the balance with a
+ * conditional UPDATE (points_balance >= cost), then insert the redemption, its ledger entry and the
+ * outbox event that pushes the new balance.
+ * The UPDATE takes the user's row lock, so a double tap from two devices or a rush of redemptions
+ * serializes on that single statement instead of a read-check-write that could overspend; there is
+ * no optimistic retry loop. A balance that does not cover the cost leaves nothing written.
+ *
+ * Metrics: {@code rewards.redemptions} tagged outcome=redeemed|insufficient_points.
+ */
+@Slf4j
+@Service
+public class RewardRedemptionService {
+
+    private final RewardRepository rewardRepository;
+    private final RedemptionRepository redemptionRepository;
+    private final UserRepository userRepository;
+    private final PointsLedgerService pointsLedgerService;
+    private final OutboxService outboxService;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter redeemedCounter;
+    private final Counter insufficientCounter;
+
+    public RewardRedemptionService(
+            RewardRepository rewardRepository,
+            RedemptionRepository redemptionRepository,
+            UserRepository userRepository,
+            PointsLedgerService pointsLedgerService,
+            OutboxService outboxService,
+            TransactionTemplate transactionTemplate,
+            MeterRegistry meterRegistry) {
+        this.rewardRepository = rewardRepository;
+        this.redemptionRepository = redemptionRepository;
+        this.userRepository = userRepository;
+        this.pointsLedgerService = pointsLedgerService;
+        this.outboxService = outboxService;
+        this.transactionTemplate = transactionTemplate;
+        this.redeemedCounter = Counter.builder("rewards.redemptions")
+                .description("Reward redemption attempts")
+                .tag("outcome", "redeemed")
+                .register(meterRegistry);
+        this.insufficientCounter = Counter.builder("rewards.redemptions")
+                .description("Reward redemption attempts")
+                .tag("outcome", "insufficient_points")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Redeem a reward for a user
+     * @return the redemption, empty if the reward does not exist
+     * @throws InsufficientPointsException if the user's balance does not cover the reward
+     * @throws IllegalArgumentException if the user does not exist
+     */
+    public Optional<RedemptionResponse> redeem(Long userId, Long rewardId) {
+        Optional<RedemptionResponse> result;
+        try {
+            result = transactionTemplate.execute(status -> rewardRepository.findById(rewardId)
+                    .map(reward -> redeemInTransaction(userId, reward)));
+        } catch (InsufficientPointsException e) {
+            insufficientCounter.increment();
+            throw e;
+        }
+
+        result.ifPresent(redemption -> {
+            redeemedCounter.increment();
+            log.debug("User {} redeemed reward {} for {} points, balance {}",
+                    userId, rewardId, redemption.getPointsSpent(), redemption.getPointsBalance());
+        });
+        return result;
+    }
+
+    private RedemptionResponse redeemInTransaction(Long userId, Reward reward) {
+        long cost = reward.getPointsCost();
+        long balance = pointsLedgerService.debitIfCovered(userId, cost)
+                .orElseThrow(() -> new InsufficientPointsException(userRepository.findPointsBalanceById(userId)
+                        .orElseThrow(() -> new IllegalArgumentException("User not found with id: " + userId)), cost));
+
+        // The bar id is read from the lazy proxy without loading the bar
+        Redemption redemption = new Redemption();
+        redemption.setUser(userRepository.getReferenceById(userId));
+        redemption.setRewardId(reward.getId());
+        redemption.setBarId(reward.getBar().getId());
+        redemption.setPointsSpent(cost);
+        redemptionRepository.save(redemption);
+
+        pointsLedgerService.appendEntry(userId, -cost, balance, PointsLedgerService.REASON_REDEMPTION,
+                null, redemption.getId());
+        outboxService.append(PointsOutboxHandler.EVENT_TYPE, userId, new PointsOutboxHandler.PointsUpdated(
+                userId, balance, Map.of("redemptionId", redemption.getId(), "rewardId", reward.getId())));
+
+        return RedemptionResponse.builder()
+                .redemptionId(redemption.getId())
+                .rewardId(reward.getId())
+                .rewardName(reward.getName())
+                .barId(redemption.getBarId())
+                .pointsSpent(cost)
+                .pointsBalance(balance)
+                .createdAt(redemption.getCreatedAt())
+                .build();
+    }
+}
@@ -0,0 +1,88 @@
+package org.example.bespringboot.service;
+
+import lombok.RequiredArgsConstructor;
+import org.example.bespringboot.dto.TransactionStatusResponse;
+import org.example.bespringboot.repository.TransactionRepository;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Transaction History Service - Keyset-paginated transaction history per user and per bar
+ *
+ * Pages are ordered newest first on (createdAt, id). The cursor handed to clients is an opaque,
+ * URL-safe encoding of the last row's (createdAt, id); the next page is read with a range condition on
+ * the (user_id|bar_id, created_at, id) index instead of an OFFSET, so every page costs the same.
+ * One extra row is fetched to tell whether a next page exists.
+ */
+@Service
+@RequiredArgsConstructor
+public class TransactionHistoryService {
+
+    private final TransactionRepository transactionRepository;
+
+    public HistoryPage userHistory(Long userId, String cursor, int size) {
+        Limit limit = Limit.of(size + 1);
+        List<TransactionStatusResponse> rows = cursor == null
+                ? transactionRepository.findHistoryByUserId(userId, limit)
+                : decode(cursor, (createdAt, id) ->
+                        transactionRepository.findHistoryByUserIdBefore(userId, createdAt, id, limit));
+        return HistoryPage.of(rows, size);
+    }
+
+    public HistoryPage barHistory(Long barId, String cursor, int size) {
+        Limit limit = Limit.of(size + 1);
+        List<TransactionStatusResponse> rows = cursor == null
+                ? transactionRepository.findHistoryByBarId(barId, limit)
+                : decode(cursor, (createdAt, id) ->
+                        transactionRepository.findHistoryByBarIdBefore(barId, createdAt, id, limit));
+        return HistoryPage.of(rows, size);
+    }
+
+    static String encode(TransactionStatusResponse last) {
+        String key = last.getCreatedAt() + "|" + last.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws IllegalArgumentException if the cursor was not produced by {@link #encode}
+     */
+    private static <T> T decode(String cursor, KeysetQuery<T> query) {
+        try {
+            String key = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = key.lastIndexOf('|');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Invalid history cursor");
+            }
+            LocalDateTime createdAt = LocalDateTime.parse(key.substring(0, separator));
+            long id = Long.parseLong(key.substring(separator + 1));
+            return query.before(createdAt, id);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid history cursor", e);
+        }
+    }
+
+    @FunctionalInterface
+    private interface KeysetQuery<T> {
+        T before(LocalDateTime createdAt, long id);
+    }
+
+    /**
+     * One page of history; nextCursor is null on the last page
+     */
+    public record HistoryPage(List<TransactionStatusResponse> items, String nextCursor) {
+
+        static HistoryPage of(List<TransactionStatusResponse> rows, int size) {
+            if (rows.size() <= size) {
+                return new HistoryPage(rows, null);
+            }
+            List<TransactionStatusResponse> items = rows.subList(0, size);
+            return new HistoryPage(items, encode(items.get(size - 1)));
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package org.example.bespringboot.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.example.bespringboot.dto.TransactionRequest;
+import org.example.bespringboot.entity.Transaction;
+import org.example.bespringboot.repository.TransactionRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Transaction Idempotency Service - Runs each (user, Idempotency-Key) purchase at most once
+ *
+ * The first request with a key registers an in-flight entry in a bounded, expiring in-memory index
+ * (app.transactions.idempotency.*) and runs the purchase; a concurrent duplicate waits on that entry and
+ * receives the same transaction, a later one gets it straight from the index. Keys that are no longer
+ * in memory (evicted, expired, restarted or handled by another node) are looked up in the database,
+ * where the partial unique index on transactions (user_id, idempotency_key) guarantees a single row: a
+ * duplicate that races past the lookup fails its insert and replays the winner's row instead.
+ * A request that reuses a key with another bar or amount is rejected with IllegalArgumentException.
+ * A failed purchase is not remembered, so the client may retry it with the same key. An asynchronous
+ * purchase fails after its PENDING row was returned; marking it FAILED clears the row's key, and a
+ * replay of a PENDING entry from memory re-reads the row, so the retry runs as a new purchase.
+ *
+ * Metrics: {@code transactions.idempotency} (tag result: first, memory_hit, database_hit, constraint_hit,
+ * mismatch, in_flight_timeout) and {@code transactions.idempotency.entries}.
+ */
+@Slf4j
+@Service
+public class TransactionIdempotencyService {
+
+    public static final int MAX_KEY_LENGTH = 100;
+
+    private static final String UNIQUE_VIOLATION = "23505";
+    private static final String PENDING = "PENDING";
+
+    private final TransactionRepository transactionRepository;
+    private final Cache<String, InFlight> entries;
+    private final long waitTimeoutMs;
+    private final Counter first;
+    private final Counter memoryHits;
+    private final Counter databaseHits;
+    private final Counter constraintHits;
+    private final Counter mismatches;
+    private final Counter timeouts;
+
+    public TransactionIdempotencyService(
+            TransactionRepository transactionRepository,
+            MeterRegistry meterRegistry,
+            @Value("${app.transactions.idempotency.max-entries:10000}") long maxEntries,
+            @Value("${app.transactions.idempotency.ttl-seconds:600}") long ttlSeconds,
+            @Value("${app.transactions.idempotency.wait-timeout-ms:30000}") long waitTimeoutMs) {
+        this.transactionRepository = transactionRepository;
+        this.entries = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .build();
+        this.waitTimeoutMs = waitTimeoutMs;
+        this.first = counter(meterRegistry, "first");
+        this.memoryHits = counter(meterRegistry, "memory_hit");
+        this.databaseHits = counter(meterRegistry, "database_hit");
+        this.constraintHits = counter(meterRegistry, "constraint_hit");
+        this.mismatches = counter(meterRegistry, "mismatch");
+        this.timeouts = counter(meterRegistry, "in_flight_timeout");
+        Gauge.builder("transactions.idempotency.entries", entries, Cache::estimatedSize)
+                .description("Idempotency keys held in memory")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Run a purchase once per (user, key)
+     * @param idempotencyKey Idempotency-Key header value: 1-100 printable ASCII characters
+     * @param request the purchase; its user scopes the key, bar and amount must match on replays
+     * @param purchase creates the transaction, storing the key with it
+     * @return the transaction, and whether it was replayed from an earlier request
+     * @throws IllegalArgumentException for an invalid key or a key reused with another request
+     * @throws IdempotencyConflictException when the original is still running after the wait timeout
+     */
+    public Outcome execute(String idempotencyKey, TransactionRequest request, Supplier<Transaction> purchase) {
+        validateKey(idempotencyKey);
+        String indexKey = request.getUserId() + ":" + idempotencyKey;
+        InFlight mine = new InFlight(request.getBarId(), request.getAmount(), new CompletableFuture<>());
+
+        InFlight existing;
+        while ((existing = entries.asMap().putIfAbsent(indexKey, mine)) != null) {
+            checkSameRequest(existing.barId(), existing.amount(), request);
+            Transaction transaction = await(existing, idempotencyKey);
+            Optional<Transaction> current = PENDING.equals(transaction.getStatus())
+                    ? transactionRepository.findByUserIdAndIdempotencyKey(request.getUserId(), idempotencyKey)
+                    : Optional.of(transaction);
+            if (current.isPresent()) {
+                memoryHits.increment();
+                return new Outcome(current.get(), true);
+            }
+            // Its background completion failed, which released the key in the database
+            entries.asMap().remove(indexKey, existing);
+        }
+
+        try {
+            Optional<Transaction> stored = transactionRepository.findByUserIdAndIdempotencyKey(
+                    request.getUserId(), idempotencyKey);
+            if (stored.isPresent()) {
+                checkSameRequest(stored.get().getBarId(), stored.get().getAmount(), request);
+                mine.result().complete(stored.get());
+                databaseHits.increment();
+                return new Outcome(stored.get(), true);
+            }
+
+            try {
+                Transaction transaction = purchase.get();
+                mine.result().complete(transaction);
+                first.increment();
+                return new Outcome(transaction, false);
+            } catch (DataIntegrityViolationException e) {
+                // Another node (or an evicted entry's owner) committed the key first
+                if (!uniqueViolation(e)) {
+                    throw e;
+                }
+                Transaction winner = transactionRepository
+                        .findByUserIdAndIdempotencyKey(request.getUserId(), idempotencyKey)
+                        .orElseThrow(() -> e);
+                checkSameRequest(winner.getBarId(), winner.getAmount(), request);
+                mine.result().complete(winner);
+                constraintHits.increment();
+                log.info("Idempotency-Key {} of user {} was committed concurrently, replaying transaction {}",
+                        idempotencyKey, request.getUserId(), winner.getId());
+                return new Outcome(winner, true);
+            }
+        } catch (RuntimeException e) {
+            entries.asMap().remove(indexKey, mine);
+            mine.result().completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private Transaction await(InFlight existing, String idempotencyKey) {
+        try {
+            return existing.result().get(waitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            timeouts.increment();
+            throw new IdempotencyConflictException("Request with Idempotency-Key " + idempotencyKey
+                    + " is still being processed");
+        } catch (ExecutionException e) {
+            // Duplicates of a failed request fail the same way; the key is free for a retry
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IdempotencyConflictException("Interrupted while waiting for Idempotency-Key " + idempotencyKey);
+        }
+    }
+
+    private void checkSameRequest(Long barId, Long amount, TransactionRequest request) {
+        if (!Objects.equals(barId, request.getBarId()) || !Objects.equals(amount, request.getAmount())) {
+            mismatches.increment();
+            throw new IllegalArgumentException("Idempotency-Key was already used with a different request");
+        }
+    }
+
+    private static void validateKey(String idempotencyKey) {
+        if (idempotencyKey.isEmpty() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("Idempotency-Key must be 1-" + MAX_KEY_LENGTH + " characters");
+        }
+        for (int i = 0; i < idempotencyKey.length(); i++) {
+            char c = idempotencyKey.charAt(i);
+            if (c < 0x21 || c > 0x7e) {
+                throw new IllegalArgumentException("Idempotency-Key must be printable ASCII without spaces");
+            }
+        }
+    }
+
+    private static boolean uniqueViolation(DataIntegrityViolationException e) {
+        return e.getMostSpecificCause() instanceof SQLException sqlException
+                && UNIQUE_VIOLATION.equals(sqlException.getSQLState());
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("transactions.idempotency")
+                .description("Purchases with an Idempotency-Key by how they were resolved")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /**
+     * @param transaction the transaction created for the key
+     * @param replayed true when it was created by an earlier request with the same key
+     */
+    public record Outcome(Transaction transaction, boolean replayed) {
+    }
+
+    private record InFlight(Long barId, Long amount, CompletableFuture<Transaction> result) {
+    }
+}
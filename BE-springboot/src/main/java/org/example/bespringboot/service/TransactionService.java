@@ -4,119 +4,264 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.example.bespringboot.dto.QrResponse;
 import org.example.bespringboot.dto.TransactionRequest;
-import org.example.bespringboot.entity.Bar;
+import org.example.bespringboot.dto.TransactionStatusResponse;
 import org.example.bespringboot.entity.Transaction;
-import org.example.bespringboot.entity.User;
 import org.example.bespringboot.repository.BarRepository;
 import org.example.bespringboot.repository.TransactionRepository;
 import org.example.bespringboot.repository.UserRepository;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.example.bespringboot.service.PurchaseMetrics.Phase;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.sql.SQLException;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
 
+/**
+ * Transaction Service
+ * The QR code is generated before any database work, so no connection is held while the QR
+ * service is called. Everything a purchase writes (transaction row, balance update, ledger entry)
+ * then commits in one database transaction, together with the outbox event that pushes the new balance
+ * to /topic/points/{userId} once it has committed. A synchronous purchase first checks with one query that
+ * user and bar exist, so unknown ids are rejected without a QR call; the rows then reference them by id
+ * without loading them, and a user or bar deleted in between surfaces as a foreign key violation. Both are
+ * reported as IllegalArgumentException.
+ * Each phase is timed and every purchase counted by outcome through {@link PurchaseMetrics}.
+ * The QR image is not part of the transaction: it is handed to {@link QrImageService} and served by
+ * GET /api/transactions/{id}/qr.png.
+ */
 @Slf4j
 @RequiredArgsConstructor
 @Service
 public class TransactionService {
 
-    private final RestTemplate restTemplate;
+    private static final String FOREIGN_KEY_VIOLATION = "23503";
+
+    private final QrGenerator qrGenerator;
     private final TransactionRepository transactionRepository;
     private final UserRepository userRepository;
     private final BarRepository barRepository;
-    private final SimpMessagingTemplate messagingTemplate;
-
-    @Value("${python.microservice.url:http://backend-python:5000}")
-    private String pythonMicroserviceUrl;
+    private final PointsLedgerService pointsLedgerService;
+    private final OutboxService outboxService;
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutorService transactionExecutor;
+    private final PurchaseMetrics purchaseMetrics;
+    private final QrImageService qrImageService;
 
+    /**
+     * Create a transaction and complete it on the calling thread
+     * @return COMPLETED transaction
+     */
     public Transaction createTransaction(TransactionRequest request) {
-        log.info("Creating transaction for userId: {}, barId: {}, amount: {}",
-                request.getUserId(), request.getBarId(), request.getAmount());
-
-        User user = userRepository.findById(request.getUserId())
-                .orElseThrow(() -> new IllegalArgumentException("User not found with id: " + request.getUserId()));
+        return createTransaction(request, null);
+    }
 
-        Bar bar = barRepository.findById(request.getBarId())
-                .orElseThrow(() -> new IllegalArgumentException("Bar not found with id: " + request.getBarId()));
+    /**
+     * Create a transaction and complete it on the calling thread, recording the request's Idempotency-Key
+     * A key already used by the same user fails the insert with a unique violation
+     * ({@link TransactionIdempotencyService} turns that into a replay of the original).
+     * @param idempotencyKey key to store with the transaction, or null
+     * @return COMPLETED transaction
+     */
+    public Transaction createTransaction(TransactionRequest request, String idempotencyKey) {
+        logRequest(request);
+        purchaseMetrics.started();
 
-        Transaction transaction = new Transaction();
-        transaction.setUser(user);
-        transaction.setBar(bar);
-        transaction.setAmount(request.getAmount());
-        transaction.setStatus("PENDING");
+        if (!transactionRepository.referencesExist(request.getUserId(), request.getBarId())) {
+            IllegalArgumentException e = new IllegalArgumentException("User " + request.getUserId() + " or bar "
+                    + request.getBarId() + " not found");
+            purchaseMetrics.finished(PurchaseMetrics.MODE_SYNC, e);
+            throw e;
+        }
 
-        Transaction savedTransaction = transactionRepository.save(transaction);
-        log.info("Transaction saved with id: {}", savedTransaction.getId());
+        QrResponse qrResponse;
+        try {
+            qrResponse = purchaseMetrics.time(Phase.QR,
+                    () -> qrGenerator.generate(request.getUserId(), request.getAmount()));
+        } catch (Exception e) {
+            log.error("Error during transaction processing", e);
+            recordFailedTransaction(request);
+            purchaseMetrics.finished(PurchaseMetrics.MODE_SYNC, e);
+            throw new RuntimeException("Failed to process transaction: " + e.getMessage(), e);
+        }
 
+        Purchase purchase;
         try {
-            QrResponse qrResponse = callPythonMicroservice(user.getId(), request.getAmount());
+            purchase = purchaseMetrics.time(Phase.DB_TRANSACTION, () -> inTransaction(request, status -> {
+                Transaction transaction = newTransaction(request, "COMPLETED");
+                transaction.setIdempotencyKey(idempotencyKey);
+                transaction.setQrCodeHash(qrResponse.getHash());
+                transaction.setPointsEarned(request.getAmount());
+                purchaseMetrics.time(Phase.TRANSACTION_SAVE, () -> transactionRepository.save(transaction));
 
-            savedTransaction.setQrCodeHash(qrResponse.getHash());
+                long newBalance = purchaseMetrics.time(Phase.BALANCE_UPDATE, () -> pointsLedgerService.credit(
+                        request.getUserId(), transaction.getPointsEarned(), transaction.getId(),
+                        PointsLedgerService.REASON_PURCHASE));
+                appendPointsUpdate(request.getUserId(), newBalance, transaction.getId(), transaction.getStatus(),
+                        transaction.getQrCodeHash());
+                return new Purchase(transaction, newBalance);
+            }));
+        } catch (RuntimeException e) {
+            purchaseMetrics.finished(PurchaseMetrics.MODE_SYNC, e);
+            throw e;
+        }
+        purchaseMetrics.finished(PurchaseMetrics.MODE_SYNC, null);
+        Transaction transaction = purchase.transaction();
+        log.info("Transaction {} completed with hash: {}, new balance: {}",
+                transaction.getId(), transaction.getQrCodeHash(), purchase.newBalance());
 
-            Long pointsEarned = request.getAmount();
-            savedTransaction.setPointsEarned(pointsEarned);
-            savedTransaction.setStatus("COMPLETED");
+        storeQrImage(qrResponse);
+        return transaction;
+    }
 
-            savedTransaction = transactionRepository.save(savedTransaction);
-            log.info("Transaction completed with hash: {}", qrResponse.getHash());
+    /**
+     * Persist a PENDING transaction and complete it in the background
+     * QR generation and point crediting run on the transaction executor; the outcome is pushed to
+     * /topic/points/{userId} and can be polled via {@link #getTransactionStatus(Long, Long)}.
+     * @return the PENDING transaction
+     */
+    public Transaction submitTransaction(TransactionRequest request) {
+        return submitTransaction(request, null);
+    }
 
-            savedTransaction.setQrCodeImage(qrResponse.getQrCodeBase64());
+    /**
+     * Persist a PENDING transaction with the request's Idempotency-Key and complete it in the background
+     * @param idempotencyKey key to store with the transaction, or null
+     * @return the PENDING transaction
+     */
+    public Transaction submitTransaction(TransactionRequest request, String idempotencyKey) {
+        logRequest(request);
+        purchaseMetrics.started();
 
-            user.setPointsBalance(user.getPointsBalance() + pointsEarned);
-            userRepository.save(user);
-            log.info("User points updated. New balance: {}", user.getPointsBalance());
+        Transaction transaction;
+        try {
+            transaction = purchaseMetrics.time(Phase.INITIAL_SAVE, () -> inTransaction(request, status -> {
+                Transaction pending = newTransaction(request, "PENDING");
+                pending.setIdempotencyKey(idempotencyKey);
+                return transactionRepository.save(pending);
+            }));
+            log.info("Transaction {} accepted for asynchronous processing", transaction.getId());
 
-            notifyUserPointsUpdate(user.getId(), user.getPointsBalance());
+            transactionExecutor.execute(() ->
+                    completeSubmittedTransaction(transaction.getId(), request.getUserId(), request.getAmount()));
+        } catch (RuntimeException e) {
+            purchaseMetrics.finished(PurchaseMetrics.MODE_ASYNC, e);
+            throw e;
+        }
+        return transaction;
+    }
 
-            return savedTransaction;
+    /**
+     * @return the user's transaction, empty if it does not exist or belongs to another user
+     */
+    public Optional<TransactionStatusResponse> getTransactionStatus(Long id, Long userId) {
+        return transactionRepository.findStatusByIdAndUserId(id, userId);
+    }
 
-        } catch (Exception e) {
-            log.error("Error during transaction processing", e);
-            savedTransaction.setStatus("FAILED");
-            transactionRepository.save(savedTransaction);
-            throw new RuntimeException("Failed to process transaction: " + e.getMessage(), e);
-        }
+    /**
+     * @return the QR hash of the user's transaction, empty if it does not exist, belongs to another user
+     *         or has no QR code yet
+     */
+    public Optional<String> getQrCodeHash(Long id, Long userId) {
+        return transactionRepository.findQrCodeHashByIdAndUserId(id, userId);
     }
 
-    private QrResponse callPythonMicroservice(Long userId, Long amount) {
+    private void completeSubmittedTransaction(Long transactionId, Long userId, Long amount) {
         try {
-            String url = pythonMicroserviceUrl + "/generate-qr";
+            QrResponse qrResponse = purchaseMetrics.time(Phase.QR, () -> qrGenerator.generate(userId, amount));
 
-            Map<String, Object> request = new HashMap<>();
-            request.put("user_id", userId);
-            request.put("amount", amount);
+            Long newBalance = purchaseMetrics.time(Phase.DB_TRANSACTION, () -> transactionTemplate.execute(status -> {
+                int updated = purchaseMetrics.time(Phase.COMPLETION_SAVE,
+                        () -> transactionRepository.markCompleted(transactionId, qrResponse.getHash(), amount));
+                if (updated == 0) {
+                    throw new IllegalStateException("Transaction " + transactionId + " is no longer PENDING");
+                }
+                long balance = purchaseMetrics.time(Phase.BALANCE_UPDATE, () -> pointsLedgerService.credit(
+                        userId, amount, transactionId, PointsLedgerService.REASON_PURCHASE));
+                appendPointsUpdate(userId, balance, transactionId, "COMPLETED", qrResponse.getHash());
+                return balance;
+            }));
+            storeQrImage(qrResponse);
+            purchaseMetrics.finished(PurchaseMetrics.MODE_ASYNC, null);
+            log.info("Transaction {} completed with hash: {}, new balance: {}",
+                    transactionId, qrResponse.getHash(), newBalance);
 
-            log.info("Calling Python microservice at: {}", url);
-            QrResponse response = restTemplate.postForObject(url, request, QrResponse.class);
-
-            if (response == null) {
-                throw new RuntimeException("Python microservice returned null response");
-            }
+        } catch (Exception e) {
+            log.error("Error during transaction processing", e);
+            purchaseMetrics.finished(PurchaseMetrics.MODE_ASYNC, e);
+            transactionTemplate.executeWithoutResult(status -> {
+                transactionRepository.markFailed(transactionId);
+                appendPointsUpdate(userId, userRepository.findPointsBalanceById(userId).orElse(null),
+                        transactionId, "FAILED", null);
+            });
+        }
+    }
 
-            log.info("QR code generated successfully for user: {}", userId);
-            return response;
+    // Must run inside a transaction so the references come from the same persistence context
+    private Transaction newTransaction(TransactionRequest request, String status) {
+        Transaction transaction = new Transaction();
+        transaction.setUser(userRepository.getReferenceById(request.getUserId()));
+        transaction.setBar(barRepository.getReferenceById(request.getBarId()));
+        transaction.setAmount(request.getAmount());
+        transaction.setStatus(status);
+        return transaction;
+    }
 
-        } catch (Exception e) {
-            log.error("Failed to call Python microservice", e);
-            throw new RuntimeException("Failed to generate QR code: " + e.getMessage(), e);
+    // Only called once the user and bar are known to exist
+    private void recordFailedTransaction(TransactionRequest request) {
+        try {
+            transactionTemplate.executeWithoutResult(
+                    status -> transactionRepository.save(newTransaction(request, "FAILED")));
+        } catch (DataAccessException e) {
+            log.warn("Could not record failed transaction: {}", e.getMessage());
         }
     }
 
-    private void notifyUserPointsUpdate(Long userId, Long newBalance) {
+    private <T> T inTransaction(TransactionRequest request, TransactionCallback<T> work) {
         try {
-            Map<String, Object> message = new HashMap<>();
-            message.put("userId", userId);
-            message.put("pointsBalance", newBalance);
-            message.put("timestamp", System.currentTimeMillis());
+            return transactionTemplate.execute(work);
+        } catch (DataIntegrityViolationException e) {
+            if (e.getMostSpecificCause() instanceof SQLException sqlException
+                    && FOREIGN_KEY_VIOLATION.equals(sqlException.getSQLState())) {
+                throw new IllegalArgumentException("User " + request.getUserId() + " or bar "
+                        + request.getBarId() + " not found", e);
+            }
+            throw e;
+        }
+    }
 
-            String destination = "/topic/points/" + userId;
-            messagingTemplate.convertAndSend(destination, (Object) message);
-            log.info("WebSocket notification sent to {}", destination);
+    private void logRequest(TransactionRequest request) {
+        log.info("Creating transaction for userId: {}, barId: {}, amount: {}",
+                request.getUserId(), request.getBarId(), request.getAmount());
+    }
 
-        } catch (Exception e) {
-            log.error("Failed to send WebSocket notification", e);
+    // Images that fail to decode are rendered from the hash when first requested instead
+    private void storeQrImage(QrResponse qrResponse) {
+        try {
+            qrImageService.store(qrResponse.getHash(), qrResponse.decodePng());
+        } catch (IllegalArgumentException e) {
+            log.warn("QR image for hash {} is not valid base64: {}", qrResponse.getHash(), e.getMessage());
+        }
+    }
+
+    private void appendPointsUpdate(Long userId, Long newBalance, Long transactionId, String status,
+                                    String qrCodeHash) {
+        Map<String, Object> details = new HashMap<>();
+        details.put("transactionId", transactionId);
+        details.put("status", status);
+        details.put("qrCodeHash", qrCodeHash);
+        if (qrCodeHash != null) {
+            // Async clients never see the POST response body, so the image link travels with the update
+            details.put("qrCodeUrl", Transaction.qrCodeUrl(transactionId));
         }
+        purchaseMetrics.time(Phase.NOTIFICATION_ENQUEUE, () -> outboxService.append(PointsOutboxHandler.EVENT_TYPE,
+                userId, new PointsOutboxHandler.PointsUpdated(userId, newBalance, details)));
+    }
+
+    private record Purchase(Transaction transaction, long newBalance) {
     }
-}
\ No newline at end of file
+}
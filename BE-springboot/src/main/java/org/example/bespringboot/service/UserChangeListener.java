@@ -0,0 +1,29 @@
+package org.example.bespringboot.service;
+
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.example.bespringboot.entity.User;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA listener on {@link User} that keeps the principal cache in step with the users table
+ * Hibernate obtains it from the Spring context. Balance changes go through native UPDATEs and do not
+ * trigger it, which is fine since the principal carries no balance.
+ */
+@Component
+public class UserChangeListener {
+
+    private final AuthenticatedUserService authenticatedUserService;
+
+    // Lazy: the service depends on UserRepository, which needs the EntityManagerFactory that owns this listener
+    public UserChangeListener(@Lazy AuthenticatedUserService authenticatedUserService) {
+        this.authenticatedUserService = authenticatedUserService;
+    }
+
+    @PostUpdate
+    @PostRemove
+    void onUserChanged(User user) {
+        authenticatedUserService.evict(user.getId());
+    }
+}
@@ -0,0 +1,497 @@
+package org.example.bespringboot.service.qr;
+
+/**
+ * QrCodeEncoder - Byte-mode QR Code encoder (ISO/IEC 18004, versions 1-40)
+ * Picks the smallest version that fits the payload at the requested error correction level,
+ * adds Reed-Solomon codewords, places them in the symbol and applies the lowest-penalty mask.
+ *
+ * Stateless and thread-safe.
+ */
+public final class QrCodeEncoder {
+
+    /**
+     * Error correction level, with the 2-bit value used in the format information
+     */
+    public enum ErrorCorrection {
+        L(1), M(0), Q(3), H(2);
+
+        private final int formatBits;
+
+        ErrorCorrection(int formatBits) {
+            this.formatBits = formatBits;
+        }
+    }
+
+    private static final int MIN_VERSION = 1;
+    private static final int MAX_VERSION = 40;
+
+    private static final int PENALTY_N1 = 3;
+    private static final int PENALTY_N2 = 3;
+    private static final int PENALTY_N3 = 40;
+    private static final int PENALTY_N4 = 10;
+
+    // Indexed by [ErrorCorrection.ordinal()][version], index 0 is unused
+    private static final byte[][] ECC_CODEWORDS_PER_BLOCK = {
+            {-1, 7, 10, 15, 20, 26, 18, 20, 24, 30, 18, 20, 24, 26, 30, 22, 24, 28, 30, 28, 28, 28, 28, 30, 30, 26, 28, 30, 30, 30, 30, 30, 30, 30, 30, 30, 30, 30, 30, 30, 30},
+            {-1, 10, 16, 26, 18, 24, 16, 18, 22, 22, 26, 30, 22, 22, 24, 24, 28, 28, 26, 26, 26, 26, 28, 28, 28, 28, 28, 28, 28, 28, 28, 28, 28, 28, 28, 28, 28, 28, 28, 28, 28},
+            {-1, 13, 22, 18, 26, 18, 24, 18, 22, 20, 24, 28, 26, 24, 20, 30, 24, 28, 28, 26, 30, 28, 30, 30, 30, 30, 28, 30, 30, 30, 30, 30, 30, 30, 30, 30, 30, 30, 30, 30, 30},
+            {-1, 17, 28, 22, 16, 22, 28, 26, 26, 24, 28, 24, 28, 22, 24, 24, 30, 28, 28, 26, 28, 30, 24, 30, 30, 30, 30, 30, 30, 30, 30, 30, 30, 30, 30, 30, 30, 30, 30, 30, 30},
+    };
+
+    private static final byte[][] NUM_ERROR_CORRECTION_BLOCKS = {
+            {-1, 1, 1, 1, 1, 1, 2, 2, 2, 2, 4, 4, 4, 4, 4, 6, 6, 6, 6, 7, 8, 8, 9, 9, 10, 12, 12, 12, 13, 14, 15, 16, 17, 18, 19, 19, 20, 21, 22, 24, 25},
+            {-1, 1, 1, 1, 2, 2, 4, 4, 4, 5, 5, 5, 8, 9, 9, 10, 10, 11, 13, 14, 16, 17, 17, 18, 20, 21, 23, 25, 26, 28, 29, 31, 33, 35, 37, 38, 40, 43, 45, 47, 49},
+            {-1, 1, 1, 2, 2, 4, 4, 6, 6, 8, 8, 8, 10, 12, 16, 12, 17, 16, 18, 21, 20, 23, 23, 25, 27, 29, 34, 34, 35, 38, 40, 43, 45, 48, 51, 53, 56, 59, 62, 65, 68},
+            {-1, 1, 1, 2, 4, 4, 4, 5, 6, 8, 8, 11, 11, 16, 16, 18, 16, 19, 21, 25, 25, 25, 34, 30, 32, 35, 37, 40, 42, 45, 48, 51, 54, 57, 60, 63, 66, 70, 74, 77, 81},
+    };
+
+    private QrCodeEncoder() {
+    }
+
+    /**
+     * Encode raw bytes in byte mode
+     * @param data payload to encode
+     * @param ecl error correction level
+     * @return module matrix for the smallest fitting version
+     * @throws IllegalArgumentException if the payload does not fit in version 40
+     */
+    public static QrCodeMatrix encode(byte[] data, ErrorCorrection ecl) {
+        int version = MIN_VERSION;
+        while (true) {
+            int capacityBits = getNumDataCodewords(version, ecl) * 8;
+            int usedBits = 4 + charCountBits(version) + data.length * 8;
+            if (usedBits <= capacityBits) {
+                break;
+            }
+            if (version == MAX_VERSION) {
+                throw new IllegalArgumentException("Payload too long for a QR code: " + data.length + " bytes");
+            }
+            version++;
+        }
+
+        byte[] dataCodewords = buildDataCodewords(data, version, ecl);
+        byte[] allCodewords = addEccAndInterleave(dataCodewords, version, ecl);
+        return new Symbol(version, ecl).render(allCodewords);
+    }
+
+    private static int charCountBits(int version) {
+        return version <= 9 ? 8 : 16;
+    }
+
+    private static byte[] buildDataCodewords(byte[] data, int version, ErrorCorrection ecl) {
+        int capacity = getNumDataCodewords(version, ecl);
+        byte[] result = new byte[capacity];
+        BitWriter writer = new BitWriter(result);
+
+        writer.append(0x4, 4); // byte mode indicator
+        writer.append(data.length, charCountBits(version));
+        for (byte b : data) {
+            writer.append(b & 0xFF, 8);
+        }
+
+        int capacityBits = capacity * 8;
+        writer.append(0, Math.min(4, capacityBits - writer.length()));
+        writer.append(0, (8 - writer.length() % 8) % 8);
+
+        for (int pad = 0xEC; writer.length() < capacityBits; pad ^= 0xEC ^ 0x11) {
+            writer.append(pad, 8);
+        }
+        return result;
+    }
+
+    private static byte[] addEccAndInterleave(byte[] data, int version, ErrorCorrection ecl) {
+        int numBlocks = NUM_ERROR_CORRECTION_BLOCKS[ecl.ordinal()][version];
+        int blockEccLen = ECC_CODEWORDS_PER_BLOCK[ecl.ordinal()][version];
+        int rawCodewords = getNumRawDataModules(version) / 8;
+        int numShortBlocks = numBlocks - rawCodewords % numBlocks;
+        int shortBlockLen = rawCodewords / numBlocks;
+
+        byte[][] blocks = new byte[numBlocks][];
+        byte[] divisor = reedSolomonComputeDivisor(blockEccLen);
+        for (int i = 0, k = 0; i < numBlocks; i++) {
+            int datLen = shortBlockLen - blockEccLen + (i < numShortBlocks ? 0 : 1);
+            byte[] block = new byte[shortBlockLen + 1];
+            System.arraycopy(data, k, block, 0, datLen);
+            byte[] ecc = reedSolomonComputeRemainder(data, k, datLen, divisor);
+            System.arraycopy(ecc, 0, block, block.length - blockEccLen, ecc.length);
+            blocks[i] = block;
+            k += datLen;
+        }
+
+        // Interleave, skipping the padding byte of short blocks
+        byte[] result = new byte[rawCodewords];
+        for (int i = 0, k = 0; i < blocks[0].length; i++) {
+            for (int j = 0; j < blocks.length; j++) {
+                if (i != shortBlockLen - blockEccLen || j >= numShortBlocks) {
+                    result[k++] = blocks[j][i];
+                }
+            }
+        }
+        return result;
+    }
+
+    private static byte[] reedSolomonComputeDivisor(int degree) {
+        byte[] result = new byte[degree];
+        result[degree - 1] = 1;
+        int root = 1;
+        for (int i = 0; i < degree; i++) {
+            for (int j = 0; j < result.length; j++) {
+                result[j] = (byte) reedSolomonMultiply(result[j] & 0xFF, root);
+                if (j + 1 < result.length) {
+                    result[j] ^= result[j + 1];
+                }
+            }
+            root = reedSolomonMultiply(root, 0x02);
+        }
+        return result;
+    }
+
+    private static byte[] reedSolomonComputeRemainder(byte[] data, int offset, int length, byte[] divisor) {
+        byte[] result = new byte[divisor.length];
+        for (int n = offset; n < offset + length; n++) {
+            int factor = (data[n] ^ result[0]) & 0xFF;
+            System.arraycopy(result, 1, result, 0, result.length - 1);
+            result[result.length - 1] = 0;
+            for (int i = 0; i < result.length; i++) {
+                result[i] ^= (byte) reedSolomonMultiply(divisor[i] & 0xFF, factor);
+            }
+        }
+        return result;
+    }
+
+    // Multiplication in GF(2^8) modulo x^8 + x^4 + x^3 + x^2 + 1
+    private static int reedSolomonMultiply(int x, int y) {
+        int z = 0;
+        for (int i = 7; i >= 0; i--) {
+            z = (z << 1) ^ ((z >>> 7) * 0x11D);
+            z ^= ((y >>> i) & 1) * x;
+        }
+        return z;
+    }
+
+    private static int getNumRawDataModules(int version) {
+        int result = (16 * version + 128) * version + 64;
+        if (version >= 2) {
+            int numAlign = version / 7 + 2;
+            result -= (25 * numAlign - 10) * numAlign - 55;
+            if (version >= 7) {
+                result -= 36;
+            }
+        }
+        return result;
+    }
+
+    private static int getNumDataCodewords(int version, ErrorCorrection ecl) {
+        return getNumRawDataModules(version) / 8
+                - ECC_CODEWORDS_PER_BLOCK[ecl.ordinal()][version]
+                * NUM_ERROR_CORRECTION_BLOCKS[ecl.ordinal()][version];
+    }
+
+    private static boolean getBit(int x, int i) {
+        return ((x >>> i) & 1) != 0;
+    }
+
+    /**
+     * Appends big-endian bit fields into a pre-sized byte array
+     */
+    private static final class BitWriter {
+        private final byte[] target;
+        private int bitLength;
+
+        BitWriter(byte[] target) {
+            this.target = target;
+        }
+
+        void append(int value, int numBits) {
+            for (int i = numBits - 1; i >= 0; i--, bitLength++) {
+                if (getBit(value, i)) {
+                    target[bitLength >>> 3] |= (byte) (0x80 >>> (bitLength & 7));
+                }
+            }
+        }
+
+        int length() {
+            return bitLength;
+        }
+    }
+
+    /**
+     * Mutable working state for laying out one symbol
+     */
+    private static final class Symbol {
+        private final int version;
+        private final int size;
+        private final ErrorCorrection ecl;
+        private final boolean[] modules;
+        private final boolean[] isFunction;
+
+        Symbol(int version, ErrorCorrection ecl) {
+            this.version = version;
+            this.size = version * 4 + 17;
+            this.ecl = ecl;
+            this.modules = new boolean[size * size];
+            this.isFunction = new boolean[size * size];
+        }
+
+        QrCodeMatrix render(byte[] codewords) {
+            drawFunctionPatterns();
+            drawCodewords(codewords);
+
+            int bestMask = 0;
+            int minPenalty = Integer.MAX_VALUE;
+            for (int mask = 0; mask < 8; mask++) {
+                applyMask(mask);
+                drawFormatBits(mask);
+                int penalty = getPenaltyScore();
+                if (penalty < minPenalty) {
+                    bestMask = mask;
+                    minPenalty = penalty;
+                }
+                applyMask(mask); // XOR is its own inverse
+            }
+            applyMask(bestMask);
+            drawFormatBits(bestMask);
+            return new QrCodeMatrix(version, size, modules);
+        }
+
+        private boolean get(int x, int y) {
+            return modules[y * size + x];
+        }
+
+        private void setFunction(int x, int y, boolean dark) {
+            modules[y * size + x] = dark;
+            isFunction[y * size + x] = true;
+        }
+
+        private void drawFunctionPatterns() {
+            for (int i = 0; i < size; i++) {
+                setFunction(6, i, i % 2 == 0);
+                setFunction(i, 6, i % 2 == 0);
+            }
+
+            drawFinderPattern(3, 3);
+            drawFinderPattern(size - 4, 3);
+            drawFinderPattern(3, size - 4);
+
+            int[] alignPositions = getAlignmentPatternPositions();
+            int numAlign = alignPositions.length;
+            for (int i = 0; i < numAlign; i++) {
+                for (int j = 0; j < numAlign; j++) {
+                    boolean overlapsFinder = (i == 0 && j == 0)
+                            || (i == 0 && j == numAlign - 1)
+                            || (i == numAlign - 1 && j == 0);
+                    if (!overlapsFinder) {
+                        drawAlignmentPattern(alignPositions[i], alignPositions[j]);
+                    }
+                }
+            }
+
+            drawFormatBits(0); // reserve the area, real bits are drawn after masking
+            drawVersion();
+        }
+
+        private void drawFormatBits(int mask) {
+            int data = ecl.formatBits << 3 | mask;
+            int rem = data;
+            for (int i = 0; i < 10; i++) {
+                rem = (rem << 1) ^ ((rem >>> 9) * 0x537);
+            }
+            int bits = (data << 10 | rem) ^ 0x5412;
+
+            for (int i = 0; i <= 5; i++) {
+                setFunction(8, i, getBit(bits, i));
+            }
+            setFunction(8, 7, getBit(bits, 6));
+            setFunction(8, 8, getBit(bits, 7));
+            setFunction(7, 8, getBit(bits, 8));
+            for (int i = 9; i < 15; i++) {
+                setFunction(14 - i, 8, getBit(bits, i));
+            }
+
+            for (int i = 0; i < 8; i++) {
+                setFunction(size - 1 - i, 8, getBit(bits, i));
+            }
+            for (int i = 8; i < 15; i++) {
+                setFunction(8, size - 15 + i, getBit(bits, i));
+            }
+            setFunction(8, size - 8, true); // always dark
+        }
+
+        private void drawVersion() {
+            if (version < 7) {
+                return;
+            }
+            int rem = version;
+            for (int i = 0; i < 12; i++) {
+                rem = (rem << 1) ^ ((rem >>> 11) * 0x1F25);
+            }
+            int bits = version << 12 | rem;
+
+            for (int i = 0; i < 18; i++) {
+                boolean bit = getBit(bits, i);
+                int a = size - 11 + i % 3;
+                int b = i / 3;
+                setFunction(a, b, bit);
+                setFunction(b, a, bit);
+            }
+        }
+
+        private void drawFinderPattern(int x, int y) {
+            for (int dy = -4; dy <= 4; dy++) {
+                for (int dx = -4; dx <= 4; dx++) {
+                    int dist = Math.max(Math.abs(dx), Math.abs(dy));
+                    int xx = x + dx;
+                    int yy = y + dy;
+                    if (0 <= xx && xx < size && 0 <= yy && yy < size) {
+                        setFunction(xx, yy, dist != 2 && dist != 4);
+                    }
+                }
+            }
+        }
+
+        private void drawAlignmentPattern(int x, int y) {
+            for (int dy = -2; dy <= 2; dy++) {
+                for (int dx = -2; dx <= 2; dx++) {
+                    setFunction(x + dx, y + dy, Math.max(Math.abs(dx), Math.abs(dy)) != 1);
+                }
+            }
+        }
+
+        private int[] getAlignmentPatternPositions() {
+            if (version == 1) {
+                return new int[0];
+            }
+            int numAlign = version / 7 + 2;
+            int step = (version * 8 + numAlign * 3 + 5) / (numAlign * 4 - 4) * 2;
+            int[] result = new int[numAlign];
+            result[0] = 6;
+            for (int i = result.length - 1, pos = size - 7; i >= 1; i--, pos -= step) {
+                result[i] = pos;
+            }
+            return result;
+        }
+
+        // Zig-zag placement in two-module columns, right to left, skipping the vertical timing line
+        private void drawCodewords(byte[] data) {
+            int i = 0;
+            for (int right = size - 1; right >= 1; right -= 2) {
+                if (right == 6) {
+                    right = 5;
+                }
+                boolean upward = ((right + 1) & 2) == 0;
+                for (int vert = 0; vert < size; vert++) {
+                    int y = upward ? size - 1 - vert : vert;
+                    for (int j = 0; j < 2; j++) {
+                        int x = right - j;
+                        if (!isFunction[y * size + x] && i < data.length * 8) {
+                            modules[y * size + x] = getBit(data[i >>> 3], 7 - (i & 7));
+                            i++;
+                        }
+                    }
+                }
+            }
+        }
+
+        private void applyMask(int mask) {
+            for (int y = 0; y < size; y++) {
+                for (int x = 0; x < size; x++) {
+                    boolean invert = switch (mask) {
+                        case 0 -> (x + y) % 2 == 0;
+                        case 1 -> y % 2 == 0;
+                        case 2 -> x % 3 == 0;
+                        case 3 -> (x + y) % 3 == 0;
+                        case 4 -> (x / 3 + y / 2) % 2 == 0;
+                        case 5 -> x * y % 2 + x * y % 3 == 0;
+                        case 6 -> (x * y % 2 + x * y % 3) % 2 == 0;
+                        case 7 -> ((x + y) % 2 + x * y % 3) % 2 == 0;
+                        default -> throw new IllegalArgumentException("Invalid mask: " + mask);
+                    };
+                    int idx = y * size + x;
+                    modules[idx] ^= invert & !isFunction[idx];
+                }
+            }
+        }
+
+        private int getPenaltyScore() {
+            int result = 0;
+
+            // Rule 1: runs of five or more same-coloured modules in a row or column
+            for (int a = 0; a < size; a++) {
+                int rowRun = 1;
+                int colRun = 1;
+                for (int b = 1; b < size; b++) {
+                    if (get(b, a) == get(b - 1, a)) {
+                        rowRun++;
+                    } else {
+                        result += runPenalty(rowRun);
+                        rowRun = 1;
+                    }
+                    if (get(a, b) == get(a, b - 1)) {
+                        colRun++;
+                    } else {
+                        result += runPenalty(colRun);
+                        colRun = 1;
+                    }
+                }
+                result += runPenalty(rowRun) + runPenalty(colRun);
+            }
+
+            // Rule 2: 2x2 blocks of the same colour
+            for (int y = 0; y < size - 1; y++) {
+                for (int x = 0; x < size - 1; x++) {
+                    boolean color = get(x, y);
+                    if (color == get(x + 1, y) && color == get(x, y + 1) && color == get(x + 1, y + 1)) {
+                        result += PENALTY_N2;
+                    }
+                }
+            }
+
+            // Rule 3: finder-like 1:1:3:1:1 patterns flanked by four light modules
+            for (int a = 0; a < size; a++) {
+                for (int b = 0; b + 11 <= size; b++) {
+                    if (matchesFinderLike(b, a, true)) {
+                        result += PENALTY_N3;
+                    }
+                    if (matchesFinderLike(a, b, false)) {
+                        result += PENALTY_N3;
+                    }
+                }
+            }
+
+            // Rule 4: balance of dark and light modules
+            int dark = 0;
+            for (boolean module : modules) {
+                if (module) {
+                    dark++;
+                }
+            }
+            int total = size * size;
+            int k = (Math.abs(dark * 20 - total * 10) + total - 1) / total - 1;
+            result += k * PENALTY_N4;
+            return result;
+        }
+
+        private static int runPenalty(int run) {
+            return run >= 5 ? PENALTY_N1 + (run - 5) : 0;
+        }
+
+        private boolean matchesFinderLike(int x, int y, boolean horizontal) {
+            boolean leading = true;
+            boolean trailing = true;
+            for (int i = 0; i < 11; i++) {
+                boolean dark = horizontal ? get(x + i, y) : get(x, y + i);
+                leading &= dark == FINDER_LIKE_LEADING[i];
+                trailing &= dark == FINDER_LIKE_TRAILING[i];
+                if (!leading && !trailing) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static final boolean[] FINDER_LIKE_LEADING =
+                {true, false, true, true, true, false, true, false, false, false, false};
+        private static final boolean[] FINDER_LIKE_TRAILING =
+                {false, false, false, false, true, false, true, true, true, false, true};
+    }
+}
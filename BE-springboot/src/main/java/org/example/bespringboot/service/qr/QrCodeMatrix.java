@@ -0,0 +1,36 @@
+package org.example.bespringboot.service.qr;
+
+/**
+ * QrCodeMatrix - Immutable grid of dark/light modules produced by {@link QrCodeEncoder}
+ * Modules are stored row-major, without the quiet zone
+ */
+public final class QrCodeMatrix {
+
+    private final int version;
+    private final int size;
+    private final boolean[] modules;
+
+    QrCodeMatrix(int version, int size, boolean[] modules) {
+        this.version = version;
+        this.size = size;
+        this.modules = modules;
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * @return side length in modules (21 for version 1, +4 per version)
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * @return true if the module at column x, row y is dark
+     */
+    public boolean isDark(int x, int y) {
+        return modules[y * size + x];
+    }
+}
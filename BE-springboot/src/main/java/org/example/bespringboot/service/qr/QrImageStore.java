@@ -0,0 +1,580 @@
+package org.example.bespringboot.service.qr;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * QrImageStore - Content-addressed store of QR images in append-only, memory-mapped segment files
+ *
+ * Images are appended to the active segment, a file mapped into memory at its full size; a record that
+ * no longer fits seals the segment and starts the next one (segment-NNNNNNNN.qrs). Lookups go through
+ * an open-addressing index in direct memory (16 bytes per slot: key fingerprint and segment/offset,
+ * doubled at 70% load) and return a read-only view of the mapped record, so a read copies nothing onto
+ * the heap. Storing a key again supersedes the older record; {@link #compact()} rewrites the live
+ * records of sealed segments whose live share fell below minLiveRatio and deletes those files.
+ *
+ * The index is not persisted: opening the store scans the segments and rebuilds it. A record left torn
+ * by a crash fails its CRC and ends the scan of its segment, and the next append overwrites it.
+ * Writes reach the page cache only; the active segment is forced to disk when sealed, on close, and
+ * by compaction before it deletes the segments it copied from.
+ *
+ * A store has a single writer: opening takes an exclusive lock on store.lock in the directory and fails
+ * with IllegalStateException while another process or another store in this JVM holds it.
+ *
+ * Record layout: magic (int), key length (short), data length (int), CRC32 of key and data (int),
+ * key (US-ASCII), data. Keys are 1-255 printable ASCII characters.
+ *
+ * Thread-safe: lookups are lock-free, writes and compaction are serialized.
+ */
+public final class QrImageStore implements AutoCloseable {
+
+    private static final int RECORD_MAGIC = 0x51524931;
+    private static final int HEADER_BYTES = 14;
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".qrs";
+    private static final String LOCK_FILE = "store.lock";
+
+    private static final int SLOT_BYTES = 16;
+    private static final int MAX_INDEX_CAPACITY = 1 << 26;
+    private static final double MAX_LOAD = 0.7;
+    private static final VarHandle SLOT_LONG =
+            MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final double minLiveRatio;
+    private final ConcurrentHashMap<Integer, Segment> segments = new ConcurrentHashMap<>();
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final FileLock directoryLock;
+    private volatile Index index;
+    private Segment active;
+
+    /**
+     * Open the store in the directory, creating it if needed, and rebuild the index from its segments
+     * @param segmentBytes size of a segment file; also the largest record the store accepts
+     * @param initialIndexCapacity index slots allocated up front, rounded up to a power of two
+     * @param minLiveRatio sealed segments with a smaller share of live bytes are compacted
+     * @throws IllegalStateException if the directory is already in use by another store
+     */
+    public QrImageStore(Path directory, int segmentBytes, int initialIndexCapacity, double minLiveRatio) {
+        if (segmentBytes < 4096 || segmentBytes > (1 << 30) || initialIndexCapacity < 1
+                || initialIndexCapacity > MAX_INDEX_CAPACITY || minLiveRatio < 0 || minLiveRatio > 1) {
+            throw new IllegalArgumentException("segmentBytes must be in [4 KiB, 1 GiB], initialIndexCapacity in [1, "
+                    + MAX_INDEX_CAPACITY + "] and minLiveRatio in [0, 1]");
+        }
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.minLiveRatio = minLiveRatio;
+        this.index = new Index(Integer.highestOneBit(Math.max(initialIndexCapacity * 2 - 1, 2)));
+        try {
+            Files.createDirectories(directory);
+            this.directoryLock = lock(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open QR image store in " + directory, e);
+        }
+        try {
+            recover();
+        } catch (IOException | RuntimeException e) {
+            closeQuietly(directoryLock);
+            throw e instanceof IOException io
+                    ? new UncheckedIOException("Cannot open QR image store in " + directory, io)
+                    : (RuntimeException) e;
+        }
+    }
+
+    /**
+     * @return a read-only view of the stored image, positioned at 0, or null if the key is not stored
+     */
+    public ByteBuffer get(String key) {
+        long fingerprint = fingerprint(key);
+        // A segment only disappears after compaction moved its live records, so a dangling location
+        // means the index changed under this lookup; the next attempt sees the new location
+        for (int attempt = 0; attempt < 3; attempt++) {
+            Index current = index;
+            boolean dangling = false;
+            for (int slot = current.home(fingerprint); ; slot = current.next(slot)) {
+                long slotFingerprint = current.fingerprint(slot);
+                if (slotFingerprint == 0) {
+                    break;
+                }
+                if (slotFingerprint != fingerprint) {
+                    continue;
+                }
+                long location = current.location(slot);
+                Segment segment = segments.get(segmentId(location));
+                if (segment == null) {
+                    dangling = true;
+                    break;
+                }
+                int offset = offset(location);
+                if (segment.keyEquals(offset, key)) {
+                    return segment.data(offset);
+                }
+            }
+            if (!dangling) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Store the image under the key; a no-op if the same bytes are already stored
+     * @throws IllegalArgumentException if the key is not 1-255 printable ASCII characters or the record
+     * does not fit in a segment
+     * @throws UncheckedIOException if a new segment file cannot be created
+     */
+    public void put(String key, byte[] data) {
+        byte[] keyBytes = keyBytes(key);
+        int recordBytes = HEADER_BYTES + keyBytes.length + data.length;
+        if (recordBytes > segmentBytes) {
+            throw new IllegalArgumentException("Record of " + recordBytes + " bytes exceeds the segment size");
+        }
+        long fingerprint = fingerprint(key);
+
+        writeLock.lock();
+        try {
+            int slot = find(fingerprint, key);
+            if (slot >= 0) {
+                long previous = index.location(slot);
+                Segment segment = segments.get(segmentId(previous));
+                if (segment.data(offset(previous)).equals(ByteBuffer.wrap(data))) {
+                    return;
+                }
+                long location = append(keyBytes, data);
+                segment.liveBytes -= segment.recordBytes(offset(previous));
+                index.setLocation(slot, location);
+                return;
+            }
+            long location = append(keyBytes, data);
+            insert(fingerprint, location);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Rewrite the live records of sparse sealed segments into the active segment and delete them
+     * @return the number of segments deleted
+     */
+    public int compact() {
+        writeLock.lock();
+        try {
+            List<Segment> sparse = segments.values().stream()
+                    .filter(segment -> segment != active)
+                    .filter(segment -> segment.liveBytes < minLiveRatio * segment.writePosition)
+                    .sorted(Comparator.comparingInt(segment -> segment.id))
+                    .toList();
+            for (Segment segment : sparse) {
+                for (int offset = 0; offset < segment.writePosition; offset += segment.recordBytes(offset)) {
+                    int slot = slotOf(location(segment.id, offset));
+                    if (slot >= 0) {
+                        index.setLocation(slot, copy(segment, offset));
+                    }
+                }
+                // The copies must be durable before the only other durable copy goes away
+                active.buffer.force();
+                segments.remove(segment.id);
+                // Mappings stay valid after the file is deleted, so lookups still reading it are unaffected
+                Files.deleteIfExists(segment.path);
+            }
+            return sparse.size();
+        } catch (IOException e) {
+            throw new UncheckedIOException("QR image store compaction failed", e);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public int size() {
+        return index.size;
+    }
+
+    public int segmentCount() {
+        return segments.size();
+    }
+
+    /**
+     * @return bytes written to segments, including superseded records
+     */
+    public long usedBytes() {
+        return segments.values().stream().mapToLong(segment -> segment.writePosition).sum();
+    }
+
+    /**
+     * @return bytes of the records the index points to
+     */
+    public long liveBytes() {
+        return segments.values().stream().mapToLong(segment -> segment.liveBytes).sum();
+    }
+
+    @Override
+    public void close() {
+        writeLock.lock();
+        try {
+            if (active != null) {
+                active.buffer.force();
+            }
+        } finally {
+            closeQuietly(directoryLock);
+            writeLock.unlock();
+        }
+    }
+
+    private static FileLock lock(Path directory) throws IOException {
+        FileChannel channel = FileChannel.open(directory.resolve(LOCK_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        try {
+            FileLock lock = channel.tryLock();
+            if (lock != null) {
+                return lock;
+            }
+        } catch (OverlappingFileLockException e) {
+            // Held by another store in this JVM
+        }
+        channel.close();
+        throw new IllegalStateException("QR image store " + directory + " is already in use by another store");
+    }
+
+    // Closing the channel releases the lock
+    private static void closeQuietly(FileLock lock) {
+        try {
+            lock.channel().close();
+        } catch (IOException e) {
+            // Nothing left to release
+        }
+    }
+
+    private void recover() throws IOException {
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(directory)) {
+            files = listing.filter(path -> parseSegmentId(path) > 0)
+                    .sorted(Comparator.comparingInt(QrImageStore::parseSegmentId))
+                    .toList();
+        }
+        List<Segment> opened = new ArrayList<>();
+        for (Path file : files) {
+            Segment segment = Segment.open(file, parseSegmentId(file), segmentBytes);
+            segments.put(segment.id, segment);
+            opened.add(segment);
+            int offset = 0;
+            while (segment.isValidRecord(offset)) {
+                String key = segment.key(offset);
+                long location = location(segment.id, offset);
+                long fingerprint = fingerprint(key);
+                int slot = find(fingerprint, key);
+                if (slot >= 0) {
+                    long previous = index.location(slot);
+                    Segment previousSegment = segments.get(segmentId(previous));
+                    previousSegment.liveBytes -= previousSegment.recordBytes(offset(previous));
+                    index.setLocation(slot, location);
+                } else {
+                    insert(fingerprint, location);
+                }
+                segment.liveBytes += segment.recordBytes(offset);
+                offset += segment.recordBytes(offset);
+            }
+            segment.writePosition = offset;
+        }
+        active = opened.isEmpty() ? newSegment(1) : opened.get(opened.size() - 1);
+    }
+
+    private long append(byte[] keyBytes, byte[] data) {
+        int recordBytes = HEADER_BYTES + keyBytes.length + data.length;
+        Segment segment = activeWithRoom(recordBytes);
+        int offset = segment.writePosition;
+        CRC32 crc = new CRC32();
+        crc.update(keyBytes);
+        crc.update(data);
+        MappedByteBuffer buffer = segment.buffer;
+        buffer.putShort(offset + 4, (short) keyBytes.length);
+        buffer.putInt(offset + 6, data.length);
+        buffer.putInt(offset + 10, (int) crc.getValue());
+        buffer.put(offset + HEADER_BYTES, keyBytes);
+        buffer.put(offset + HEADER_BYTES + keyBytes.length, data);
+        // Magic last, so a scan never mistakes a half-written record for a complete one
+        buffer.putInt(offset, RECORD_MAGIC);
+        segment.writePosition = offset + recordBytes;
+        segment.liveBytes += recordBytes;
+        return location(segment.id, offset);
+    }
+
+    private long copy(Segment source, int sourceOffset) {
+        int recordBytes = source.recordBytes(sourceOffset);
+        Segment segment = activeWithRoom(recordBytes);
+        int offset = segment.writePosition;
+        segment.buffer.put(offset, source.buffer, sourceOffset, recordBytes);
+        segment.writePosition = offset + recordBytes;
+        segment.liveBytes += recordBytes;
+        return location(segment.id, offset);
+    }
+
+    private Segment activeWithRoom(int recordBytes) {
+        if (active.buffer.capacity() - active.writePosition < recordBytes) {
+            active.buffer.force();
+            try {
+                active = newSegment(active.id + 1);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Cannot create QR image segment in " + directory, e);
+            }
+        }
+        return active;
+    }
+
+    private Segment newSegment(int id) throws IOException {
+        Segment segment = Segment.open(directory.resolve(String.format("%s%08d%s", SEGMENT_PREFIX, id, SEGMENT_SUFFIX)),
+                id, segmentBytes);
+        segments.put(id, segment);
+        return segment;
+    }
+
+    // Slot of the key, or -1; caller holds the write lock
+    private int find(long fingerprint, String key) {
+        Index current = index;
+        for (int slot = current.home(fingerprint); ; slot = current.next(slot)) {
+            long slotFingerprint = current.fingerprint(slot);
+            if (slotFingerprint == 0) {
+                return -1;
+            }
+            if (slotFingerprint == fingerprint) {
+                long location = current.location(slot);
+                if (segments.get(segmentId(location)).keyEquals(offset(location), key)) {
+                    return slot;
+                }
+            }
+        }
+    }
+
+    // Slot pointing at the location, or -1 if the record there has been superseded
+    private int slotOf(long location) {
+        Segment segment = segments.get(segmentId(location));
+        long fingerprint = fingerprint(segment.key(offset(location)));
+        Index current = index;
+        for (int slot = current.home(fingerprint); ; slot = current.next(slot)) {
+            long slotFingerprint = current.fingerprint(slot);
+            if (slotFingerprint == 0) {
+                return -1;
+            }
+            if (slotFingerprint == fingerprint && current.location(slot) == location) {
+                return slot;
+            }
+        }
+    }
+
+    private void insert(long fingerprint, long location) {
+        if (index.size + 1 > index.capacity() * MAX_LOAD) {
+            grow();
+        }
+        index.insert(fingerprint, location);
+    }
+
+    private void grow() {
+        Index current = index;
+        if (current.capacity() >= MAX_INDEX_CAPACITY) {
+            throw new IllegalStateException("QR image store index is full (" + current.size + " entries)");
+        }
+        Index grown = new Index(current.capacity() * 2);
+        for (int slot = 0; slot < current.capacity(); slot++) {
+            long fingerprint = current.fingerprint(slot);
+            if (fingerprint != 0) {
+                grown.insert(fingerprint, current.location(slot));
+            }
+        }
+        index = grown;
+    }
+
+    private static byte[] keyBytes(String key) {
+        if (key == null || key.isEmpty() || key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("Key must be 1-" + MAX_KEY_LENGTH + " characters");
+        }
+        for (int i = 0; i < key.length(); i++) {
+            char c = key.charAt(i);
+            if (c < 0x21 || c > 0x7e) {
+                throw new IllegalArgumentException("Key must be printable ASCII");
+            }
+        }
+        return key.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    // FNV-1a over the characters with a murmur3 finalizer; 0 marks an empty slot
+    static long fingerprint(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            hash ^= key.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash != 0 ? hash : 1;
+    }
+
+    private static long location(int segmentId, int offset) {
+        return ((long) segmentId << 32) | (offset & 0xFFFFFFFFL);
+    }
+
+    private static int segmentId(long location) {
+        return (int) (location >>> 32);
+    }
+
+    private static int offset(long location) {
+        return (int) location;
+    }
+
+    private static int parseSegmentId(Path path) {
+        String name = path.getFileName().toString();
+        if (!name.startsWith(SEGMENT_PREFIX) || !name.endsWith(SEGMENT_SUFFIX)) {
+            return -1;
+        }
+        try {
+            return Integer.parseInt(name, SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length(), 10);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Open-addressing table of (fingerprint, location) pairs with linear probing. Slots are written with
+     * release and read with acquire semantics: a lookup that sees a fingerprint also sees its location
+     * and the record bytes written before it. Only the writer mutates; size is guarded by the write lock.
+     */
+    private static final class Index {
+
+        private final ByteBuffer slots;
+        private final int mask;
+        private volatile int size;
+
+        Index(int capacity) {
+            this.slots = ByteBuffer.allocateDirect(capacity * SLOT_BYTES + Long.BYTES).alignedSlice(Long.BYTES);
+            this.mask = capacity - 1;
+        }
+
+        int capacity() {
+            return mask + 1;
+        }
+
+        int home(long fingerprint) {
+            return (int) (fingerprint ^ (fingerprint >>> 32)) & mask;
+        }
+
+        int next(int slot) {
+            return (slot + 1) & mask;
+        }
+
+        long fingerprint(int slot) {
+            return (long) SLOT_LONG.getAcquire(slots, slot * SLOT_BYTES);
+        }
+
+        long location(int slot) {
+            return (long) SLOT_LONG.getAcquire(slots, slot * SLOT_BYTES + Long.BYTES);
+        }
+
+        void setLocation(int slot, long location) {
+            SLOT_LONG.setRelease(slots, slot * SLOT_BYTES + Long.BYTES, location);
+        }
+
+        void insert(long fingerprint, long location) {
+            int slot = home(fingerprint);
+            while (fingerprint(slot) != 0) {
+                slot = next(slot);
+            }
+            setLocation(slot, location);
+            SLOT_LONG.setRelease(slots, slot * SLOT_BYTES, fingerprint);
+            size++;
+        }
+    }
+
+    /**
+     * One segment file, mapped read-write at its full size. writePosition and liveBytes are guarded by the
+     * write lock; lookups only read records the index already points to.
+     */
+    private static final class Segment {
+
+        final int id;
+        final Path path;
+        final MappedByteBuffer buffer;
+        final ByteBuffer readView;
+        int writePosition;
+        long liveBytes;
+
+        private Segment(int id, Path path, MappedByteBuffer buffer) {
+            this.id = id;
+            this.path = path;
+            this.buffer = buffer;
+            this.readView = buffer.asReadOnlyBuffer();
+        }
+
+        static Segment open(Path path, int id, int segmentBytes) throws IOException {
+            try (FileChannel channel = FileChannel.open(path,
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                long size = Math.max(channel.size(), segmentBytes);
+                return new Segment(id, path, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+            }
+        }
+
+        int recordBytes(int offset) {
+            return HEADER_BYTES + buffer.getShort(offset + 4) + buffer.getInt(offset + 6);
+        }
+
+        boolean isValidRecord(int offset) {
+            if (offset > buffer.capacity() - HEADER_BYTES || buffer.getInt(offset) != RECORD_MAGIC) {
+                return false;
+            }
+            int keyLength = buffer.getShort(offset + 4);
+            int dataLength = buffer.getInt(offset + 6);
+            if (keyLength < 1 || keyLength > MAX_KEY_LENGTH || dataLength < 0
+                    || dataLength > buffer.capacity() - offset - HEADER_BYTES - keyLength) {
+                return false;
+            }
+            CRC32 crc = new CRC32();
+            crc.update(readView.slice(offset + HEADER_BYTES, keyLength + dataLength));
+            return (int) crc.getValue() == buffer.getInt(offset + 10);
+        }
+
+        String key(int offset) {
+            byte[] key = new byte[buffer.getShort(offset + 4)];
+            buffer.get(offset + HEADER_BYTES, key);
+            return new String(key, StandardCharsets.US_ASCII);
+        }
+
+        boolean keyEquals(int offset, String key) {
+            int keyLength = buffer.getShort(offset + 4);
+            if (keyLength != key.length()) {
+                return false;
+            }
+            for (int i = 0; i < keyLength; i++) {
+                if (buffer.get(offset + HEADER_BYTES + i) != key.charAt(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        ByteBuffer data(int offset) {
+            int keyLength = buffer.getShort(offset + 4);
+            return readView.slice(offset + HEADER_BYTES + keyLength, buffer.getInt(offset + 6));
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package org.example.bespringboot.service.qr;
+
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * QrPngEncoder - Writes a {@link QrCodeMatrix} as a 1-bit grayscale PNG
+ *
+ * Each module becomes a boxSize x boxSize square and the symbol is surrounded by a light quiet zone
+ * of {@code border} modules, matching the output of the Python service (box_size=10, border=4).
+ * Deflaters and scanline/output buffers are kept in a small bounded pool and reused across calls,
+ * so steady-state encoding allocates only the returned byte array.
+ *
+ * Thread-safe.
+ */
+public final class QrPngEncoder {
+
+    private static final byte[] PNG_SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+    private static final byte[] IHDR = {'I', 'H', 'D', 'R'};
+    private static final byte[] IDAT = {'I', 'D', 'A', 'T'};
+    private static final byte[] IEND = {'I', 'E', 'N', 'D'};
+
+    private static final byte FILTER_NONE = 0;
+    private static final byte FILTER_UP = 2;
+
+    private final int boxSize;
+    private final int border;
+    private final BlockingQueue<Scratch> pool;
+
+    /**
+     * @param boxSize pixels per module
+     * @param border quiet zone width in modules
+     * @param poolSize maximum number of idle encoding buffers kept for reuse
+     */
+    public QrPngEncoder(int boxSize, int border, int poolSize) {
+        if (boxSize < 1 || border < 0 || poolSize < 1) {
+            throw new IllegalArgumentException("boxSize must be >= 1, border >= 0 and poolSize >= 1");
+        }
+        this.boxSize = boxSize;
+        this.border = border;
+        this.pool = new ArrayBlockingQueue<>(poolSize);
+    }
+
+    /**
+     * Encode the matrix as a PNG image
+     * @param matrix QR modules
+     * @return complete PNG file contents
+     */
+    public byte[] encode(QrCodeMatrix matrix) {
+        Scratch scratch = pool.poll();
+        if (scratch == null) {
+            scratch = new Scratch();
+        }
+        try {
+            return encode(matrix, scratch);
+        } finally {
+            if (!pool.offer(scratch)) {
+                scratch.deflater.end();
+            }
+        }
+    }
+
+    private byte[] encode(QrCodeMatrix matrix, Scratch scratch) {
+        int modulesPerSide = matrix.getSize() + border * 2;
+        int pixels = modulesPerSide * boxSize;
+        int rowBytes = (pixels + 7) / 8;
+
+        byte[] row = scratch.row(rowBytes + 1);
+        ByteSink out = scratch.out;
+        out.reset();
+
+        out.write(PNG_SIGNATURE);
+
+        int ihdrStart = out.beginChunk(IHDR);
+        out.writeInt(pixels);
+        out.writeInt(pixels);
+        out.write(1);  // bit depth
+        out.write(0);  // colour type: grayscale
+        out.write(0);  // compression
+        out.write(0);  // filter
+        out.write(0);  // interlace
+        out.endChunk(ihdrStart, scratch.crc);
+
+        Deflater deflater = scratch.deflater;
+        deflater.reset();
+        int idatStart = out.beginChunk(IDAT);
+
+        // Rows inside one module row are identical, so only the first is written in full and the
+        // remaining boxSize - 1 use the Up filter, which turns them into runs of zeros.
+        byte[] upRow = scratch.upRow(rowBytes + 1);
+        upRow[0] = FILTER_UP;
+        for (int moduleY = 0; moduleY < modulesPerSide; moduleY++) {
+            fillScanline(matrix, moduleY - border, row, rowBytes);
+            deflate(deflater, row, rowBytes + 1, out);
+            for (int repeat = 1; repeat < boxSize; repeat++) {
+                deflate(deflater, upRow, rowBytes + 1, out);
+            }
+        }
+        deflater.finish();
+        while (!deflater.finished()) {
+            out.deflateFrom(deflater);
+        }
+        out.endChunk(idatStart, scratch.crc);
+
+        int iendStart = out.beginChunk(IEND);
+        out.endChunk(iendStart, scratch.crc);
+
+        return out.toByteArray();
+    }
+
+    private void fillScanline(QrCodeMatrix matrix, int y, byte[] row, int rowBytes) {
+        row[0] = FILTER_NONE;
+        // 1 = white; start fully light and clear bits for dark modules
+        Arrays.fill(row, 1, rowBytes + 1, (byte) 0xFF);
+        if (y < 0 || y >= matrix.getSize()) {
+            return;
+        }
+        for (int x = 0; x < matrix.getSize(); x++) {
+            if (!matrix.isDark(x, y)) {
+                continue;
+            }
+            int startPx = (x + border) * boxSize;
+            for (int px = startPx; px < startPx + boxSize; px++) {
+                row[1 + (px >>> 3)] &= (byte) ~(0x80 >>> (px & 7));
+            }
+        }
+    }
+
+    private static void deflate(Deflater deflater, byte[] input, int length, ByteSink out) {
+        deflater.setInput(input, 0, length);
+        while (!deflater.needsInput()) {
+            out.deflateFrom(deflater);
+        }
+    }
+
+    /**
+     * Per-encode working buffers, reused through the pool
+     */
+    private static final class Scratch {
+        private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        private final CRC32 crc = new CRC32();
+        private final ByteSink out = new ByteSink(4096);
+        private byte[] row = new byte[0];
+        private byte[] upRow = new byte[0];
+
+        byte[] row(int length) {
+            if (row.length < length) {
+                row = new byte[length];
+            }
+            return row;
+        }
+
+        byte[] upRow(int length) {
+            if (upRow.length < length) {
+                upRow = new byte[length];
+            }
+            return upRow;
+        }
+    }
+
+    /**
+     * Growable output buffer with PNG chunk framing helpers
+     */
+    private static final class ByteSink {
+        private byte[] buf;
+        private int count;
+
+        ByteSink(int initialCapacity) {
+            this.buf = new byte[initialCapacity];
+        }
+
+        void reset() {
+            count = 0;
+        }
+
+        void write(int b) {
+            ensureCapacity(1);
+            buf[count++] = (byte) b;
+        }
+
+        void write(byte[] bytes) {
+            ensureCapacity(bytes.length);
+            System.arraycopy(bytes, 0, buf, count, bytes.length);
+            count += bytes.length;
+        }
+
+        void writeInt(int v) {
+            ensureCapacity(4);
+            buf[count++] = (byte) (v >>> 24);
+            buf[count++] = (byte) (v >>> 16);
+            buf[count++] = (byte) (v >>> 8);
+            buf[count++] = (byte) v;
+        }
+
+        void deflateFrom(Deflater deflater) {
+            ensureCapacity(512);
+            count += deflater.deflate(buf, count, buf.length - count);
+        }
+
+        /**
+         * Reserve the length field and write the chunk type
+         * @return offset of the length field
+         */
+        int beginChunk(byte[] type) {
+            int start = count;
+            writeInt(0);
+            write(type);
+            return start;
+        }
+
+        void endChunk(int start, CRC32 crc) {
+            int dataLength = count - start - 8;
+            buf[start] = (byte) (dataLength >>> 24);
+            buf[start + 1] = (byte) (dataLength >>> 16);
+            buf[start + 2] = (byte) (dataLength >>> 8);
+            buf[start + 3] = (byte) dataLength;
+            crc.reset();
+            crc.update(buf, start + 4, dataLength + 4);
+            writeInt((int) crc.getValue());
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buf, count);
+        }
+
+        private void ensureCapacity(int extra) {
+            if (count + extra > buf.length) {
+                buf = Arrays.copyOf(buf, Math.max(buf.length * 2, count + extra));
+            }
+        }
+    }
+}
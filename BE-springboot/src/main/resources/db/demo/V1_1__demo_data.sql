@@ -0,0 +1,12 @@
+-- Demo data for local and docker environments (enabled through FLYWAY_LOCATIONS, see docker-compose.yml).
+-- Versioned 1.1 so that it lands on the baseline schema, before the ledger migration opens the balances.
+
+-- INSERARE DATE (SEED) - Cerința: 2 Baruri și 2 Clienți
+INSERT INTO bars (name, location) VALUES 
+('Old Town Pub', 'Centru, Str. Lapusneanu'),
+('Sky Bar', 'Etajul 10, Palas');
+
+-- Parolele sunt criptate cu BCrypt (valoare: password)
+INSERT INTO users (username, email, password, role, firstname, lastname, points_balance) VALUES
+('student_dev', 'dev@student.tuiasi.ro', '$2a$10$dXJ3SW6G7P50lGmMkkmwe.20cQQubK3.HZWzG3YB1tlRy.fqvM/BG', 'ROLE_CLIENT', 'Student', 'Test', 50),
+('client_premium', 'client@tuiasi.ro', '$2a$10$dXJ3SW6G7P50lGmMkkmwe.20cQQubK3.HZWzG3YB1tlRy.fqvM/BG', 'ROLE_CLIENT', 'Ion', 'Popescu', 100);
@@ -1,7 +1,4 @@
-DROP TABLE IF EXISTS transactions CASCADE;
-DROP TABLE IF EXISTS rewards CASCADE;
-DROP TABLE IF EXISTS bars CASCADE;
-DROP TABLE IF EXISTS users CASCADE;
+-- Baseline schema (as created by postgres/init.sql before versioned migrations were introduced)
 
 CREATE TABLE users (
     id SERIAL PRIMARY KEY,
@@ -43,13 +40,3 @@ CREATE TABLE transactions (
     CONSTRAINT fk_user_trx FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE SET NULL,
     CONSTRAINT fk_bar_trx FOREIGN KEY (bar_id) REFERENCES bars(id) ON DELETE SET NULL
 );
-
--- INSERARE DATE (SEED) - Cerința: 2 Baruri și 2 Clienți
-INSERT INTO bars (name, location) VALUES 
-('Old Town Pub', 'Centru, Str. Lapusneanu'),
-('Sky Bar', 'Etajul 10, Palas');
-
--- Parolele sunt criptate cu BCrypt (valoare: password)
-INSERT INTO users (username, email, password, role, firstname, lastname, points_balance) VALUES
-('student_dev', 'dev@student.tuiasi.ro', '$2a$10$dXJ3SW6G7P50lGmMkkmwe.20cQQubK3.HZWzG3YB1tlRy.fqvM/BG', 'ROLE_CLIENT', 'Student', 'Test', 50),
-('client_premium', 'client@tuiasi.ro', '$2a$10$dXJ3SW6G7P50lGmMkkmwe.20cQQubK3.HZWzG3YB1tlRy.fqvM/BG', 'ROLE_CLIENT', 'Ion', 'Popescu', 100);
\ No newline at end of file
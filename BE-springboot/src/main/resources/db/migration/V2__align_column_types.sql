@@ -0,0 +1,28 @@
+-- Align the baseline column types with the entity mappings (ids, counters and amounts are Long),
+-- so that spring.jpa.hibernate.ddl-auto=validate accepts the schema.
+-- Altering a column to the type it already has is a no-op, so this is safe on any existing database.
+
+ALTER TABLE users
+    ALTER COLUMN id TYPE BIGINT,
+    ALTER COLUMN points_balance TYPE BIGINT;
+
+ALTER TABLE bars
+    ALTER COLUMN id TYPE BIGINT;
+
+ALTER TABLE rewards
+    ALTER COLUMN id TYPE BIGINT,
+    ALTER COLUMN bar_id TYPE BIGINT,
+    ALTER COLUMN points_cost TYPE BIGINT;
+
+-- amount is stored in whole currency units by the application
+ALTER TABLE transactions
+    ALTER COLUMN id TYPE BIGINT,
+    ALTER COLUMN user_id TYPE BIGINT,
+    ALTER COLUMN bar_id TYPE BIGINT,
+    ALTER COLUMN amount TYPE BIGINT USING round(amount),
+    ALTER COLUMN points_earned TYPE BIGINT;
+
+ALTER SEQUENCE users_id_seq AS BIGINT;
+ALTER SEQUENCE bars_id_seq AS BIGINT;
+ALTER SEQUENCE rewards_id_seq AS BIGINT;
+ALTER SEQUENCE transactions_id_seq AS BIGINT;
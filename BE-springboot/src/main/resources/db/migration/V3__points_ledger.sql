@@ -0,0 +1,17 @@
+-- Append-only points ledger; users.points_balance is maintained with atomic UPDATEs alongside it
+CREATE TABLE points_entries (
+    id BIGSERIAL PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    transaction_id BIGINT,
+    delta BIGINT NOT NULL,
+    balance_after BIGINT NOT NULL,
+    reason VARCHAR(20) NOT NULL,
+    created_at TIMESTAMP WITH TIME ZONE DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT fk_user_points FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
+    CONSTRAINT fk_trx_points FOREIGN KEY (transaction_id) REFERENCES transactions(id) ON DELETE SET NULL
+);
+
+-- Opening entries for the balances accrued before the ledger, so that SUM(points_entries.delta)
+-- matches users.points_balance
+INSERT INTO points_entries (user_id, delta, balance_after, reason)
+SELECT id, COALESCE(points_balance, 0), COALESCE(points_balance, 0), 'OPENING' FROM users;
@@ -0,0 +1,7 @@
+-- Entity ids are allocated by Hibernate in blocks of 50 (pooled optimizer).
+-- Tables created by later migrations set the increment on their own sequence.
+ALTER SEQUENCE users_id_seq INCREMENT BY 50;
+ALTER SEQUENCE bars_id_seq INCREMENT BY 50;
+ALTER SEQUENCE rewards_id_seq INCREMENT BY 50;
+ALTER SEQUENCE transactions_id_seq INCREMENT BY 50;
+ALTER SEQUENCE points_entries_id_seq INCREMENT BY 50;
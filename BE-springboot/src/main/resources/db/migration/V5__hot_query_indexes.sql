@@ -0,0 +1,11 @@
+-- Indexes for the hot queries; QueryPlanRegressionTest fails if one of them stops being used.
+
+-- Transaction history per user / per bar, keyset on (created_at, id)
+CREATE INDEX idx_transactions_user_history ON transactions (user_id, created_at, id);
+CREATE INDEX idx_transactions_bar_history ON transactions (bar_id, created_at, id);
+
+-- RewardRepository.findByBarId and the ON DELETE CASCADE from bars
+CREATE INDEX idx_rewards_bar_id ON rewards (bar_id);
+
+-- Ledger reconciliation (sum/count per user) and the ON DELETE CASCADE from users
+CREATE INDEX idx_points_entries_user_id ON points_entries (user_id);
@@ -0,0 +1,21 @@
+-- One row per redeemed reward; the matching points_entries debit is written in the same transaction
+CREATE TABLE redemptions (
+    id BIGSERIAL PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    reward_id BIGINT,
+    bar_id BIGINT NOT NULL,
+    points_spent BIGINT NOT NULL,
+    created_at TIMESTAMP WITH TIME ZONE DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT fk_user_redemption FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
+    CONSTRAINT fk_reward_redemption FOREIGN KEY (reward_id) REFERENCES rewards(id) ON DELETE SET NULL,
+    CONSTRAINT fk_bar_redemption FOREIGN KEY (bar_id) REFERENCES bars(id) ON DELETE CASCADE
+);
+
+ALTER SEQUENCE redemptions_id_seq INCREMENT BY 50;
+
+-- Ledger rows point at the redemption they paid for
+ALTER TABLE points_entries ADD COLUMN redemption_id BIGINT;
+ALTER TABLE points_entries ADD CONSTRAINT fk_redemption_points
+    FOREIGN KEY (redemption_id) REFERENCES redemptions(id) ON DELETE SET NULL;
+
+CREATE INDEX idx_redemptions_user_history ON redemptions (user_id, created_at, id);
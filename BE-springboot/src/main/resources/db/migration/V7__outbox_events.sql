@@ -0,0 +1,16 @@
+-- Side effects of a committed change (points notifications, ...), written in the same transaction as
+-- the change and delivered by the outbox dispatcher; delivered rows are deleted
+CREATE TABLE outbox_events (
+    id BIGSERIAL PRIMARY KEY,
+    event_type VARCHAR(64) NOT NULL,
+    aggregate_id BIGINT,
+    payload TEXT NOT NULL,
+    attempts INTEGER NOT NULL DEFAULT 0,
+    available_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    last_error VARCHAR(500),
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+ALTER SEQUENCE outbox_events_id_seq INCREMENT BY 50;
+
+CREATE INDEX idx_outbox_events_available ON outbox_events (available_at, id);
@@ -0,0 +1,6 @@
+-- Idempotency-Key of POST /api/transactions: a retried purchase with the same key returns the original
+-- transaction. Unique per user, so concurrent duplicates on different nodes cannot both commit.
+ALTER TABLE transactions ADD COLUMN idempotency_key VARCHAR(100);
+
+CREATE UNIQUE INDEX uk_transactions_user_idempotency_key
+    ON transactions (user_id, idempotency_key) WHERE idempotency_key IS NOT NULL;
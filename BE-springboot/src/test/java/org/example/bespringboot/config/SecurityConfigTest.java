@@ -0,0 +1,50 @@
+package org.example.bespringboot.config;
+
+import org.example.bespringboot.dto.AuthenticatedUser;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Which caller may read which purchase data, checked through the real filter chain
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class SecurityConfigTest {
+
+    private static final AuthenticatedUser CLIENT = new AuthenticatedUser(1L, "student_dev", "ROLE_CLIENT");
+    private static final AuthenticatedUser STAFF = new AuthenticatedUser(2L, "bartender", "BAR_STAFF");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void userHistoryRequiresAuthentication() throws Exception {
+        mockMvc.perform(get("/api/transactions")).andExpect(status().isForbidden());
+        mockMvc.perform(get("/api/transactions").param("userId", "1")).andExpect(status().isForbidden());
+
+        mockMvc.perform(get("/api/transactions").with(user(CLIENT))).andExpect(status().isOk());
+    }
+
+    @Test
+    void transactionLookupsRequireAuthentication() throws Exception {
+        mockMvc.perform(get("/api/transactions/1/qr.png")).andExpect(status().isForbidden());
+        mockMvc.perform(get("/api/transactions/1")).andExpect(status().isForbidden());
+    }
+
+    @Test
+    void barHistoryIsForBarStaffOnly() throws Exception {
+        mockMvc.perform(get("/api/bars/1/transactions")).andExpect(status().isForbidden());
+        mockMvc.perform(get("/api/bars/1/transactions").with(user(CLIENT))).andExpect(status().isForbidden());
+
+        mockMvc.perform(get("/api/bars/1/transactions").param("size", "0").with(user(STAFF)))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/bars")).andExpect(status().isOk());
+    }
+}
@@ -0,0 +1,49 @@
+package org.example.bespringboot.controller;
+
+import org.example.bespringboot.dto.AuthenticatedUser;
+import org.example.bespringboot.dto.InsufficientPointsResponse;
+import org.example.bespringboot.dto.RedemptionResponse;
+import org.example.bespringboot.service.InsufficientPointsException;
+import org.example.bespringboot.service.RewardRedemptionService;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RewardControllerTest {
+
+    private final RewardRedemptionService rewardRedemptionService = mock(RewardRedemptionService.class);
+    private final RewardController controller = new RewardController(rewardRedemptionService);
+    private final AuthenticatedUser user = new AuthenticatedUser(1L, "alice", "USER");
+
+    @Test
+    void refusedRedemptionReportsBalanceAndCost() {
+        when(rewardRedemptionService.redeem(1L, 10L)).thenThrow(new InsufficientPointsException(40L, 100L));
+
+        ResponseEntity<?> response = controller.redeem(10L, user);
+
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+        assertEquals(new InsufficientPointsResponse(40L, 100L), response.getBody());
+    }
+
+    @Test
+    void redemptionIsCreatedAndUnknownRewardIsNotFound() {
+        RedemptionResponse redemption = RedemptionResponse.builder().redemptionId(5L).pointsBalance(60L).build();
+        when(rewardRedemptionService.redeem(1L, 10L)).thenReturn(Optional.of(redemption));
+        when(rewardRedemptionService.redeem(1L, 11L)).thenReturn(Optional.empty());
+
+        ResponseEntity<?> created = controller.redeem(10L, user);
+        ResponseEntity<?> missing = controller.redeem(11L, user);
+
+        assertEquals(HttpStatus.CREATED, created.getStatusCode());
+        assertEquals(redemption, created.getBody());
+        assertEquals(HttpStatus.NOT_FOUND, missing.getStatusCode());
+        assertNull(missing.getBody());
+    }
+}
@@ -0,0 +1,101 @@
+package org.example.bespringboot.controller;
+
+import org.example.bespringboot.dto.AuthenticatedUser;
+import org.example.bespringboot.dto.TransactionAcceptedResponse;
+import org.example.bespringboot.dto.TransactionRequest;
+import org.example.bespringboot.dto.TransactionStatusResponse;
+import org.example.bespringboot.entity.Transaction;
+import org.example.bespringboot.service.QrImageService;
+import org.example.bespringboot.service.TransactionHistoryService;
+import org.example.bespringboot.service.TransactionIdempotencyService;
+import org.example.bespringboot.service.TransactionService;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TransactionControllerTest {
+
+    private final TransactionService transactionService = mock(TransactionService.class);
+    private final QrImageService qrImageService = mock(QrImageService.class);
+    private final TransactionController controller = new TransactionController(transactionService,
+            mock(TransactionHistoryService.class), mock(TransactionIdempotencyService.class), qrImageService);
+    private final AuthenticatedUser owner = new AuthenticatedUser(1L, "alice", "CLIENT");
+    private final AuthenticatedUser otherUser = new AuthenticatedUser(2L, "bob", "CLIENT");
+
+    @Test
+    void asyncPurchaseIsAcceptedWithStatusLocation() {
+        ReflectionTestUtils.setField(controller, "asyncEnabled", true);
+        TransactionRequest request = new TransactionRequest();
+        request.setUserId(1L);
+        request.setBarId(2L);
+        request.setAmount(25L);
+        Transaction pending = new Transaction();
+        pending.setId(7L);
+        pending.setStatus("PENDING");
+        when(transactionService.submitTransaction(request, null)).thenReturn(pending);
+
+        ResponseEntity<?> response = controller.createTransaction(request, null);
+
+        assertEquals(HttpStatus.ACCEPTED, response.getStatusCode());
+        assertEquals(URI.create("/api/transactions/7"), response.getHeaders().getLocation());
+        assertEquals(TransactionAcceptedResponse.builder()
+                .transactionId(7L)
+                .status("PENDING")
+                .statusUrl("/api/transactions/7")
+                .build(), response.getBody());
+        verify(transactionService, never()).createTransaction(any(), any());
+    }
+
+    @Test
+    void qrImageIsServedOnlyToTheOwner() throws IOException {
+        when(transactionService.getQrCodeHash(7L, 1L)).thenReturn(Optional.of("hash-7"));
+        when(transactionService.getQrCodeHash(7L, 2L)).thenReturn(Optional.empty());
+        when(qrImageService.png("hash-7")).thenReturn(ByteBuffer.wrap(new byte[]{1, 2, 3}).asReadOnlyBuffer());
+
+        ResponseEntity<Resource> own = controller.getQrCodeImage(7L, owner);
+        ResponseEntity<Resource> foreign = controller.getQrCodeImage(7L, otherUser);
+
+        assertEquals(HttpStatus.OK, own.getStatusCode());
+        assertEquals(3, own.getBody().contentLength());
+        assertTrue(own.getHeaders().getCacheControl().contains("private"));
+        assertEquals(HttpStatus.NOT_FOUND, foreign.getStatusCode());
+        verify(qrImageService, times(1)).png("hash-7");
+    }
+
+    @Test
+    void statusLookupReturnsOwnTransactionOrNotFound() {
+        TransactionStatusResponse status = new TransactionStatusResponse(7L, 1L, 2L, 25L, 25L, "hash-7",
+                "COMPLETED", LocalDateTime.now());
+        when(transactionService.getTransactionStatus(7L, 1L)).thenReturn(Optional.of(status));
+        when(transactionService.getTransactionStatus(7L, 2L)).thenReturn(Optional.empty());
+        when(transactionService.getTransactionStatus(8L, 1L)).thenReturn(Optional.empty());
+
+        ResponseEntity<TransactionStatusResponse> found = controller.getTransactionStatus(7L, owner);
+        ResponseEntity<TransactionStatusResponse> foreign = controller.getTransactionStatus(7L, otherUser);
+        ResponseEntity<TransactionStatusResponse> missing = controller.getTransactionStatus(8L, owner);
+
+        assertEquals(HttpStatus.OK, found.getStatusCode());
+        assertEquals(status, found.getBody());
+        assertEquals(HttpStatus.NOT_FOUND, foreign.getStatusCode());
+        assertNull(foreign.getBody());
+        assertEquals(HttpStatus.NOT_FOUND, missing.getStatusCode());
+    }
+}
@@ -0,0 +1,168 @@
+package org.example.bespringboot.repository;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs each hot repository query against the local Postgres (migrated by Flyway) and checks its plan.
+ *
+ * The SQL is the one Hibernate actually generates, captured with a StatementInspector, and is planned
+ * as a generic prepared statement with enable_seqscan off. With seq scans disabled the planner still
+ * picks one when no index can serve the query, so a Seq Scan in the plan means an index is missing or
+ * the query no longer matches it, independent of how many rows the local tables hold.
+ */
+// The outbox dispatcher is off so that its background statements are not captured
+@SpringBootTest(properties = "app.outbox.dispatcher.enabled=false")
+@Transactional
+class QueryPlanRegressionTest {
+
+    private static final List<String> CAPTURED_SQL = new CopyOnWriteArrayList<>();
+    private static final LocalDateTime NOW = LocalDateTime.now();
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+    @Autowired
+    private RewardRepository rewardRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private PointsEntryRepository pointsEntryRepository;
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @TestConfiguration
+    static class StatementCaptureConfig {
+
+        @Bean
+        HibernatePropertiesCustomizer statementCapture() {
+            return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR,
+                    (StatementInspector) sql -> {
+                        CAPTURED_SQL.add(sql);
+                        return sql;
+                    });
+        }
+    }
+
+    @BeforeEach
+    void clearCapturedSql() {
+        CAPTURED_SQL.clear();
+    }
+
+    @Test
+    void transactionHistoryUsesIndexes() {
+        assertIndexed(() -> transactionRepository.findHistoryByUserId(1L, Limit.of(21)));
+        assertIndexed(() -> transactionRepository.findHistoryByUserIdBefore(1L, NOW, 1L, Limit.of(21)));
+        assertIndexed(() -> transactionRepository.findHistoryByBarId(1L, Limit.of(21)));
+        assertIndexed(() -> transactionRepository.findHistoryByBarIdBefore(1L, NOW, 1L, Limit.of(21)));
+    }
+
+    @Test
+    void transactionLookupsAndUpdatesUseIndexes() {
+        assertIndexed(() -> transactionRepository.findStatusByIdAndUserId(1L, 1L));
+        assertIndexed(() -> transactionRepository.findQrCodeHashByIdAndUserId(1L, 1L));
+        assertIndexed(() -> transactionRepository.findByUserIdAndIdempotencyKey(1L, "plan-check"));
+        assertIndexed(() -> transactionRepository.referencesExist(1L, 1L));
+        assertIndexed(() -> transactionRepository.markCompleted(-1L, "plan-check", 0L));
+        assertIndexed(() -> transactionRepository.markFailed(-1L));
+    }
+
+    @Test
+    void rewardsUsersAndLedgerUseIndexes() {
+        assertIndexed(() -> rewardRepository.findByBarId(1L));
+        assertIndexed(() -> userRepository.findByEmail("dev@student.tuiasi.ro"));
+        assertIndexed(() -> userRepository.findByUsername("student_dev"));
+        assertIndexed(() -> userRepository.findPointsBalanceById(1L));
+        assertIndexed(() -> userRepository.subtractPointsReturningBalance(-1L, 0L));
+        assertIndexed(() -> pointsEntryRepository.sumDeltaByUserId(1L));
+        assertIndexed(() -> pointsEntryRepository.countByUserId(1L));
+    }
+
+    @Test
+    void outboxClaimUsesIndex() {
+        assertIndexed(() -> outboxEventRepository.claimDue(10, 100));
+        assertIndexed(() -> outboxEventRepository.markFailed(-1L, "plan-check", 1));
+    }
+
+    private void assertIndexed(Runnable query) {
+        CAPTURED_SQL.clear();
+        query.run();
+        assertFalse(CAPTURED_SQL.isEmpty(), "query did not reach the database");
+
+        for (String sql : CAPTURED_SQL) {
+            List<String> seqScans = new ArrayList<>();
+            collectSeqScans(explainGeneric(sql), seqScans);
+            assertTrue(seqScans.isEmpty(), "Sequential scan on " + seqScans + " for:\n" + sql);
+        }
+    }
+
+    private JsonNode explainGeneric(String sql) {
+        // Hibernate's ? placeholders become $n so the statement can be PREPAREd and planned generically
+        StringBuilder prepared = new StringBuilder();
+        int parameters = 0;
+        for (char c : sql.toCharArray()) {
+            if (c == '?') {
+                prepared.append('$').append(++parameters);
+            } else {
+                prepared.append(c);
+            }
+        }
+        String arguments = parameters == 0 ? "" : "(" + String.join(", ", Collections.nCopies(parameters, "NULL")) + ")";
+
+        String plan = jdbcTemplate.execute((ConnectionCallback<String>) connection -> {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("SET LOCAL enable_seqscan = off");
+                statement.execute("SET LOCAL plan_cache_mode = force_generic_plan");
+                statement.execute("PREPARE plan_check AS " + prepared);
+                try (ResultSet result = statement.executeQuery("EXPLAIN (FORMAT JSON) EXECUTE plan_check" + arguments)) {
+                    result.next();
+                    return result.getString(1);
+                } finally {
+                    statement.execute("DEALLOCATE plan_check");
+                }
+            }
+        });
+
+        try {
+            return objectMapper.readTree(plan).get(0).get("Plan");
+        } catch (Exception e) {
+            throw new IllegalStateException("Unreadable plan for: " + sql, e);
+        }
+    }
+
+    private static void collectSeqScans(JsonNode node, List<String> seqScans) {
+        if ("Seq Scan".equals(node.path("Node Type").asText())) {
+            seqScans.add(node.path("Relation Name").asText());
+        }
+        for (JsonNode child : node.path("Plans")) {
+            collectSeqScans(child, seqScans);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package org.example.bespringboot.service;
+
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.bespringboot.dto.AuthenticatedUser;
+import org.example.bespringboot.entity.User;
+import org.example.bespringboot.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AuthenticatedUserServiceTest {
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final JwtService jwtService = new JwtService(new SimpleMeterRegistry(), 60_000, 100, 300);
+    private final AuthenticatedUserService service =
+            new AuthenticatedUserService(userRepository, new SimpleMeterRegistry(), 100, 300);
+
+    @Test
+    void buildsPrincipalFromClaimsWithoutDatabase() {
+        Claims claims = jwtService.extractClaims(jwtService.generateToken(user()));
+
+        AuthenticatedUser principal = service.resolve(claims);
+
+        assertEquals(7L, principal.getId());
+        assertEquals("dev@student.tuiasi.ro", principal.getUsername());
+        assertEquals("ROLE_CLIENT", principal.getAuthorities().iterator().next().getAuthority());
+        verify(userRepository, never()).findByEmail(principal.getUsername());
+    }
+
+    @Test
+    void cachesLegacyTokenLookupsUntilUserChanges() {
+        when(userRepository.findByEmail("dev@student.tuiasi.ro")).thenReturn(Optional.of(user()));
+        Claims legacy = jwtService.extractClaims(jwtService.generateToken("dev@student.tuiasi.ro"));
+
+        service.resolve(legacy);
+        service.resolve(legacy);
+        verify(userRepository, times(1)).findByEmail("dev@student.tuiasi.ro");
+
+        service.evict(7L);
+        assertEquals(7L, service.resolve(legacy).getId());
+        verify(userRepository, times(2)).findByEmail("dev@student.tuiasi.ro");
+
+        assertNull(service.resolve(jwtService.extractClaims(jwtService.generateToken("gone@tuiasi.ro"))));
+    }
+
+    private static User user() {
+        User user = new User();
+        user.setId(7L);
+        user.setUsername("dev@student.tuiasi.ro");
+        user.setEmail("dev@student.tuiasi.ro");
+        user.setRole("CLIENT");
+        return user;
+    }
+}
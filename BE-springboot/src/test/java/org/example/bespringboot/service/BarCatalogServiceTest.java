@@ -0,0 +1,70 @@
+package org.example.bespringboot.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.bespringboot.dto.BarRewardRow;
+import org.example.bespringboot.repository.BarRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BarCatalogServiceTest {
+
+    private final BarRepository barRepository = mock(BarRepository.class);
+    private final BarCatalogService service = new BarCatalogService(barRepository,
+            Jackson2ObjectMapperBuilder.json().build(), new SimpleMeterRegistry(), 300);
+
+    @Test
+    void rebuildThatReadBeforeAnInvalidationIsNotServedAfterIt() throws Exception {
+        CountDownLatch reading = new CountDownLatch(1);
+        CountDownLatch committed = new CountDownLatch(1);
+        when(barRepository.findCatalogRows())
+                .thenAnswer(invocation -> {
+                    reading.countDown();
+                    assertTrue(committed.await(5, TimeUnit.SECONDS));
+                    return List.of(row("Old name"));
+                })
+                .thenReturn(List.of(row("New name")));
+
+        CompletableFuture<BarCatalogService.SerializedBody> rebuild = CompletableFuture.supplyAsync(service::bars);
+        assertTrue(reading.await(5, TimeUnit.SECONDS));
+        // The rename commits while the rebuild still holds the rows it read before
+        service.invalidate();
+        committed.countDown();
+        rebuild.get(5, TimeUnit.SECONDS);
+
+        assertTrue(json(service.bars()).contains("New name"));
+        verify(barRepository, times(2)).findCatalogRows();
+    }
+
+    @Test
+    void servesSnapshotUntilInvalidated() {
+        when(barRepository.findCatalogRows()).thenReturn(List.of(row("Bar")));
+
+        service.bars();
+        service.rewards(1L);
+        verify(barRepository, times(1)).findCatalogRows();
+
+        service.invalidate();
+        service.bars();
+        verify(barRepository, times(2)).findCatalogRows();
+    }
+
+    private static BarRewardRow row(String barName) {
+        return new BarRewardRow(1L, barName, "Main street", 10L, "Beer", 100L, null);
+    }
+
+    private static String json(BarCatalogService.SerializedBody body) {
+        return new String(body.json(), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,60 @@
+package org.example.bespringboot.service;
+
+import com.google.zxing.BinaryBitmap;
+import com.google.zxing.DecodeHintType;
+import com.google.zxing.client.j2se.BufferedImageLuminanceSource;
+import com.google.zxing.common.HybridBinarizer;
+import com.google.zxing.qrcode.QRCodeReader;
+import org.example.bespringboot.dto.QrResponse;
+import org.example.bespringboot.service.qr.QrCodeEncoder;
+import org.example.bespringboot.service.qr.QrCodeMatrix;
+import org.example.bespringboot.service.qr.QrPngEncoder;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class JavaQrGeneratorTest {
+
+    @Test
+    void generatesDecodablePngMatchingPythonLayout() throws Exception {
+        JavaQrGenerator generator = new JavaQrGenerator(QrCodeEncoder.ErrorCorrection.L, 10, 4, 2);
+
+        QrResponse response = generator.generate(1L, 50L);
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(
+                Base64.getDecoder().decode(response.getQrCodeBase64())));
+
+        // 36-char UUID in byte mode at level L needs version 3: (29 + 2 * 4) modules * 10 px
+        assertEquals(370, image.getWidth());
+        assertEquals(370, image.getHeight());
+        assertEquals(response.getHash(), decode(image));
+    }
+
+    @ParameterizedTest
+    @EnumSource(QrCodeEncoder.ErrorCorrection.class)
+    void roundTripsAcrossVersions(QrCodeEncoder.ErrorCorrection ecl) throws Exception {
+        QrPngEncoder pngEncoder = new QrPngEncoder(3, 4, 1);
+        for (int length : new int[]{1, 17, 36, 120, 300, 700}) {
+            String payload = "x".repeat(length - 1) + length;
+            payload = payload.substring(payload.length() - length);
+
+            QrCodeMatrix matrix = QrCodeEncoder.encode(payload.getBytes(StandardCharsets.US_ASCII), ecl);
+            BufferedImage image = ImageIO.read(new ByteArrayInputStream(pngEncoder.encode(matrix)));
+
+            assertEquals(payload, decode(image), "version " + matrix.getVersion() + " / " + ecl);
+        }
+    }
+
+    private static String decode(BufferedImage image) throws Exception {
+        BinaryBitmap bitmap = new BinaryBitmap(new HybridBinarizer(new BufferedImageLuminanceSource(image)));
+        return new QRCodeReader().decode(bitmap, Map.of(DecodeHintType.PURE_BARCODE, Boolean.TRUE)).getText();
+    }
+}
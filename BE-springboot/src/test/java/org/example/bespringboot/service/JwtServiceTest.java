@@ -0,0 +1,55 @@
+package org.example.bespringboot.service;
+
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.User;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JwtServiceTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void verifiesOnceThenServesClaimsFromCache() {
+        JwtService jwtService = new JwtService(meterRegistry, 60_000, 100, 300);
+        String token = jwtService.generateToken("dev@student.tuiasi.ro");
+
+        Claims first = jwtService.extractClaims(token);
+        Claims second = jwtService.extractClaims(token);
+
+        assertNotNull(first);
+        assertSame(first, second);
+        assertTrue(jwtService.isTokenValid(token, User.withUsername("dev@student.tuiasi.ro").password("-").authorities(List.of()).build()));
+        assertEquals(1.0, cacheGets("miss"));
+        assertEquals(2.0, cacheGets("hit"));
+    }
+
+    @Test
+    void rejectsTamperedAndExpiredTokens() {
+        JwtService jwtService = new JwtService(meterRegistry, 60_000, 100, 300);
+        String token = jwtService.generateToken("dev@student.tuiasi.ro");
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+
+        JwtService expiredIssuer = new JwtService(new SimpleMeterRegistry(), -1_000, 100, 300);
+        String expired = expiredIssuer.generateToken("dev@student.tuiasi.ro");
+
+        assertNull(jwtService.extractClaims(tampered));
+        assertNull(jwtService.extractClaims(expired));
+        assertNull(jwtService.extractClaims("not-a-jwt"));
+        assertFalse(jwtService.isTokenValid(expired, User.withUsername("dev@student.tuiasi.ro").password("-").authorities(List.of()).build()));
+        assertEquals(0.0, cacheGets("hit"));
+    }
+
+    private double cacheGets(String result) {
+        return meterRegistry.get("cache.gets").tags("cache", "jwt.claims", "result", result).functionCounter().count();
+    }
+}
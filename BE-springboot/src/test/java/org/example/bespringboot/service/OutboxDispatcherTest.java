@@ -0,0 +1,91 @@
+package org.example.bespringboot.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.bespringboot.entity.OutboxEvent;
+import org.example.bespringboot.repository.OutboxEventRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OutboxDispatcherTest {
+
+    private final OutboxEventRepository repository = mock(OutboxEventRepository.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<String> handled = new ArrayList<>();
+    private OutboxDispatcher dispatcher;
+
+    @BeforeEach
+    void start() {
+        OutboxHandler handler = new OutboxHandler() {
+            @Override
+            public String eventType() {
+                return "TEST";
+            }
+
+            @Override
+            public void handle(OutboxEvent event) {
+                if (event.getPayload().equals("boom")) {
+                    throw new IllegalStateException("boom");
+                }
+                handled.add(event.getPayload());
+            }
+        };
+        // A long poll interval keeps the background thread parked after its first (empty) poll
+        dispatcher = new OutboxDispatcher(repository, new TransactionTemplate(mock(PlatformTransactionManager.class)),
+                List.of(handler), meterRegistry, 10, 60_000, 3);
+        verify(repository, timeout(2000)).claimDue(3, 10);
+    }
+
+    @AfterEach
+    void stop() {
+        dispatcher.close();
+    }
+
+    @Test
+    void deletesDeliveredEventsAndRetriesFailedOnesWithBackoff() {
+        when(repository.claimDue(3, 10)).thenReturn(List.of(
+                event(1L, "TEST", "a", 0), event(2L, "TEST", "boom", 1), event(3L, "OTHER", "c", 0)));
+
+        assertEquals(3, dispatcher.dispatchBatch());
+
+        assertEquals(List.of("a"), handled);
+        verify(repository).deleteAllByIdInBatch(List.of(1L));
+        verify(repository).markFailed(2L, "boom", 2.0);
+        verify(repository).markFailed(eq(3L), anyString(), eq(1.0));
+        assertEquals(1.0, meterRegistry.counter("outbox.events", "type", "TEST", "outcome", "delivered").count());
+        assertEquals(2.0, meterRegistry.counter("outbox.events", "type", "TEST", "outcome", "failed").count()
+                + meterRegistry.counter("outbox.events", "type", "OTHER", "outcome", "failed").count());
+    }
+
+    @Test
+    void givesUpAfterMaxAttempts() {
+        when(repository.claimDue(3, 10)).thenReturn(List.of(event(4L, "TEST", "boom", 2)));
+
+        dispatcher.dispatchBatch();
+
+        verify(repository).markFailed(4L, "boom", 4.0);
+        assertEquals(1.0, meterRegistry.counter("outbox.events", "type", "TEST", "outcome", "dead").count());
+    }
+
+    private static OutboxEvent event(Long id, String type, String payload, int attempts) {
+        OutboxEvent event = new OutboxEvent();
+        event.setId(id);
+        event.setEventType(type);
+        event.setPayload(payload);
+        event.setAttempts(attempts);
+        return event;
+    }
+}
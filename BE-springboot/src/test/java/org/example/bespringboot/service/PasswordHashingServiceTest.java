@@ -0,0 +1,64 @@
+package org.example.bespringboot.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.bespringboot.config.AsyncConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PasswordHashingServiceTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ThreadPoolExecutor executor = new AsyncConfig().passwordHashExecutor(1, 1);
+    private final PasswordHashingService service =
+            new PasswordHashingService(new BCryptPasswordEncoder(4), executor, meterRegistry, 4, 2000);
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void hashesOnPoolAndDetectsStrengthChange() {
+        String hash = service.encode("password");
+
+        assertTrue(service.matches("password", hash));
+        assertFalse(service.matches("wrong", hash));
+        assertFalse(service.needsRehash(hash));
+        assertTrue(service.needsRehash(new BCryptPasswordEncoder(5).encode("password")));
+        assertEquals(2, meterRegistry.timer("password.hash", "operation", "matches").count());
+    }
+
+    @Test
+    void rejectsWhenPoolAndQueueAreFull() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch running = new CountDownLatch(1);
+        executor.execute(() -> {
+            running.countDown();
+            awaitQuietly(release);
+        });
+        running.await();
+        executor.execute(() -> awaitQuietly(release));
+
+        assertThrows(PasswordHashingBusyException.class, () -> service.encode("password"));
+        assertTrue(service.encodeAsync("password").isCompletedExceptionally());
+        assertEquals(2.0, meterRegistry.counter("password.hash.rejected").count());
+        release.countDown();
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package org.example.bespringboot.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Relays a batch between two fan-out nodes through the local Postgres.
+ *
+ * The application context's {@link PointsClusterFanout} publishes; a second node built here LISTENs on
+ * its own connection, as another backend instance would. The batch is larger than one NOTIFY payload,
+ * so it goes out as several payloads in one pg_notify ... unnest(?::text[]) call.
+ */
+@SpringBootTest(properties = {"app.websocket.cluster.enabled=true",
+        "app.websocket.cluster.channel=" + PointsClusterFanoutPostgresTest.CHANNEL,
+        "app.outbox.dispatcher.enabled=false"})
+class PointsClusterFanoutPostgresTest {
+
+    static final String CHANNEL = "points_updates_test";
+
+    @Autowired
+    private PointsClusterFanout fanout;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Value("${spring.datasource.url}")
+    private String url;
+    @Value("${spring.datasource.username}")
+    private String username;
+    @Value("${spring.datasource.password}")
+    private String password;
+
+    private final SimpMessagingTemplate otherNodeBroker = mock(SimpMessagingTemplate.class);
+    private final SimpleMeterRegistry otherNodeRegistry = new SimpleMeterRegistry();
+    private PointsClusterFanout otherNode;
+
+    @BeforeEach
+    void startOtherNode() throws InterruptedException {
+        otherNode = new PointsClusterFanout(jdbcTemplate, otherNodeBroker, objectMapper, otherNodeRegistry,
+                CHANNEL, 64, 20, 100, 1000, url, username, password);
+        for (int i = 0; i < 100 && otherNodeRegistry.get("points.cluster.listener.connected").gauge().value() < 1; i++) {
+            Thread.sleep(100);
+        }
+        assertEquals(1.0, otherNodeRegistry.get("points.cluster.listener.connected").gauge().value());
+    }
+
+    @AfterEach
+    void stopOtherNode() {
+        otherNode.close();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void otherNodeReceivesEveryMessageOfABatch() {
+        String filler = "x".repeat(3000);
+        for (long userId = 1; userId <= 5; userId++) {
+            fanout.publish(Map.of("userId", userId, "pointsBalance", userId * 10, "status", filler));
+        }
+
+        for (long userId = 1; userId <= 5; userId++) {
+            ArgumentCaptor<Object> message = ArgumentCaptor.forClass(Object.class);
+            verify(otherNodeBroker, timeout(5000)).convertAndSend(eq("/topic/points/" + userId), message.capture());
+            assertEquals(userId * 10, ((Number) ((Map<String, Object>) message.getValue()).get("pointsBalance")).longValue());
+        }
+        assertEquals(5.0, otherNodeRegistry.counter("points.cluster.delivered").count());
+        assertTrue(otherNodeRegistry.counter("points.cluster.received").count() >= 3);
+    }
+}
@@ -0,0 +1,72 @@
+package org.example.bespringboot.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+class PointsClusterFanoutTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final SimpMessagingTemplate messagingTemplate = mock(SimpMessagingTemplate.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    // The listener only retries against the unreachable URL; these tests drive publish and deliver directly
+    private final PointsClusterFanout fanout = new PointsClusterFanout(jdbcTemplate, messagingTemplate,
+            new ObjectMapper(), meterRegistry, "points_updates", 64, 20, 100, 1000,
+            "jdbc:postgresql://127.0.0.1:1/none", "none", "none");
+
+    @AfterEach
+    void close() {
+        fanout.close();
+    }
+
+    @Test
+    void splitsABatchIntoPayloadsUnderTheNotifyLimit() {
+        String filler = "x".repeat(3000);
+        for (long userId = 1; userId <= 5; userId++) {
+            fanout.publish(Map.of("userId", userId, "pointsBalance", 10L, "status", filler));
+        }
+        fanout.publish(Map.of("userId", 6L, "pointsBalance", 10L, "status", "y".repeat(10_000)));
+
+        ArgumentCaptor<String[]> payloads = ArgumentCaptor.forClass(String[].class);
+        verify(jdbcTemplate, timeout(2000)).queryForList(anyString(), eq("points_updates"), payloads.capture());
+        assertEquals(3, payloads.getValue().length);
+        for (String payload : payloads.getValue()) {
+            assertTrue(payload.getBytes(StandardCharsets.UTF_8).length <= PointsClusterFanout.MAX_PAYLOAD_BYTES);
+            assertFalse(payload.contains("\"userId\":6"));
+        }
+        // A message that cannot fit a payload on its own is not relayed
+        assertEquals(1.0, meterRegistry.counter("points.cluster.dropped", "reason", "oversize").count());
+    }
+
+    @Test
+    void deliversOtherNodesMessagesAndSkipsItsOwn() {
+        fanout.publish(Map.of("userId", 1L, "pointsBalance", 10L));
+        ArgumentCaptor<String[]> payloads = ArgumentCaptor.forClass(String[].class);
+        verify(jdbcTemplate, timeout(2000)).queryForList(anyString(), eq("points_updates"), payloads.capture());
+
+        fanout.deliver(payloads.getValue()[0]);
+        verify(messagingTemplate, never()).convertAndSend(anyString(), any(Object.class));
+
+        fanout.deliver("{\"node\":\"other\",\"messages\":[{\"userId\":7,\"pointsBalance\":40}]}");
+        verify(messagingTemplate).convertAndSend(eq("/topic/points/7"), any(Object.class));
+        assertEquals(1.0, meterRegistry.counter("points.cluster.delivered").count());
+    }
+}
@@ -0,0 +1,63 @@
+package org.example.bespringboot.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+class PointsNotificationServiceTest {
+
+    private final SimpMessagingTemplate messagingTemplate = mock(SimpMessagingTemplate.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final PointsNotificationService service =
+            new PointsNotificationService(messagingTemplate, Optional.empty(), meterRegistry, 100, 1);
+
+    @AfterEach
+    void close() {
+        service.close();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void burstCollapsesToOneMessageCarryingEveryTransaction() {
+        service.notifyPointsUpdate(1L, 10L, Map.of("transactionId", 100L, "status", "COMPLETED"));
+        service.notifyPointsUpdate(1L, 20L, Map.of("transactionId", 101L, "status", "FAILED"));
+        service.notifyPointsUpdate(1L, 30L, Map.of("transactionId", 102L, "status", "COMPLETED"));
+
+        ArgumentCaptor<Object> message = ArgumentCaptor.forClass(Object.class);
+        verify(messagingTemplate, timeout(2000)).convertAndSend(eq("/topic/points/1"), message.capture());
+        Map<String, Object> sent = (Map<String, Object>) message.getValue();
+        assertEquals(30L, sent.get("pointsBalance"));
+        assertEquals(102L, sent.get("transactionId"));
+        List<Map<String, Object>> events = (List<Map<String, Object>>) sent.get("events");
+        assertEquals(List.of(100L, 101L, 102L), events.stream().map(event -> event.get("transactionId")).toList());
+        assertEquals(List.of("COMPLETED", "FAILED", "COMPLETED"), events.stream().map(event -> event.get("status")).toList());
+        assertEquals(2.0, meterRegistry.counter("points.notifications.coalesced").count());
+        assertEquals(1.0, meterRegistry.counter("points.notifications.sent").count());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void sendsUpdatesForNewUsersAtOnceWhenTheBacklogIsFull() {
+        service.notifyPointsUpdate(1L, 10L, Map.of("transactionId", 100L));
+        service.notifyPointsUpdate(2L, 10L, Map.of("transactionId", 200L));
+
+        ArgumentCaptor<Object> message = ArgumentCaptor.forClass(Object.class);
+        verify(messagingTemplate).convertAndSend(eq("/topic/points/2"), message.capture());
+        assertEquals(200L, ((Map<String, Object>) message.getValue()).get("transactionId"));
+        verify(messagingTemplate, timeout(2000)).convertAndSend(eq("/topic/points/1"), any(Object.class));
+        assertEquals(1.0, meterRegistry.counter("points.notifications.uncoalesced").count());
+    }
+}
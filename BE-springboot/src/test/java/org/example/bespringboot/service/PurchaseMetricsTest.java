@@ -0,0 +1,61 @@
+package org.example.bespringboot.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.bespringboot.dto.TransactionRequest;
+import org.example.bespringboot.repository.BarRepository;
+import org.example.bespringboot.repository.TransactionRepository;
+import org.example.bespringboot.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.ExecutorService;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PurchaseMetricsTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final PurchaseMetrics purchaseMetrics = new PurchaseMetrics(meterRegistry);
+
+    @Test
+    void failedQrCallIsCountedByErrorClassAndLeavesNothingInFlight() {
+        QrGenerator failingQr = (userId, amount) -> {
+            throw new IllegalStateException("QR service down");
+        };
+        TransactionRepository transactionRepository = mock(TransactionRepository.class);
+        when(transactionRepository.referencesExist(1L, 1L)).thenReturn(true);
+        TransactionService service = new TransactionService(failingQr, transactionRepository,
+                mock(UserRepository.class), mock(BarRepository.class), mock(PointsLedgerService.class),
+                mock(OutboxService.class), mock(TransactionTemplate.class), mock(ExecutorService.class),
+                purchaseMetrics, mock(QrImageService.class));
+        TransactionRequest request = new TransactionRequest();
+        request.setUserId(1L);
+        request.setBarId(1L);
+        request.setAmount(10L);
+
+        assertThrows(RuntimeException.class, () -> service.createTransaction(request));
+
+        assertEquals(1.0, meterRegistry.get("purchase.outcomes")
+                .tags("mode", "sync", "outcome", "FAILED", "error", "IllegalStateException")
+                .counter().count());
+        assertEquals(1, meterRegistry.get("purchase.phase").tag("phase", "qr").timer().count());
+        assertEquals(0.0, meterRegistry.get("purchase.inflight").gauge().value());
+    }
+
+    @Test
+    void completedPurchaseIsCountedWithoutError() {
+        purchaseMetrics.started();
+        assertEquals(1.0, meterRegistry.get("purchase.inflight").gauge().value());
+
+        assertEquals("done", purchaseMetrics.time(PurchaseMetrics.Phase.TRANSACTION_SAVE, () -> "done"));
+        purchaseMetrics.finished(PurchaseMetrics.MODE_ASYNC, null);
+
+        assertEquals(1.0, meterRegistry.get("purchase.outcomes")
+                .tags("mode", "async", "outcome", "COMPLETED", "error", "none")
+                .counter().count());
+        assertEquals(0.0, meterRegistry.get("purchase.inflight").gauge().value());
+    }
+}
@@ -0,0 +1,237 @@
+package org.example.bespringboot.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.example.bespringboot.config.AppConfig;
+import org.example.bespringboot.dto.QrResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Exercises the pooled client, circuit breaker, bulkhead, hedging and batching against a local stub
+ * of /generate-qr and /generate-qr/batch
+ */
+class PythonQrGeneratorTest {
+
+    private HttpServer server;
+    private ExecutorService executor;
+    private PoolingHttpClientConnectionManager connectionManager;
+    private CloseableHttpClient httpClient;
+    private SimpleMeterRegistry meterRegistry;
+
+    private final AtomicInteger hits = new AtomicInteger();
+    private final AtomicInteger batchHits = new AtomicInteger();
+    private final Set<Integer> clientPorts = ConcurrentHashMap.newKeySet();
+    private volatile int status = 200;
+    private volatile long firstRequestDelayMs;
+    private volatile long delayMs;
+
+    @BeforeEach
+    void startStub() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/generate-qr", this::handle);
+        server.createContext("/generate-qr/batch", this::handleBatch);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        meterRegistry = new SimpleMeterRegistry();
+
+        AppConfig appConfig = new AppConfig();
+        connectionManager = appConfig.httpConnectionManager(10, 10, 1000, 2000, 300);
+        httpClient = appConfig.httpClient(connectionManager, 500, 2000, 30);
+    }
+
+    @AfterEach
+    void stopStub() throws IOException {
+        httpClient.close();
+        server.stop(0);
+        executor.close();
+    }
+
+    @Test
+    void reusesKeepAliveConnection() {
+        PythonQrGenerator generator = generator(CircuitBreakerConfig.ofDefaults(), BulkheadConfig.ofDefaults(), false);
+
+        for (int i = 0; i < 5; i++) {
+            QrResponse response = generator.generate(1L, 50L);
+            assertEquals("hash-" + (i + 1), response.getHash());
+        }
+
+        assertEquals(5, hits.get());
+        assertEquals(1, clientPorts.size(), "all calls should share one pooled connection");
+        assertEquals(1, connectionManager.getTotalStats().getAvailable());
+    }
+
+    @Test
+    void opensCircuitAndFailsFast() {
+        status = 500;
+        CircuitBreakerConfig breaker = CircuitBreakerConfig.custom()
+                .slidingWindowSize(4)
+                .minimumNumberOfCalls(4)
+                .failureRateThreshold(50)
+                .waitDurationInOpenState(Duration.ofMinutes(1))
+                .build();
+        PythonQrGenerator generator = generator(breaker, BulkheadConfig.ofDefaults(), false);
+
+        for (int i = 0; i < 4; i++) {
+            assertThrows(RuntimeException.class, () -> generator.generate(1L, 50L));
+        }
+        RuntimeException rejected = assertThrows(RuntimeException.class, () -> generator.generate(1L, 50L));
+
+        assertInstanceOf(CallNotPermittedException.class, rejected.getCause());
+        assertEquals(4, hits.get(), "open circuit must not reach the QR service");
+    }
+
+    @Test
+    void bulkheadRejectsWhenSaturated() throws Exception {
+        delayMs = 500;
+        BulkheadConfig bulkhead = BulkheadConfig.custom()
+                .maxConcurrentCalls(1)
+                .maxWaitDuration(Duration.ZERO)
+                .build();
+        PythonQrGenerator generator = generator(CircuitBreakerConfig.ofDefaults(), bulkhead, false);
+
+        CountDownLatch started = new CountDownLatch(1);
+        executor.submit(() -> {
+            started.countDown();
+            return generator.generate(1L, 50L);
+        });
+        started.await();
+        while (hits.get() == 0) {
+            Thread.sleep(5);
+        }
+
+        RuntimeException rejected = assertThrows(RuntimeException.class, () -> generator.generate(2L, 50L));
+        assertInstanceOf(BulkheadFullException.class, rejected.getCause());
+    }
+
+    @Test
+    void hedgeAnswersWhenFirstAttemptStalls() {
+        firstRequestDelayMs = 1500;
+        PythonQrGenerator generator = generator(CircuitBreakerConfig.ofDefaults(), BulkheadConfig.ofDefaults(), true);
+
+        long start = System.nanoTime();
+        QrResponse response = generator.generate(1L, 50L);
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertEquals("hash-2", response.getHash());
+        assertTrue(elapsedMs < 1000, "hedged call took " + elapsedMs + " ms");
+        assertEquals(1.0, meterRegistry.counter("qr.python.hedges").count());
+    }
+
+    @Test
+    void coalescesConcurrentCallsIntoBatches() throws Exception {
+        PythonQrGenerator generator = generator(CircuitBreakerConfig.ofDefaults(), BulkheadConfig.ofDefaults(), false, true);
+        try {
+            List<Future<QrResponse>> futures = new ArrayList<>();
+            for (long userId = 1; userId <= 20; userId++) {
+                long id = userId;
+                futures.add(executor.submit(() -> generator.generate(id, 10L)));
+            }
+            for (int i = 0; i < futures.size(); i++) {
+                assertEquals("user-" + (i + 1), futures.get(i).get(5, TimeUnit.SECONDS).getHash());
+            }
+        } finally {
+            generator.destroy();
+        }
+
+        assertEquals(20, (int) meterRegistry.summary("batcher.batch.size", "name", "python-qr").totalAmount());
+        assertTrue(batchHits.get() < 20, "expected coalescing, got " + batchHits.get() + " batch calls");
+        assertEquals(0, hits.get());
+    }
+
+    private PythonQrGenerator generator(CircuitBreakerConfig breaker, BulkheadConfig bulkhead, boolean hedge) {
+        return generator(breaker, bulkhead, hedge, false);
+    }
+
+    private PythonQrGenerator generator(CircuitBreakerConfig breaker, BulkheadConfig bulkhead, boolean hedge,
+                                        boolean batch) {
+        RestTemplate restTemplate = new AppConfig().restTemplate(new AppConfig().clientHttpRequestFactory(httpClient));
+        return new PythonQrGenerator(
+                restTemplate,
+                CircuitBreakerRegistry.of(breaker),
+                BulkheadRegistry.of(bulkhead),
+                executor,
+                meterRegistry,
+                "http://127.0.0.1:" + server.getAddress().getPort(),
+                hedge,
+                100,
+                batch,
+                8,
+                20,
+                100,
+                2000);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        exchange.getRequestBody().readAllBytes();
+        int hit = hits.incrementAndGet();
+        clientPorts.add(exchange.getRemoteAddress().getPort());
+        try {
+            Thread.sleep(hit == 1 ? firstRequestDelayMs + delayMs : delayMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        byte[] body = ("{\"qr_code_base64\":\"AAAA\",\"hash\":\"hash-" + hit + "\"}").getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    // Echoes each item's user id back as its hash so callers can check they got their own result
+    private void handleBatch(HttpExchange exchange) throws IOException {
+        batchHits.incrementAndGet();
+        JsonNode items = new ObjectMapper().readTree(exchange.getRequestBody()).get("items");
+        StringBuilder body = new StringBuilder("{\"results\":[");
+        for (int i = 0; i < items.size(); i++) {
+            body.append(i > 0 ? "," : "")
+                    .append("{\"qr_code_base64\":\"AAAA\",\"hash\":\"user-")
+                    .append(items.get(i).get("user_id").asLong())
+                    .append("\"}");
+        }
+        byte[] bytes = body.append("]}").toString().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package org.example.bespringboot.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.bespringboot.dto.QrResponse;
+import org.example.bespringboot.service.qr.QrCodeEncoder;
+import org.example.bespringboot.service.qr.QrImageStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class QrImageServiceTest {
+
+    @TempDir
+    Path storeDir;
+
+    private QrImageService service;
+
+    @AfterEach
+    void tearDown() {
+        service.close();
+    }
+
+    @Test
+    void rendersSameImageAsGeneratorFromHashAlone() {
+        service = newService();
+        QrResponse generated = new JavaQrGenerator(QrCodeEncoder.ErrorCorrection.L, 10, 4, 2).generate(1L, 50L);
+
+        assertArrayEquals(generated.decodePng(), bytes(service.png(generated.getHash())));
+    }
+
+    @Test
+    void servesStoredImageAfterRestart() {
+        byte[] png = {1, 2, 3};
+        service = newService();
+        service.store("hash-1", png);
+        service.close();
+
+        service = newService();
+        ByteBuffer served = service.png("hash-1");
+
+        assertTrue(served.isReadOnly());
+        assertArrayEquals(png, bytes(served));
+    }
+
+    @Test
+    void storesRenderedImage() {
+        service = newService();
+        ByteBuffer rendered = service.png("hash-2");
+
+        assertEquals(rendered, service.png("hash-2"));
+    }
+
+    @Test
+    void rendersEveryImageWhenAnotherInstanceHoldsTheStore() {
+        try (QrImageStore otherInstance = new QrImageStore(storeDir, 1 << 20, 16, 0.5)) {
+            service = newService();
+            QrResponse generated = new JavaQrGenerator(QrCodeEncoder.ErrorCorrection.L, 10, 4, 2).generate(1L, 50L);
+
+            service.store(generated.getHash(), generated.decodePng());
+            assertArrayEquals(generated.decodePng(), bytes(service.png(generated.getHash())));
+
+            assertEquals(0, otherInstance.size());
+        }
+    }
+
+    private QrImageService newService() {
+        return new QrImageService(new SimpleMeterRegistry(), QrCodeEncoder.ErrorCorrection.L, 10, 4, 2,
+                storeDir, 1 << 20, 16, 0.5, 600);
+    }
+
+    private static byte[] bytes(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.duplicate().get(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,89 @@
+package org.example.bespringboot.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.bespringboot.dto.RedemptionResponse;
+import org.example.bespringboot.entity.Bar;
+import org.example.bespringboot.entity.Redemption;
+import org.example.bespringboot.entity.Reward;
+import org.example.bespringboot.repository.RedemptionRepository;
+import org.example.bespringboot.repository.RewardRepository;
+import org.example.bespringboot.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RewardRedemptionServiceTest {
+
+    private final RewardRepository rewardRepository = mock(RewardRepository.class);
+    private final RedemptionRepository redemptionRepository = mock(RedemptionRepository.class);
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final PointsLedgerService pointsLedgerService = mock(PointsLedgerService.class);
+    private final OutboxService outboxService = mock(OutboxService.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final RewardRedemptionService service = new RewardRedemptionService(rewardRepository,
+            redemptionRepository, userRepository, pointsLedgerService, outboxService,
+            new TransactionTemplate(mock(PlatformTransactionManager.class)), meterRegistry);
+
+    @Test
+    void debitsRecordsAndNotifies() {
+        when(rewardRepository.findById(3L)).thenReturn(Optional.of(reward()));
+        when(pointsLedgerService.debitIfCovered(7L, 100L)).thenReturn(Optional.of(25L));
+        when(redemptionRepository.save(any(Redemption.class))).thenAnswer(invocation -> {
+            Redemption redemption = invocation.getArgument(0);
+            redemption.setId(11L);
+            return redemption;
+        });
+
+        RedemptionResponse redemption = service.redeem(7L, 3L).orElseThrow();
+
+        assertEquals(11L, redemption.getRedemptionId());
+        assertEquals(2L, redemption.getBarId());
+        assertEquals(25L, redemption.getPointsBalance());
+        verify(pointsLedgerService).appendEntry(7L, -100L, 25L, PointsLedgerService.REASON_REDEMPTION, null, 11L);
+        verify(outboxService).append(PointsOutboxHandler.EVENT_TYPE, 7L, new PointsOutboxHandler.PointsUpdated(
+                7L, 25L, Map.of("redemptionId", 11L, "rewardId", 3L)));
+        assertEquals(1.0, meterRegistry.counter("rewards.redemptions", "outcome", "redeemed").count());
+    }
+
+    @Test
+    void refusesWithoutWritingWhenBalanceIsTooLow() {
+        when(rewardRepository.findById(3L)).thenReturn(Optional.of(reward()));
+        when(pointsLedgerService.debitIfCovered(7L, 100L)).thenReturn(Optional.empty());
+        when(userRepository.findPointsBalanceById(7L)).thenReturn(Optional.of(40L));
+
+        InsufficientPointsException e = assertThrows(InsufficientPointsException.class, () -> service.redeem(7L, 3L));
+
+        assertEquals(40L, e.getPointsBalance());
+        verify(redemptionRepository, never()).save(any());
+        verify(outboxService, never()).append(any(), any(), any());
+        verify(pointsLedgerService, never()).appendEntry(anyLong(), anyLong(), anyLong(), any(), any(), any());
+        assertEquals(1.0, meterRegistry.counter("rewards.redemptions", "outcome", "insufficient_points").count());
+    }
+
+    @Test
+    void unknownRewardIsEmpty() {
+        when(rewardRepository.findById(3L)).thenReturn(Optional.empty());
+
+        assertTrue(service.redeem(7L, 3L).isEmpty());
+        verify(pointsLedgerService, never()).debitIfCovered(anyLong(), anyLong());
+    }
+
+    private static Reward reward() {
+        Bar bar = new Bar();
+        bar.setId(2L);
+        return Reward.builder().id(3L).bar(bar).name("Free Beer").pointsCost(100L).build();
+    }
+}
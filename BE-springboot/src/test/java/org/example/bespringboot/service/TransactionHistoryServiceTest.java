@@ -0,0 +1,54 @@
+package org.example.bespringboot.service;
+
+import org.example.bespringboot.dto.TransactionStatusResponse;
+import org.example.bespringboot.repository.TransactionRepository;
+import org.example.bespringboot.service.TransactionHistoryService.HistoryPage;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class TransactionHistoryServiceTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 5, 1, 21, 30, 15, 123_456_000);
+
+    private final TransactionRepository transactionRepository = mock(TransactionRepository.class);
+    private final TransactionHistoryService service = new TransactionHistoryService(transactionRepository);
+
+    @Test
+    void continuesFromTheLastRowOfThePreviousPage() {
+        when(transactionRepository.findHistoryByUserId(1L, Limit.of(3)))
+                .thenReturn(List.of(row(30L, NOW), row(20L, NOW), row(10L, NOW.minusMinutes(1))));
+
+        HistoryPage first = service.userHistory(1L, null, 2);
+        assertEquals(List.of(30L, 20L), first.items().stream().map(TransactionStatusResponse::getId).toList());
+
+        when(transactionRepository.findHistoryByUserIdBefore(1L, NOW, 20L, Limit.of(3)))
+                .thenReturn(List.of(row(10L, NOW.minusMinutes(1))));
+
+        HistoryPage second = service.userHistory(1L, first.nextCursor(), 2);
+        assertEquals(1, second.items().size());
+        assertNull(second.nextCursor());
+        verify(transactionRepository).findHistoryByUserIdBefore(1L, NOW, 20L, Limit.of(3));
+    }
+
+    @Test
+    void rejectsCursorsItDidNotIssue() {
+        assertThrows(IllegalArgumentException.class, () -> service.barHistory(1L, "not a cursor", 20));
+        assertThrows(IllegalArgumentException.class, () -> service.barHistory(1L, "MjAyNHwx", 20));
+        verifyNoInteractions(transactionRepository);
+    }
+
+    private static TransactionStatusResponse row(Long id, LocalDateTime createdAt) {
+        return new TransactionStatusResponse(id, 1L, 1L, 50L, 5L, null, "COMPLETED", createdAt);
+    }
+}
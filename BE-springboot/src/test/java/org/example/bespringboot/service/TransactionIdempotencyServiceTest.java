@@ -0,0 +1,169 @@
+package org.example.bespringboot.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.bespringboot.dto.TransactionRequest;
+import org.example.bespringboot.entity.Bar;
+import org.example.bespringboot.entity.Transaction;
+import org.example.bespringboot.repository.TransactionRepository;
+import org.example.bespringboot.service.TransactionIdempotencyService.Outcome;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.sql.SQLException;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TransactionIdempotencyServiceTest {
+
+    private final TransactionRepository transactionRepository = mock(TransactionRepository.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final TransactionIdempotencyService service =
+            new TransactionIdempotencyService(transactionRepository, meterRegistry, 100, 600, 5_000);
+
+    @Test
+    void concurrentDuplicateWaitsForOriginalResult() throws Exception {
+        when(transactionRepository.findByUserIdAndIdempotencyKey(1L, "key-1")).thenReturn(Optional.empty());
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger purchases = new AtomicInteger();
+        Transaction created = transaction(42L, 1L, 25L);
+
+        CompletableFuture<Outcome> original = CompletableFuture.supplyAsync(() ->
+                service.execute("key-1", request(1L, 25L), () -> {
+                    purchases.incrementAndGet();
+                    started.countDown();
+                    await(release);
+                    return created;
+                }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Outcome> duplicate = CompletableFuture.supplyAsync(() ->
+                service.execute("key-1", request(1L, 25L), () -> {
+                    purchases.incrementAndGet();
+                    return transaction(43L, 1L, 25L);
+                }));
+        release.countDown();
+
+        assertFalse(original.get(5, TimeUnit.SECONDS).replayed());
+        assertSame(created, duplicate.get(5, TimeUnit.SECONDS).transaction());
+        assertTrue(duplicate.get().replayed());
+        assertEquals(1, purchases.get());
+        assertEquals(1.0, count("memory_hit"));
+    }
+
+    @Test
+    void failedPurchaseFreesKeyForRetry() {
+        when(transactionRepository.findByUserIdAndIdempotencyKey(1L, "key-2")).thenReturn(Optional.empty());
+
+        assertThrows(IllegalStateException.class, () -> service.execute("key-2", request(1L, 25L), () -> {
+            throw new IllegalStateException("QR service down");
+        }));
+        Outcome retry = service.execute("key-2", request(1L, 25L), () -> transaction(44L, 1L, 25L));
+
+        assertFalse(retry.replayed());
+        assertEquals(44L, retry.transaction().getId());
+    }
+
+    @Test
+    void asyncPurchaseFailedInBackgroundFreesKeyForRetry() {
+        Transaction pending = transaction(49L, 1L, 25L);
+        pending.setStatus("PENDING");
+        // Absent before the purchase, and again once markFailed has cleared the key
+        when(transactionRepository.findByUserIdAndIdempotencyKey(1L, "key-5")).thenReturn(Optional.empty());
+
+        Outcome accepted = service.execute("key-5", request(1L, 25L), () -> pending);
+        Outcome retry = service.execute("key-5", request(1L, 25L), () -> transaction(50L, 1L, 25L));
+
+        assertFalse(accepted.replayed());
+        assertFalse(retry.replayed());
+        assertEquals(50L, retry.transaction().getId());
+        assertEquals(2.0, count("first"));
+    }
+
+    @Test
+    void replaysPendingPurchaseWithItsCurrentRow() {
+        Transaction pending = transaction(51L, 1L, 25L);
+        pending.setStatus("PENDING");
+        Transaction completed = transaction(51L, 1L, 25L);
+        when(transactionRepository.findByUserIdAndIdempotencyKey(1L, "key-6"))
+                .thenReturn(Optional.empty(), Optional.of(completed));
+
+        service.execute("key-6", request(1L, 25L), () -> pending);
+        Outcome replay = service.execute("key-6", request(1L, 25L), () -> transaction(52L, 1L, 25L));
+
+        assertTrue(replay.replayed());
+        assertSame(completed, replay.transaction());
+        assertEquals(1.0, count("memory_hit"));
+    }
+
+    @Test
+    void replaysRowCommittedByAnotherNode() {
+        Transaction winner = transaction(45L, 1L, 25L);
+        when(transactionRepository.findByUserIdAndIdempotencyKey(1L, "key-3"))
+                .thenReturn(Optional.empty(), Optional.of(winner));
+
+        Outcome outcome = service.execute("key-3", request(1L, 25L), () -> {
+            throw new DataIntegrityViolationException("duplicate key",
+                    new SQLException("duplicate key value violates unique constraint", "23505"));
+        });
+
+        assertTrue(outcome.replayed());
+        assertSame(winner, outcome.transaction());
+        assertEquals(1.0, count("constraint_hit"));
+    }
+
+    @Test
+    void rejectsKeyReusedWithAnotherAmountOrInvalidKey() {
+        when(transactionRepository.findByUserIdAndIdempotencyKey(1L, "key-4"))
+                .thenReturn(Optional.of(transaction(46L, 1L, 25L)));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> service.execute("key-4", request(1L, 30L), () -> transaction(47L, 1L, 30L)));
+        assertThrows(IllegalArgumentException.class,
+                () -> service.execute("with space", request(1L, 25L), () -> transaction(48L, 1L, 25L)));
+        assertThrows(IllegalArgumentException.class,
+                () -> service.execute("", request(1L, 25L), () -> transaction(48L, 1L, 25L)));
+        assertEquals(1.0, count("mismatch"));
+    }
+
+    private double count(String result) {
+        return meterRegistry.get("transactions.idempotency").tag("result", result).counter().count();
+    }
+
+    private static TransactionRequest request(Long barId, Long amount) {
+        TransactionRequest request = new TransactionRequest();
+        request.setUserId(1L);
+        request.setBarId(barId);
+        request.setAmount(amount);
+        return request;
+    }
+
+    private static Transaction transaction(Long id, Long barId, Long amount) {
+        Bar bar = new Bar();
+        bar.setId(barId);
+        Transaction transaction = new Transaction();
+        transaction.setId(id);
+        transaction.setBar(bar);
+        transaction.setAmount(amount);
+        transaction.setStatus("COMPLETED");
+        return transaction;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
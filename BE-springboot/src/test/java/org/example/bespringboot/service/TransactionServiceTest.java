@@ -0,0 +1,171 @@
+package org.example.bespringboot.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.bespringboot.dto.QrResponse;
+import org.example.bespringboot.dto.TransactionRequest;
+import org.example.bespringboot.entity.Transaction;
+import org.example.bespringboot.repository.BarRepository;
+import org.example.bespringboot.repository.TransactionRepository;
+import org.example.bespringboot.repository.UserRepository;
+import org.example.bespringboot.service.PointsOutboxHandler.PointsUpdated;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Base64;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TransactionServiceTest {
+
+    private static final byte[] PNG = {1, 2, 3};
+
+    private final QrGenerator qrGenerator = mock(QrGenerator.class);
+    private final TransactionRepository transactionRepository = mock(TransactionRepository.class);
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final PointsLedgerService pointsLedgerService = mock(PointsLedgerService.class);
+    private final OutboxService outboxService = mock(OutboxService.class);
+    private final ExecutorService executor = mock(ExecutorService.class);
+    private final QrImageService qrImageService = mock(QrImageService.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final TransactionService service = new TransactionService(qrGenerator, transactionRepository,
+            userRepository, mock(BarRepository.class), pointsLedgerService, outboxService,
+            new TransactionTemplate(mock(PlatformTransactionManager.class)), executor,
+            new PurchaseMetrics(meterRegistry), qrImageService);
+
+    @BeforeEach
+    void setUp() {
+        when(transactionRepository.save(any(Transaction.class))).thenAnswer(invocation -> {
+            Transaction transaction = invocation.getArgument(0);
+            transaction.setId(7L);
+            return transaction;
+        });
+    }
+
+    @Test
+    void submittedTransactionIsPendingUntilCompletedInTheBackground() {
+        when(qrGenerator.generate(1L, 25L)).thenReturn(qr("hash-7"));
+        when(transactionRepository.markCompleted(7L, "hash-7", 25L)).thenReturn(1);
+        when(pointsLedgerService.credit(1L, 25L, 7L, PointsLedgerService.REASON_PURCHASE)).thenReturn(125L);
+
+        Transaction submitted = service.submitTransaction(request(), "key-1");
+
+        assertEquals("PENDING", submitted.getStatus());
+        assertEquals("key-1", submitted.getIdempotencyKey());
+        verify(qrGenerator, never()).generate(anyLong(), anyLong());
+
+        runBackgroundCompletion();
+
+        PointsUpdated update = pointsUpdate();
+        assertEquals(125L, update.pointsBalance());
+        assertEquals("COMPLETED", update.details().get("status"));
+        assertEquals("hash-7", update.details().get("qrCodeHash"));
+        assertEquals(Transaction.qrCodeUrl(7L), update.details().get("qrCodeUrl"));
+        verify(qrImageService).store("hash-7", PNG);
+        verify(transactionRepository, never()).markFailed(anyLong());
+        assertEquals(1.0, outcomes("COMPLETED", "none"));
+    }
+
+    @Test
+    void qrFailureMarksSubmittedTransactionFailed() {
+        when(qrGenerator.generate(1L, 25L)).thenThrow(new IllegalStateException("QR service down"));
+        when(userRepository.findPointsBalanceById(1L)).thenReturn(Optional.of(100L));
+
+        service.submitTransaction(request(), null);
+        runBackgroundCompletion();
+
+        verify(transactionRepository).markFailed(7L);
+        verify(transactionRepository, never()).markCompleted(anyLong(), any(), anyLong());
+        verify(pointsLedgerService, never()).credit(anyLong(), anyLong(), anyLong(), any());
+        PointsUpdated update = pointsUpdate();
+        assertEquals(100L, update.pointsBalance());
+        assertEquals("FAILED", update.details().get("status"));
+        assertEquals(1.0, outcomes("FAILED", "IllegalStateException"));
+    }
+
+    @Test
+    void transactionNoLongerPendingIsNotCredited() {
+        when(qrGenerator.generate(1L, 25L)).thenReturn(qr("hash-7"));
+        when(transactionRepository.markCompleted(7L, "hash-7", 25L)).thenReturn(0);
+        when(userRepository.findPointsBalanceById(1L)).thenReturn(Optional.of(100L));
+
+        service.submitTransaction(request(), null);
+        runBackgroundCompletion();
+
+        verify(pointsLedgerService, never()).credit(anyLong(), anyLong(), anyLong(), any());
+        verify(qrImageService, never()).store(any(), any());
+        verify(transactionRepository).markFailed(7L);
+        assertEquals("FAILED", pointsUpdate().details().get("status"));
+        assertEquals(1.0, outcomes("FAILED", "IllegalStateException"));
+    }
+
+    @Test
+    void unknownUserOrBarIsRejectedBeforeTheQrCall() {
+        when(transactionRepository.referencesExist(1L, 2L)).thenReturn(false);
+
+        assertThrows(IllegalArgumentException.class, () -> service.createTransaction(request()));
+
+        verify(qrGenerator, never()).generate(anyLong(), anyLong());
+        verify(transactionRepository, never()).save(any(Transaction.class));
+        assertEquals(1.0, meterRegistry.get("purchase.outcomes")
+                .tags("mode", "sync", "outcome", "FAILED", "error", "IllegalArgumentException")
+                .counter().count());
+    }
+
+    @Test
+    void qrFailureRecordsFailedTransactionForKnownUserAndBar() {
+        when(transactionRepository.referencesExist(1L, 2L)).thenReturn(true);
+        when(qrGenerator.generate(1L, 25L)).thenThrow(new IllegalStateException("QR service down"));
+
+        assertThrows(RuntimeException.class, () -> service.createTransaction(request()));
+
+        ArgumentCaptor<Transaction> failed = ArgumentCaptor.forClass(Transaction.class);
+        verify(transactionRepository).save(failed.capture());
+        assertEquals("FAILED", failed.getValue().getStatus());
+        verify(pointsLedgerService, never()).credit(anyLong(), anyLong(), anyLong(), any());
+    }
+
+    private void runBackgroundCompletion() {
+        ArgumentCaptor<Runnable> completion = ArgumentCaptor.forClass(Runnable.class);
+        verify(executor).execute(completion.capture());
+        completion.getValue().run();
+    }
+
+    private PointsUpdated pointsUpdate() {
+        ArgumentCaptor<Object> payload = ArgumentCaptor.forClass(Object.class);
+        verify(outboxService).append(eq(PointsOutboxHandler.EVENT_TYPE), eq(1L), payload.capture());
+        PointsUpdated update = (PointsUpdated) payload.getValue();
+        assertEquals(7L, update.details().get("transactionId"));
+        return update;
+    }
+
+    private double outcomes(String outcome, String error) {
+        return meterRegistry.get("purchase.outcomes")
+                .tags("mode", "async", "outcome", outcome, "error", error)
+                .counter().count();
+    }
+
+    private static QrResponse qr(String hash) {
+        return new QrResponse(Base64.getEncoder().encodeToString(PNG), hash);
+    }
+
+    private static TransactionRequest request() {
+        TransactionRequest request = new TransactionRequest();
+        request.setUserId(1L);
+        request.setBarId(2L);
+        request.setAmount(25L);
+        return request;
+    }
+}
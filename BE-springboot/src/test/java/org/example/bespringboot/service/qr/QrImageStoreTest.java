@@ -0,0 +1,144 @@
+package org.example.bespringboot.service.qr;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class QrImageStoreTest {
+
+    private static final int SEGMENT_BYTES = 4096;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void rollsOverSegmentsAndGrowsIndex() {
+        try (QrImageStore store = new QrImageStore(dir, SEGMENT_BYTES, 4, 0.5)) {
+            for (int i = 0; i < 200; i++) {
+                store.put("hash-" + i, image(i, 100));
+            }
+
+            assertEquals(200, store.size());
+            assertTrue(store.segmentCount() > 1);
+            for (int i = 0; i < 200; i++) {
+                assertEquals(ByteBuffer.wrap(image(i, 100)), store.get("hash-" + i));
+            }
+            assertNull(store.get("hash-200"));
+        }
+    }
+
+    @Test
+    void rebuildsIndexOnReopen() {
+        try (QrImageStore store = new QrImageStore(dir, SEGMENT_BYTES, 16, 0.5)) {
+            for (int i = 0; i < 100; i++) {
+                store.put("hash-" + i, image(i, 100));
+            }
+            store.put("hash-7", image(70, 50));
+        }
+
+        try (QrImageStore store = new QrImageStore(dir, SEGMENT_BYTES, 16, 0.5)) {
+            assertEquals(100, store.size());
+            assertEquals(ByteBuffer.wrap(image(70, 50)), store.get("hash-7"));
+            assertEquals(ByteBuffer.wrap(image(99, 100)), store.get("hash-99"));
+            assertTrue(store.liveBytes() < store.usedBytes());
+        }
+    }
+
+    @Test
+    void ignoresTornRecordAndOverwritesIt() throws IOException {
+        try (QrImageStore store = new QrImageStore(dir, SEGMENT_BYTES, 16, 0.5)) {
+            store.put("hash-1", image(1, 100));
+            store.put("hash-2", image(2, 100));
+        }
+        // Corrupt the last data byte of hash-2, as if the process died before it reached the page cache
+        Path segment = dir.resolve("segment-00000001.qrs");
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{(byte) 0xFF}), 2L * (14 + 6 + 100) - 1);
+        }
+
+        try (QrImageStore store = new QrImageStore(dir, SEGMENT_BYTES, 16, 0.5)) {
+            assertEquals(ByteBuffer.wrap(image(1, 100)), store.get("hash-1"));
+            assertNull(store.get("hash-2"));
+
+            store.put("hash-3", image(3, 100));
+            assertEquals(2 * (14 + 6 + 100), store.usedBytes());
+        }
+    }
+
+    @Test
+    void compactsSupersededRecords() {
+        try (QrImageStore store = new QrImageStore(dir, SEGMENT_BYTES, 16, 0.5)) {
+            for (int i = 0; i < 30; i++) {
+                store.put("hash-" + i, image(i, 100));
+            }
+            for (int i = 0; i < 30; i++) {
+                store.put("hash-" + i, image(i + 1, 100));
+            }
+            long usedBefore = store.usedBytes();
+
+            assertTrue(store.compact() > 0);
+
+            assertTrue(store.usedBytes() < usedBefore);
+            for (int i = 0; i < 30; i++) {
+                assertEquals(ByteBuffer.wrap(image(i + 1, 100)), store.get("hash-" + i));
+            }
+        }
+
+        try (QrImageStore store = new QrImageStore(dir, SEGMENT_BYTES, 16, 0.5)) {
+            assertEquals(30, store.size());
+            assertEquals(ByteBuffer.wrap(image(1, 100)), store.get("hash-0"));
+        }
+    }
+
+    @Test
+    void skipsIdenticalImage() {
+        try (QrImageStore store = new QrImageStore(dir, SEGMENT_BYTES, 16, 0.5)) {
+            store.put("hash-1", image(1, 100));
+            long used = store.usedBytes();
+
+            store.put("hash-1", image(1, 100));
+
+            assertEquals(used, store.usedBytes());
+        }
+    }
+
+    @Test
+    void rejectsInvalidKeyAndOversizedImage() {
+        try (QrImageStore store = new QrImageStore(dir, SEGMENT_BYTES, 16, 0.5)) {
+            assertThrows(IllegalArgumentException.class, () -> store.put("", image(1, 10)));
+            assertThrows(IllegalArgumentException.class, () -> store.put("hash 1", image(1, 10)));
+            assertThrows(IllegalArgumentException.class, () -> store.put("hash-1", image(1, SEGMENT_BYTES)));
+        }
+    }
+
+    @Test
+    void refusesSecondWriterUntilTheFirstCloses() {
+        QrImageStore first = new QrImageStore(dir, SEGMENT_BYTES, 16, 0.5);
+        first.put("hash-1", image(1, 100));
+
+        assertThrows(IllegalStateException.class, () -> new QrImageStore(dir, SEGMENT_BYTES, 16, 0.5));
+
+        first.close();
+        try (QrImageStore second = new QrImageStore(dir, SEGMENT_BYTES, 16, 0.5)) {
+            assertEquals(ByteBuffer.wrap(image(1, 100)), second.get("hash-1"));
+        }
+    }
+
+    private static byte[] image(int seed, int length) {
+        byte[] image = new byte[length];
+        Arrays.fill(image, (byte) seed);
+        image[0] = (byte) (seed >> 8);
+        return image;
+    }
+}
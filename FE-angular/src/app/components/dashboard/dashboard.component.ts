@@ -24,6 +24,7 @@ export class DashboardComponent implements OnInit, OnDestroy {
   errorMessage: string = '';
   successMessage: string = '';
   lastTransaction: any = null;
+  qrCodeImageUrl: string | null = null;
   selectedReward: Reward | null = null;
 
   private destroy$ = new Subject<void>();
@@ -127,6 +128,7 @@ export class DashboardComponent implements OnInit, OnDestroy {
     this.destroy$.next();
     this.destroy$.complete();
     this.apiService.disconnectWebSocket();
+    this.setQrCodeImage(null);
   }
 
   private loadUserFromStorage(): void {
@@ -174,6 +176,7 @@ export class DashboardComponent implements OnInit, OnDestroy {
         next: (response) => {
           this.isProcessing = false;
           this.lastTransaction = response;
+          this.loadQrCodeImage(response.id);
           console.log('[Dashboard] Transaction completed, awaiting WebSocket balance update');
           
         },
@@ -185,6 +188,23 @@ export class DashboardComponent implements OnInit, OnDestroy {
       });
   }
 
+  private loadQrCodeImage(transactionId: number): void {
+    this.setQrCodeImage(null);
+    this.apiService.getQrCodeImage(transactionId)
+      .pipe(takeUntil(this.destroy$))
+      .subscribe({
+        next: (png) => this.setQrCodeImage(png),
+        error: (error) => console.error('[Dashboard] QR image error:', error)
+      });
+  }
+
+  private setQrCodeImage(png: Blob | null): void {
+    if (this.qrCodeImageUrl) {
+      URL.revokeObjectURL(this.qrCodeImageUrl);
+    }
+    this.qrCodeImageUrl = png ? URL.createObjectURL(png) : null;
+  }
+
   onRedeemReward(bar: Bar, reward: Reward): void {
     const currentUserJson = localStorage.getItem('currentUser');
     if (!currentUserJson) {
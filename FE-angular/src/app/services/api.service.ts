@@ -54,6 +54,13 @@ export class ApiService {
     return this.http.post(url, request);
   }
 
+  // QR image of one of the user's completed transactions (PNG, cached by the browser).
+  // Fetched through HttpClient so the auth interceptor adds the token; an <img src> would not send it.
+  getQrCodeImage(transactionId: number): Observable<Blob> {
+    const url = `${this.API_BASE_URL}/transactions/${transactionId}/qr.png`;
+    return this.http.get(url, { responseType: 'blob' });
+  }
+
   connectWebSocket(userId: number): void {
     if (this.stompClient && this.stompClient.active) {
       console.log('WebSocket already connected');